@@ -0,0 +1,156 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link SmartKeywordScanner} with the keyword by keyword search on the contents loaded into memory, that is
+ * the way the keywords are matched by the HTTP response validator of the framework (the time taken grows with the
+ * number of keywords multiplied by the length of the contents).
+ *
+ * The contents file (100 MB by default) is generated once per trial with the keywords spread over the whole file in
+ * the same order as the keywords list, the last keyword is near the end of the file so every benchmark reads the whole
+ * file. The filler text contains the prefix of the keywords, so the partial matches are also exercised.
+ *
+ * Run using the jmh profile:
+ * <blockquote><pre>
+ *   mvn -Pjmh clean compile exec:exec -Djmh.benchmarks=SmartKeywordScannerBenchmark
+ * </pre></blockquote>
+ *
+ * @author Madhav Krishna
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx2g" })
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class SmartKeywordScannerBenchmark {
+	private static final String[] FILLER_WORDS = { "lorem", "ipsum", "dolor", "sit", "amet", "keyword", "keyword-",
+			"{\"id\":", "\"name\":", "value", "\n" };
+
+	@Param({ "50" })
+	private int keywordCount;
+
+	@Param({ "100" })
+	private int contentsSizeInMB;
+
+	@Param({ "false", "true" })
+	private boolean inOrder;
+
+	private File contentsFile;
+	private List<String> keywords;
+	private SmartKeywordScanner scanner;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		Random random = new Random(42);
+		keywords = new ArrayList<>();
+		for (int i = 0; i < keywordCount; i++) {
+			keywords.add("keyword-" + i + "-" + Integer.toHexString(random.nextInt()));
+		}
+
+		contentsFile = File.createTempFile("smart-keywords-", ".txt");
+		long contentsSize = contentsSizeInMB * 1024L * 1024L;
+		long keywordGap = contentsSize / keywordCount;
+		try (Writer writer = Files.newBufferedWriter(contentsFile.toPath(), StandardCharsets.UTF_8)) {
+			long written = 0;
+			int nextKeyword = 0;
+			while (written < contentsSize) {
+				String word;
+				if (nextKeyword < keywordCount && written >= (nextKeyword + 1) * keywordGap - 1024) {
+					word = keywords.get(nextKeyword++);
+				} else {
+					word = FILLER_WORDS[random.nextInt(FILLER_WORDS.length)];
+				}
+				writer.write(word);
+				writer.write(' ');
+				written += word.length() + 1;
+			}
+		}
+
+		scanner = SmartKeywordScanner.compile(keywords);
+		if (!scanner.findMissingKeywords(contentsFile, inOrder).isEmpty() || !findMissingKeywordsOneByOne().isEmpty()) {
+			throw new IllegalStateException("Generated contents do not contain all the keywords.");
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		contentsFile.delete();
+	}
+
+	@Benchmark
+	public List<String> keywordScanner() throws IOException {
+		return scanner.findMissingKeywords(contentsFile, inOrder);
+	}
+
+	@Benchmark
+	public List<String> keywordScannerIncludingCompile() throws IOException {
+		return SmartKeywordScanner.compile(keywords).findMissingKeywords(contentsFile, inOrder);
+	}
+
+	@Benchmark
+	public List<String> keywordByKeywordSearch() throws IOException {
+		return findMissingKeywordsOneByOne();
+	}
+
+	private List<String> findMissingKeywordsOneByOne() throws IOException {
+		String contents = Files.readString(contentsFile.toPath());
+		List<String> missingKeywords = new ArrayList<>();
+		int fromIndex = 0;
+		for (int i = 0; i < keywords.size(); i++) {
+			String keyword = keywords.get(i);
+			int index = contents.indexOf(keyword, inOrder ? fromIndex : 0);
+			if (index < 0) {
+				if (inOrder) {
+					missingKeywords.addAll(keywords.subList(i, keywords.size()));
+					break;
+				}
+				missingKeywords.add(keyword);
+			} else if (inOrder) {
+				fromIndex = index + keyword.length();
+			}
+		}
+		return missingKeywords;
+	}
+}
@@ -19,6 +19,7 @@ package org.uitnet.testing.smartfwk.core.stepdefs.en;
 
 import org.uitnet.testing.smartfwk.SmartCucumberScenarioContext;
 import org.uitnet.testing.smartfwk.SmartCucumberScenarioHooksExecuter;
+import org.uitnet.testing.smartfwk.core.stepdefs.en.api.support.SmartApiScenarioResources;
 import org.uitnet.testing.smartfwk.ui.core.config.TestConfigManager;
 
 import io.cucumber.java.After;
@@ -55,20 +56,25 @@ public class SmartStepDefs {
 	 */
 	@After
 	public void afterScenario(Scenario scenario) {
-		if(TestConfigManager.getInstance().getUseDefaultStepDefsHooks()) {
-			try {
-				if(scenarioContext.isUiScenario()) {
-					scenarioContext.captureScreenshotWithScenarioStatus("scenario-" + scenario.getStatus());
-				}		
-				
-				SmartCucumberScenarioHooksExecuter.getInstance().executeAfterScenarioHooks(scenarioContext);
-			} catch(Throwable th) { 
-				if(scenarioContext.isUiScenario()) {
-					scenarioContext.captureScreenshotWithScenarioStatus("scenario-" + scenario.getStatus());
+		try {
+			if(TestConfigManager.getInstance().getUseDefaultStepDefsHooks()) {
+				try {
+					if(scenarioContext.isUiScenario()) {
+						scenarioContext.captureScreenshotWithScenarioStatus("scenario-" + scenario.getStatus());
+					}		
+					
+					SmartCucumberScenarioHooksExecuter.getInstance().executeAfterScenarioHooks(scenarioContext);
+				} catch(Throwable th) { 
+					if(scenarioContext.isUiScenario()) {
+						scenarioContext.captureScreenshotWithScenarioStatus("scenario-" + scenario.getStatus());
+					}
+				} finally {			
+					scenarioContext.close(false);
 				}
-			} finally {			
-				scenarioContext.close(false);
 			}
+		} finally {
+			// release API step resources (cached documents, pending asynchronous HTTP requests etc.) held for this scenario.
+			SmartApiScenarioResources.release(scenarioContext);
 		}
 	}
 }
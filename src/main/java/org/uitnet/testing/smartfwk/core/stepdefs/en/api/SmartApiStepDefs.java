@@ -19,22 +19,59 @@ package org.uitnet.testing.smartfwk.core.stepdefs.en.api;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
 
 import org.testng.Assert;
 import org.uitnet.testing.smartfwk.SmartCucumberScenarioContext;
 import org.uitnet.testing.smartfwk.api.core.AbstractApiActionHandler;
 import org.uitnet.testing.smartfwk.api.core.reader.JsonDocumentReader;
-import org.uitnet.testing.smartfwk.api.core.reader.XmlDocumentReader;
 import org.uitnet.testing.smartfwk.api.core.support.HttpMultipartFileRequest;
 import org.uitnet.testing.smartfwk.api.core.support.HttpMultipartFormRequest;
 import org.uitnet.testing.smartfwk.api.core.support.HttpRequest;
 import org.uitnet.testing.smartfwk.api.core.support.HttpResponse;
 import org.uitnet.testing.smartfwk.api.core.support.MultipartFileRecord;
 import org.uitnet.testing.smartfwk.api.core.support.MultipartFormRecord;
+import org.uitnet.testing.smartfwk.core.stepdefs.en.api.support.SmartApiActionHandlerPool;
+import org.uitnet.testing.smartfwk.core.stepdefs.en.api.support.SmartApiScenarioResources;
+import org.uitnet.testing.smartfwk.core.stepdefs.en.api.support.SmartApiSessionCache;
+import org.uitnet.testing.smartfwk.core.stepdefs.en.api.support.SmartApiTargetServerConfig;
+import org.uitnet.testing.smartfwk.core.stepdefs.en.api.support.SmartBackoffPolicy;
+import org.uitnet.testing.smartfwk.core.stepdefs.en.api.support.SmartBoundedExecutor;
+import org.uitnet.testing.smartfwk.core.stepdefs.en.api.support.SmartHttpConnectionPool;
+import org.uitnet.testing.smartfwk.core.stepdefs.en.api.support.SmartHttpLoadGenerator;
+import org.uitnet.testing.smartfwk.core.stepdefs.en.api.support.SmartHttpPaginationCrawler;
+import org.uitnet.testing.smartfwk.core.stepdefs.en.api.support.SmartHttpRateLimiter;
+import org.uitnet.testing.smartfwk.core.stepdefs.en.api.support.SmartHttpRecordReplayStore;
+import org.uitnet.testing.smartfwk.core.stepdefs.en.api.support.SmartHttpRequestCoalescer;
+import org.uitnet.testing.smartfwk.core.stepdefs.en.api.support.SmartHttpRequestExecutor;
+import org.uitnet.testing.smartfwk.core.stepdefs.en.api.support.SmartHttpResponseDocumentCache;
+import org.uitnet.testing.smartfwk.core.stepdefs.en.api.support.SmartHttpRetryPolicy;
+import org.uitnet.testing.smartfwk.core.stepdefs.en.api.support.SmartHttpTiming;
+import org.uitnet.testing.smartfwk.core.stepdefs.en.api.support.SmartJsonSchema;
+import org.uitnet.testing.smartfwk.core.stepdefs.en.api.support.SmartJsonSchemaCache;
+import org.uitnet.testing.smartfwk.core.stepdefs.en.api.support.SmartKeywordScanner;
+import org.uitnet.testing.smartfwk.core.stepdefs.en.api.support.SmartMultipartBodyKey;
+import org.uitnet.testing.smartfwk.core.stepdefs.en.api.support.SmartPendingHttpResponse;
+import org.uitnet.testing.smartfwk.core.stepdefs.en.api.support.SmartRequestTemplateCache;
+import org.uitnet.testing.smartfwk.core.stepdefs.en.api.support.SmartSpilledHttpResponse;
+import org.uitnet.testing.smartfwk.core.stepdefs.en.api.support.SmartStreamingJsonPathExtractor;
+import org.uitnet.testing.smartfwk.core.stepdefs.en.common.data.support.SmartJsonMultiPathVerifier;
+import org.uitnet.testing.smartfwk.core.stepdefs.en.common.data.support.SmartJsonStructuralDiff;
+import org.uitnet.testing.smartfwk.core.stepdefs.en.common.data.support.SmartXmlMultiPathVerifier;
 import org.uitnet.testing.smartfwk.core.validator.ExpectedInfo;
 import org.uitnet.testing.smartfwk.core.validator.ParamPath;
 import org.uitnet.testing.smartfwk.core.validator.ParamValueType;
@@ -47,8 +84,11 @@ import org.uitnet.testing.smartfwk.ui.core.utils.StringUtil;
 import org.uitnet.testing.smartfwk.ui.core.utils.XMLDocumentUtil;
 import org.w3c.dom.Document;
 
+import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.TypeRef;
+import com.jayway.jsonpath.spi.json.JsonProvider;
 
 import io.cucumber.datatable.DataTable;
 import io.cucumber.docstring.DocString;
@@ -138,8 +178,7 @@ public class SmartApiStepDefs {
 		scenarioContext.addParamValue(requestVariableName, reqTxt);
 
 		targetURL = scenarioContext.applyParamsValueOnText(targetURL);
-		AbstractApiActionHandler handler =  scenarioContext.getApiTestManager().getActionHandler(appName, targetServer, userProfile);
-		HttpResponse httpResponse = handler.httpPut(targetURL, httpRequest, null, null);
+		HttpResponse httpResponse = executeHttpRequest(appName, targetServer, userProfile, "PUT", targetURL, httpRequest);
 		
 		scenarioContext.addParamValue(responseVariableName, httpResponse);
 	}
@@ -179,8 +218,7 @@ public class SmartApiStepDefs {
 		scenarioContext.addParamValue(requestVariableName, reqTxt);
 
 		targetURL = scenarioContext.applyParamsValueOnText(targetURL);
-		AbstractApiActionHandler handler =  scenarioContext.getApiTestManager().getActionHandler(appName, targetServer, userProfile);
-		HttpResponse httpResponse = handler.httpPut(targetURL, httpRequest, null, null);
+		HttpResponse httpResponse = executeHttpRequest(appName, targetServer, userProfile, "PUT", targetURL, httpRequest);
 		
 		scenarioContext.addParamValue(responseVariableName, httpResponse);
 	}
@@ -222,8 +260,7 @@ public class SmartApiStepDefs {
 		scenarioContext.addParamValue(requestVariableName, reqTxt);
 
 		targetURL = scenarioContext.applyParamsValueOnText(targetURL);
-		AbstractApiActionHandler handler =  scenarioContext.getApiTestManager().getActionHandler(appName, targetServer, userProfile);
-		HttpResponse httpResponse = handler.httpPost(targetURL, httpRequest, null, null);
+		HttpResponse httpResponse = executeHttpRequest(appName, targetServer, userProfile, "POST", targetURL, httpRequest);
 		
 		scenarioContext.addParamValue(responseVariableName, httpResponse);
 	}
@@ -263,8 +300,7 @@ public class SmartApiStepDefs {
 		scenarioContext.addParamValue(requestVariableName, reqTxt);
 
 		targetURL = scenarioContext.applyParamsValueOnText(targetURL);
-		AbstractApiActionHandler handler =  scenarioContext.getApiTestManager().getActionHandler(appName, targetServer, userProfile);
-		HttpResponse httpResponse = handler.httpPost(targetURL, httpRequest, null, null);
+		HttpResponse httpResponse = executeHttpRequest(appName, targetServer, userProfile, "POST", targetURL, httpRequest);
 		
 		scenarioContext.addParamValue(responseVariableName, httpResponse);
 	}
@@ -312,6 +348,7 @@ public class SmartApiStepDefs {
 		List<String> row;
 		String partName, fileName, fileContentType, applyVariables, filePath;
 		MultipartFileRecord multipartInfo;
+		SmartMultipartBodyKey bodyKey = new SmartMultipartBodyKey();
 		for(int i = 1; i < rows.size(); i++) {
 			row = rows.get(i);
 			partName = row.get(0);
@@ -320,19 +357,7 @@ public class SmartApiStepDefs {
 			applyVariables = row.get(3);
 			filePath = Locations.getProjectRootDir() + File.separator + row.get(4);
 			
-			if(applyVariables.trim().equalsIgnoreCase("yes") || applyVariables.trim().equalsIgnoreCase("true")) {
-				File f = new File(filePath);
-				String fileContents = null;
-				try {
-					fileContents = Files.readString(f.toPath());
-				} catch (IOException e) {
-					Assert.fail("Failed to read '" + filePath + "' file.", e);
-				}
-				fileContents = scenarioContext.applyParamsValueOnText(fileContents);
-				multipartInfo = new MultipartFileRecord(partName, fileName, fileContentType, fileContents.getBytes());
-			} else {
-				multipartInfo = new MultipartFileRecord(partName, fileName, fileContentType, filePath);
-			}
+			multipartInfo = newMultipartFileRecord(partName, fileName, fileContentType, applyVariables, filePath, bodyKey);
 			
 			httpRequest.addPart(multipartInfo);
 		}
@@ -340,8 +365,7 @@ public class SmartApiStepDefs {
 		scenarioContext.addParamValue(requestVariableName, httpRequest);
 
 		targetURL = scenarioContext.applyParamsValueOnText(targetURL);
-		AbstractApiActionHandler handler =  scenarioContext.getApiTestManager().getActionHandler(appName, targetServer, userProfile);
-		HttpResponse httpResponse = handler.httpUploadFormFiles(targetURL, httpRequest, null, null, true);
+		HttpResponse httpResponse = executeHttpUpload(appName, targetServer, userProfile, "PUT", targetURL, httpRequest, bodyKey);
 		
 		scenarioContext.addParamValue(responseVariableName, httpResponse);
 	}
@@ -390,6 +414,7 @@ public class SmartApiStepDefs {
 		List<String> row;
 		String partName, fileName, fileContentType, applyVariables, filePath;
 		MultipartFileRecord multipartInfo;
+		SmartMultipartBodyKey bodyKey = new SmartMultipartBodyKey();
 		for(int i = 1; i < rows.size(); i++) {
 			row = rows.get(i);
 			partName = row.get(0);
@@ -398,19 +423,7 @@ public class SmartApiStepDefs {
 			applyVariables = row.get(3);
 			filePath = Locations.getProjectRootDir() + File.separator + row.get(4);
 			
-			if(applyVariables.trim().equalsIgnoreCase("yes") || applyVariables.trim().equalsIgnoreCase("true")) {
-				File f = new File(filePath);
-				String fileContents = null;
-				try {
-					fileContents = Files.readString(f.toPath());
-				} catch (IOException e) {
-					Assert.fail("Failed to read '" + filePath + "' file.", e);
-				}
-				fileContents = scenarioContext.applyParamsValueOnText(fileContents);
-				multipartInfo = new MultipartFileRecord(partName, fileName, fileContentType, fileContents.getBytes());
-			} else {
-				multipartInfo = new MultipartFileRecord(partName, fileName, fileContentType, filePath);
-			}
+			multipartInfo = newMultipartFileRecord(partName, fileName, fileContentType, applyVariables, filePath, bodyKey);
 			
 			httpRequest.addPart(multipartInfo);
 		}
@@ -418,8 +431,7 @@ public class SmartApiStepDefs {
 		scenarioContext.addParamValue(requestVariableName, httpRequest);
 
 		targetURL = scenarioContext.applyParamsValueOnText(targetURL);
-		AbstractApiActionHandler handler =  scenarioContext.getApiTestManager().getActionHandler(appName, targetServer, userProfile);
-		HttpResponse httpResponse = handler.httpUploadFormFiles(targetURL, httpRequest, null, null, true);
+		HttpResponse httpResponse = executeHttpUpload(appName, targetServer, userProfile, "PUT", targetURL, httpRequest, bodyKey);
 		
 		scenarioContext.addParamValue(responseVariableName, httpResponse);
 	}
@@ -470,8 +482,9 @@ public class SmartApiStepDefs {
 		
 		List<List<String>> rows = filesDetails.asLists();
 		List<String> row;
-		String partName, partType, contentType, applyVariables, contents;
+		String partName, partType, contentType, applyVariables;
 		MultipartFormRecord multipartRecord = null;
+		SmartMultipartBodyKey bodyKey = new SmartMultipartBodyKey();
 		for(int i = 1; i < rows.size(); i++) {
 			row = rows.get(i);
 			partName = row.get(0);
@@ -479,32 +492,7 @@ public class SmartApiStepDefs {
 			contentType = row.get(2);
 			applyVariables = row.get(3);
 			
-			if("file".equalsIgnoreCase(partType)) {
-				contents = Locations.getProjectRootDir() + File.separator + row.get(4);
-				File f = new File(contents);
-				String fileContents = null;
-				try {
-					fileContents = Files.readString(f.toPath());
-				} catch (IOException e) {
-					Assert.fail("Failed to read '" + contents + "' file.", e);
-				}
-				if(fileContents != null) {
-					if("yes".equalsIgnoreCase(applyVariables)) {
-						fileContents = scenarioContext.applyParamsValueOnText(fileContents);
-					}
-					multipartRecord = new MultipartFormRecord(partName, partType, contentType, fileContents.getBytes());
-				} else {
-					multipartRecord = new MultipartFormRecord(partName, partType, contentType, null);
-				}
-			} else if("text".equalsIgnoreCase(partType)) {
-				contents = row.get(4);
-				if("yes".equalsIgnoreCase(applyVariables)) {
-					contents = scenarioContext.applyParamsValueOnText(contents);
-				}
-				multipartRecord = new MultipartFormRecord(partName, partType, contentType, contents.getBytes());
-			} else {
-				Assert.fail("Part type '" + partType + "' is not supported.");
-			}
+			multipartRecord = newMultipartFormRecord(partName, partType, contentType, applyVariables, row.get(4), bodyKey);
 			
 			httpRequest.addPart(multipartRecord);
 		}
@@ -512,8 +500,7 @@ public class SmartApiStepDefs {
 		scenarioContext.addParamValue(requestVariableName, httpRequest);
 
 		targetURL = scenarioContext.applyParamsValueOnText(targetURL);
-		AbstractApiActionHandler handler =  scenarioContext.getApiTestManager().getActionHandler(appName, targetServer, userProfile);
-		HttpResponse httpResponse = handler.httpUploadMultipartFormData(targetURL, httpRequest, null, null, false);
+		HttpResponse httpResponse = executeHttpUpload(appName, targetServer, userProfile, "POST", targetURL, httpRequest, bodyKey);
 		
 		scenarioContext.addParamValue(responseVariableName, httpResponse);
 	}
@@ -564,8 +551,9 @@ public class SmartApiStepDefs {
 		
 		List<List<String>> rows = filesDetails.asLists();
 		List<String> row;
-		String partName, partType, contentType, applyVariables, contents;
+		String partName, partType, contentType, applyVariables;
 		MultipartFormRecord multipartRecord = null;
+		SmartMultipartBodyKey bodyKey = new SmartMultipartBodyKey();
 		for(int i = 1; i < rows.size(); i++) {
 			row = rows.get(i);
 			partName = row.get(0);
@@ -573,32 +561,7 @@ public class SmartApiStepDefs {
 			contentType = row.get(2);
 			applyVariables = row.get(3);
 			
-			if("file".equalsIgnoreCase(partType)) {
-				contents = Locations.getProjectRootDir() + File.separator + row.get(4);
-				File f = new File(contents);
-				String fileContents = null;
-				try {
-					fileContents = Files.readString(f.toPath());
-				} catch (IOException e) {
-					Assert.fail("Failed to read '" + contents + "' file.", e);
-				}
-				if(fileContents != null) {
-					if("yes".equalsIgnoreCase(applyVariables)) {
-						fileContents = scenarioContext.applyParamsValueOnText(fileContents);
-					}
-					multipartRecord = new MultipartFormRecord(partName, partType, contentType, fileContents.getBytes());
-				} else {
-					multipartRecord = new MultipartFormRecord(partName, partType, contentType, null);
-				}
-			} else if("text".equalsIgnoreCase(partType)) {
-				contents = row.get(4);
-				if("yes".equalsIgnoreCase(applyVariables)) {
-					contents = scenarioContext.applyParamsValueOnText(contents);
-				}
-				multipartRecord = new MultipartFormRecord(partName, partType, contentType, contents.getBytes());
-			} else {
-				Assert.fail("Part type '" + partType + "' is not supported.");
-			}
+			multipartRecord = newMultipartFormRecord(partName, partType, contentType, applyVariables, row.get(4), bodyKey);
 			
 			httpRequest.addPart(multipartRecord);
 		}
@@ -606,8 +569,7 @@ public class SmartApiStepDefs {
 		scenarioContext.addParamValue(requestVariableName, httpRequest);
 
 		targetURL = scenarioContext.applyParamsValueOnText(targetURL);
-		AbstractApiActionHandler handler =  scenarioContext.getApiTestManager().getActionHandler(appName, targetServer, userProfile);
-		HttpResponse httpResponse = handler.httpUploadMultipartFormData(targetURL, httpRequest, null, null, true);
+		HttpResponse httpResponse = executeHttpUpload(appName, targetServer, userProfile, "PUT", targetURL, httpRequest, bodyKey);
 		
 		scenarioContext.addParamValue(responseVariableName, httpResponse);
 	}
@@ -656,8 +618,9 @@ public class SmartApiStepDefs {
 		
 		List<List<String>> rows = filesDetails.asLists();
 		List<String> row;
-		String partName, partType, contentType, applyVariables, contents;
+		String partName, partType, contentType, applyVariables;
 		MultipartFormRecord multipartRecord = null;
+		SmartMultipartBodyKey bodyKey = new SmartMultipartBodyKey();
 		for(int i = 1; i < rows.size(); i++) {
 			row = rows.get(i);
 			partName = row.get(0);
@@ -665,32 +628,7 @@ public class SmartApiStepDefs {
 			contentType = row.get(2);
 			applyVariables = row.get(3);
 						
-			if("file".equalsIgnoreCase(partType)) {
-				contents = Locations.getProjectRootDir() + File.separator + row.get(4);
-				File f = new File(contents);
-				String fileContents = null;
-				try {
-					fileContents = Files.readString(f.toPath());
-				} catch (IOException e) {
-					Assert.fail("Failed to read '" + contents + "' file.", e);
-				}
-				if(fileContents != null) {
-					if("yes".equalsIgnoreCase(applyVariables)) {
-						fileContents = scenarioContext.applyParamsValueOnText(fileContents);
-					}
-					multipartRecord = new MultipartFormRecord(partName, partType, contentType, fileContents.getBytes());
-				} else {
-					multipartRecord = new MultipartFormRecord(partName, partType, contentType, null);
-				}
-			} else if("text".equalsIgnoreCase(partType)) {
-				contents = row.get(4);
-				if("yes".equalsIgnoreCase(applyVariables)) {
-					contents = scenarioContext.applyParamsValueOnText(contents);
-				}
-				multipartRecord = new MultipartFormRecord(partName, partType, contentType, contents.getBytes());
-			} else {
-				Assert.fail("Part type '" + partType + "' is not supported.");
-			}
+			multipartRecord = newMultipartFormRecord(partName, partType, contentType, applyVariables, row.get(4), bodyKey);
 			
 			httpRequest.addPart(multipartRecord);
 		}
@@ -698,8 +636,7 @@ public class SmartApiStepDefs {
 		scenarioContext.addParamValue(requestVariableName, httpRequest);
 
 		targetURL = scenarioContext.applyParamsValueOnText(targetURL);
-		AbstractApiActionHandler handler =  scenarioContext.getApiTestManager().getActionHandler(appName, targetServer, userProfile);
-		HttpResponse httpResponse = handler.httpUploadMultipartFormData(targetURL, httpRequest, null, null, false);
+		HttpResponse httpResponse = executeHttpUpload(appName, targetServer, userProfile, "POST", targetURL, httpRequest, bodyKey);
 		
 		scenarioContext.addParamValue(responseVariableName, httpResponse);
 	}
@@ -748,8 +685,9 @@ public class SmartApiStepDefs {
 		
 		List<List<String>> rows = filesDetails.asLists();
 		List<String> row;
-		String partName, partType, contentType, applyVariables, contents;
+		String partName, partType, contentType, applyVariables;
 		MultipartFormRecord multipartRecord = null;
+		SmartMultipartBodyKey bodyKey = new SmartMultipartBodyKey();
 		for(int i = 1; i < rows.size(); i++) {
 			row = rows.get(i);
 			partName = row.get(0);
@@ -757,32 +695,7 @@ public class SmartApiStepDefs {
 			contentType = row.get(2);
 			applyVariables = row.get(3);
 						
-			if("file".equalsIgnoreCase(partType)) {
-				contents = Locations.getProjectRootDir() + File.separator + row.get(4);
-				File f = new File(contents);
-				String fileContents = null;
-				try {
-					fileContents = Files.readString(f.toPath());
-				} catch (IOException e) {
-					Assert.fail("Failed to read '" + contents + "' file.", e);
-				}
-				if(fileContents != null) {
-					if("yes".equalsIgnoreCase(applyVariables)) {
-						fileContents = scenarioContext.applyParamsValueOnText(fileContents);
-					}
-					multipartRecord = new MultipartFormRecord(partName, partType, contentType, fileContents.getBytes());
-				} else {
-					multipartRecord = new MultipartFormRecord(partName, partType, contentType, null);
-				}
-			} else if("text".equalsIgnoreCase(partType)) {
-				contents = row.get(4);
-				if("yes".equalsIgnoreCase(applyVariables)) {
-					contents = scenarioContext.applyParamsValueOnText(contents);
-				}
-				multipartRecord = new MultipartFormRecord(partName, partType, contentType, contents.getBytes());
-			} else {
-				Assert.fail("Part type '" + partType + "' is not supported.");
-			}
+			multipartRecord = newMultipartFormRecord(partName, partType, contentType, applyVariables, row.get(4), bodyKey);
 			
 			httpRequest.addPart(multipartRecord);
 		}
@@ -790,8 +703,7 @@ public class SmartApiStepDefs {
 		scenarioContext.addParamValue(requestVariableName, httpRequest);
 
 		targetURL = scenarioContext.applyParamsValueOnText(targetURL);
-		AbstractApiActionHandler handler =  scenarioContext.getApiTestManager().getActionHandler(appName, targetServer, userProfile);
-		HttpResponse httpResponse = handler.httpUploadMultipartFormData(targetURL, httpRequest, null, null, true);
+		HttpResponse httpResponse = executeHttpUpload(appName, targetServer, userProfile, "PUT", targetURL, httpRequest, bodyKey);
 		
 		scenarioContext.addParamValue(responseVariableName, httpResponse);
 	}
@@ -839,6 +751,7 @@ public class SmartApiStepDefs {
 		List<String> row;
 		String partName, fileName, fileContentType, applyVariables, filePath;
 		MultipartFileRecord multipartInfo;
+		SmartMultipartBodyKey bodyKey = new SmartMultipartBodyKey();
 		for(int i = 1; i < rows.size(); i++) {
 			row = rows.get(i);
 			partName = row.get(0);
@@ -847,19 +760,7 @@ public class SmartApiStepDefs {
 			applyVariables = row.get(3);
 			filePath = Locations.getProjectRootDir() + File.separator + row.get(4);
 			
-			if(applyVariables.trim().equalsIgnoreCase("yes") || applyVariables.trim().equalsIgnoreCase("true")) {
-				File f = new File(filePath);
-				String fileContents = null;
-				try {
-					fileContents = Files.readString(f.toPath());
-				} catch (IOException e) {
-					Assert.fail("Failed to read '" + filePath + "' file.", e);
-				}
-				fileContents = scenarioContext.applyParamsValueOnText(fileContents);
-				multipartInfo = new MultipartFileRecord(partName, fileName, fileContentType, fileContents.getBytes());
-			} else {
-				multipartInfo = new MultipartFileRecord(partName, fileName, fileContentType, filePath);
-			}
+			multipartInfo = newMultipartFileRecord(partName, fileName, fileContentType, applyVariables, filePath, bodyKey);
 			
 			httpRequest.addPart(multipartInfo);
 		}
@@ -867,8 +768,7 @@ public class SmartApiStepDefs {
 		scenarioContext.addParamValue(requestVariableName, httpRequest);
 
 		targetURL = scenarioContext.applyParamsValueOnText(targetURL);
-		AbstractApiActionHandler handler =  scenarioContext.getApiTestManager().getActionHandler(appName, targetServer, userProfile);
-		HttpResponse httpResponse = handler.httpUploadFormFiles(targetURL, httpRequest, null, null, false);
+		HttpResponse httpResponse = executeHttpUpload(appName, targetServer, userProfile, "POST", targetURL, httpRequest, bodyKey);
 		
 		scenarioContext.addParamValue(responseVariableName, httpResponse);
 	}
@@ -916,6 +816,7 @@ public class SmartApiStepDefs {
 		List<String> row;
 		String partName, fileName, fileContentType, applyVariables, filePath;
 		MultipartFileRecord multipartInfo;
+		SmartMultipartBodyKey bodyKey = new SmartMultipartBodyKey();
 		for(int i = 1; i < rows.size(); i++) {
 			row = rows.get(i);
 			partName = row.get(0);
@@ -924,19 +825,7 @@ public class SmartApiStepDefs {
 			applyVariables = row.get(3);
 			filePath = Locations.getProjectRootDir() + File.separator + row.get(4);
 			
-			if(applyVariables.trim().equalsIgnoreCase("yes") || applyVariables.trim().equalsIgnoreCase("true")) {
-				File f = new File(filePath);
-				String fileContents = null;
-				try {
-					fileContents = Files.readString(f.toPath());
-				} catch (IOException e) {
-					Assert.fail("Failed to read '" + filePath + "' file.", e);
-				}
-				fileContents = scenarioContext.applyParamsValueOnText(fileContents);
-				multipartInfo = new MultipartFileRecord(partName, fileName, fileContentType, fileContents.getBytes());
-			} else {
-				multipartInfo = new MultipartFileRecord(partName, fileName, fileContentType, filePath);
-			}
+			multipartInfo = newMultipartFileRecord(partName, fileName, fileContentType, applyVariables, filePath, bodyKey);
 			
 			httpRequest.addPart(multipartInfo);
 		}
@@ -944,12 +833,94 @@ public class SmartApiStepDefs {
 		scenarioContext.addParamValue(requestVariableName, httpRequest);
 
 		targetURL = scenarioContext.applyParamsValueOnText(targetURL);
-		AbstractApiActionHandler handler =  scenarioContext.getApiTestManager().getActionHandler(appName, targetServer, userProfile);
-		HttpResponse httpResponse = handler.httpUploadFormFiles(targetURL, httpRequest, null, null, false);
+		HttpResponse httpResponse = executeHttpUpload(appName, targetServer, userProfile, "POST", targetURL, httpRequest, bodyKey);
 		
 		scenarioContext.addParamValue(responseVariableName, httpResponse);
 	}
 	
+	/**
+	 * Prepares the multipart file record. If variables need to be applied and the file contains the variable placeholder 
+	 * then the variables are applied on the whole contents of the file and the result is uploaded, otherwise the file 
+	 * is uploaded from its original location without reading it into memory. The part is also added into the body key 
+	 * used to record / replay the request.
+	 */
+	private MultipartFileRecord newMultipartFileRecord(String partName, String fileName, String fileContentType, 
+			String applyVariables, String filePath, SmartMultipartBodyKey bodyKey) {
+		if((applyVariables.trim().equalsIgnoreCase("yes") || applyVariables.trim().equalsIgnoreCase("true")) 
+				&& containsVariablePlaceholder(filePath)) {
+			File f = new File(filePath);
+			String fileContents = null;
+			try {
+				fileContents = Files.readString(f.toPath());
+			} catch (IOException e) {
+				Assert.fail("Failed to read '" + filePath + "' file.", e);
+			}
+			fileContents = scenarioContext.applyParamsValueOnText(fileContents);
+			byte[] contents = fileContents.getBytes();
+			bodyKey.addPart(partName, fileName, fileContentType, contents);
+			return new MultipartFileRecord(partName, fileName, fileContentType, contents);
+		}
+		bodyKey.addFilePart(partName, fileName, fileContentType, new File(filePath).toPath());
+		return new MultipartFileRecord(partName, fileName, fileContentType, filePath);
+	}
+	
+	/**
+	 * Prepares the multipart form record of 'file' or 'text' part type. For 'file' part type the file contents are 
+	 * uploaded and the variables are applied on the whole contents of the file if required. The file that does not 
+	 * contain the variable placeholder is uploaded as it is (read once as bytes). The part is also added into the body 
+	 * key used to record / replay the request.
+	 */
+	private MultipartFormRecord newMultipartFormRecord(String partName, String partType, String contentType, 
+			String applyVariables, String contentsOrFilePath, SmartMultipartBodyKey bodyKey) {
+		byte[] contents = null;
+		if("file".equalsIgnoreCase(partType)) {
+			String filePath = Locations.getProjectRootDir() + File.separator + contentsOrFilePath;
+			File f = new File(filePath);
+			try {
+				if("yes".equalsIgnoreCase(applyVariables) && containsVariablePlaceholder(filePath)) {
+					contents = scenarioContext.applyParamsValueOnText(Files.readString(f.toPath())).getBytes();
+				} else {
+					contents = Files.readAllBytes(f.toPath());
+				}
+			} catch (IOException e) {
+				Assert.fail("Failed to read '" + filePath + "' file.", e);
+			}
+		} else if("text".equalsIgnoreCase(partType)) {
+			String text = contentsOrFilePath;
+			if("yes".equalsIgnoreCase(applyVariables)) {
+				text = scenarioContext.applyParamsValueOnText(text);
+			}
+			contents = text.getBytes();
+		} else {
+			Assert.fail("Part type '" + partType + "' is not supported.");
+		}
+		bodyKey.addPart(partName, partType, contentType, contents);
+		return new MultipartFormRecord(partName, partType, contentType, contents);
+	}
+	
+	/**
+	 * Checks whether the file contains the variable placeholder (${). The file is read chunk by chunk, so that the large 
+	 * file without any placeholder is not loaded into memory.
+	 */
+	private boolean containsVariablePlaceholder(String filePath) {
+		try(InputStream in = Files.newInputStream(new File(filePath).toPath())) {
+			byte[] buffer = new byte[8192];
+			boolean afterDollar = false;
+			int count;
+			while((count = in.read(buffer)) != -1) {
+				for(int i = 0; i < count; i++) {
+					if(afterDollar && buffer[i] == '{') {
+						return true;
+					}
+					afterDollar = buffer[i] == '$';
+				}
+			}
+		} catch (IOException e) {
+			Assert.fail("Failed to read '" + filePath + "' file.", e);
+		}
+		return false;
+	}
+	
 	/**
 	 * Used to make HTTP PUT request using the information present in request template file.
 	 * 
@@ -982,8 +953,8 @@ public class SmartApiStepDefs {
 		
 		String contents = null;
 		try {
-		    contents = Files.readString(new File(templateFilePath).toPath());
-		    contents = scenarioContext.applyParamsValueOnText(contents);
+		    contents = SmartRequestTemplateCache.getInstance().render(new File(templateFilePath).toPath(), 
+		    		text -> scenarioContext.applyParamsValueOnText(text));
 		} catch(Exception ex) {
 			Assert.fail("Failed to read '" + templateFilePath + "' file contents.", ex);
 		}
@@ -995,8 +966,7 @@ public class SmartApiStepDefs {
 		scenarioContext.addParamValue(requestVariableName, contents);
 
 		targetURL = scenarioContext.applyParamsValueOnText(targetURL);
-		AbstractApiActionHandler handler =  scenarioContext.getApiTestManager().getActionHandler(appName, targetServer, userProfile);
-		HttpResponse httpResponse = handler.httpPost(targetURL, httpRequest, null, null);
+		HttpResponse httpResponse = executeHttpRequest(appName, targetServer, userProfile, "POST", targetURL, httpRequest);
 		
 		scenarioContext.addParamValue(responseVariableName, httpResponse);
 	}
@@ -1033,8 +1003,8 @@ public class SmartApiStepDefs {
 		
 		String contents = null;
 		try {
-		    contents = Files.readString(new File(templateFilePath).toPath());
-		    contents = scenarioContext.applyParamsValueOnText(contents);
+		    contents = SmartRequestTemplateCache.getInstance().render(new File(templateFilePath).toPath(), 
+		    		text -> scenarioContext.applyParamsValueOnText(text));
 		} catch(Exception ex) {
 			Assert.fail("Failed to read '" + templateFilePath + "' file contents.", ex);
 		}
@@ -1046,8 +1016,7 @@ public class SmartApiStepDefs {
 		scenarioContext.addParamValue(requestVariableName, contents);
 
 		targetURL = scenarioContext.applyParamsValueOnText(targetURL);
-		AbstractApiActionHandler handler =  scenarioContext.getApiTestManager().getActionHandler(appName, targetServer, userProfile);
-		HttpResponse httpResponse = handler.httpPost(targetURL, httpRequest, null, null);
+		HttpResponse httpResponse = executeHttpRequest(appName, targetServer, userProfile, "POST", targetURL, httpRequest);
 		
 		scenarioContext.addParamValue(responseVariableName, httpResponse);
 	}
@@ -1139,8 +1108,7 @@ public class SmartApiStepDefs {
 		scenarioContext.addParamValue(requestVariableName, contents);
 
 		targetURL = scenarioContext.applyParamsValueOnText(targetURL);
-		AbstractApiActionHandler handler =  scenarioContext.getApiTestManager().getActionHandler(appName, targetServer, userProfile);
-		HttpResponse httpResponse = handler.httpPut(targetURL, httpRequest, null, null);
+		HttpResponse httpResponse = executeHttpRequest(appName, targetServer, userProfile, "PUT", targetURL, httpRequest);
 		
 		scenarioContext.addParamValue(responseVariableName, httpResponse);
 	}
@@ -1182,8 +1150,7 @@ public class SmartApiStepDefs {
 		scenarioContext.addParamValue(requestVariableName, contents);
 
 		targetURL = scenarioContext.applyParamsValueOnText(targetURL);
-		AbstractApiActionHandler handler =  scenarioContext.getApiTestManager().getActionHandler(appName, targetServer, userProfile);
-		HttpResponse httpResponse = handler.httpPut(targetURL, httpRequest, null, null);
+		HttpResponse httpResponse = executeHttpRequest(appName, targetServer, userProfile, "PUT", targetURL, httpRequest);
 		
 		scenarioContext.addParamValue(responseVariableName, httpResponse);
 	}
@@ -1225,8 +1192,7 @@ public class SmartApiStepDefs {
 		scenarioContext.addParamValue(requestVariableName, contents);
 
 		targetURL = scenarioContext.applyParamsValueOnText(targetURL);
-		AbstractApiActionHandler handler =  scenarioContext.getApiTestManager().getActionHandler(appName, targetServer, userProfile);
-		HttpResponse httpResponse = handler.httpPost(targetURL, httpRequest, null, null);
+		HttpResponse httpResponse = executeHttpRequest(appName, targetServer, userProfile, "POST", targetURL, httpRequest);
 		
 		scenarioContext.addParamValue(responseVariableName, httpResponse);
 	}
@@ -1268,8 +1234,7 @@ public class SmartApiStepDefs {
 		scenarioContext.addParamValue(requestVariableName, contents);
 
 		targetURL = scenarioContext.applyParamsValueOnText(targetURL);
-		AbstractApiActionHandler handler =  scenarioContext.getApiTestManager().getActionHandler(appName, targetServer, userProfile);
-		HttpResponse httpResponse = handler.httpPost(targetURL, httpRequest, null, null);
+		HttpResponse httpResponse = executeHttpRequest(appName, targetServer, userProfile, "POST", targetURL, httpRequest);
 		
 		scenarioContext.addParamValue(responseVariableName, httpResponse);
 	}
@@ -1311,8 +1276,7 @@ public class SmartApiStepDefs {
 		scenarioContext.addParamValue(requestVariableName, contents);
 
 		targetURL = scenarioContext.applyParamsValueOnText(targetURL);
-		AbstractApiActionHandler handler =  scenarioContext.getApiTestManager().getActionHandler(appName, targetServer, userProfile);
-		HttpResponse httpResponse = handler.httpPut(targetURL, httpRequest, null, null);
+		HttpResponse httpResponse = executeHttpRequest(appName, targetServer, userProfile, "PUT", targetURL, httpRequest);
 		
 		scenarioContext.addParamValue(responseVariableName, httpResponse);
 	}
@@ -1354,8 +1318,7 @@ public class SmartApiStepDefs {
 		scenarioContext.addParamValue(requestVariableName, contents);
 
 		targetURL = scenarioContext.applyParamsValueOnText(targetURL);
-		AbstractApiActionHandler handler =  scenarioContext.getApiTestManager().getActionHandler(appName, targetServer, userProfile);
-		HttpResponse httpResponse = handler.httpPut(targetURL, httpRequest, null, null);
+		HttpResponse httpResponse = executeHttpRequest(appName, targetServer, userProfile, "PUT", targetURL, httpRequest);
 		
 		scenarioContext.addParamValue(responseVariableName, httpResponse);
 	}
@@ -1397,8 +1360,7 @@ public class SmartApiStepDefs {
 		scenarioContext.addParamValue(requestVariableName, contents);
 
 		targetURL = scenarioContext.applyParamsValueOnText(targetURL);
-		AbstractApiActionHandler handler =  scenarioContext.getApiTestManager().getActionHandler(appName, targetServer, userProfile);
-		HttpResponse httpResponse = handler.httpPost(targetURL, httpRequest, null, null);
+		HttpResponse httpResponse = executeHttpRequest(appName, targetServer, userProfile, "POST", targetURL, httpRequest);
 		
 		scenarioContext.addParamValue(responseVariableName, httpResponse);
 	}
@@ -1440,8 +1402,7 @@ public class SmartApiStepDefs {
 		scenarioContext.addParamValue(requestVariableName, contents);
 
 		targetURL = scenarioContext.applyParamsValueOnText(targetURL);
-		AbstractApiActionHandler handler =  scenarioContext.getApiTestManager().getActionHandler(appName, targetServer, userProfile);
-		HttpResponse httpResponse = handler.httpPost(targetURL, httpRequest, null, null);
+		HttpResponse httpResponse = executeHttpRequest(appName, targetServer, userProfile, "POST", targetURL, httpRequest);
 		
 		scenarioContext.addParamValue(responseVariableName, httpResponse);
 	}
@@ -1468,7 +1429,7 @@ public class SmartApiStepDefs {
 		httpRequest.setResponseContentType(accept);
 
 		targetURL = scenarioContext.applyParamsValueOnText(targetURL);
-		HttpResponse httpResponse = scenarioContext.getApiTestManager().getActionHandler(appName, targetServer, userProfile).httpGet(targetURL, httpRequest.getHeaders(), null, null);
+		HttpResponse httpResponse = executeHttpRequest(appName, targetServer, userProfile, "GET", targetURL, httpRequest);
 		scenarioContext.addParamValue(responseVariableName, httpResponse);
 	}
 	
@@ -1497,8 +1458,7 @@ public class SmartApiStepDefs {
 		httpRequest.getHeaders().putAll(params);
 
 		targetURL = scenarioContext.applyParamsValueOnText(targetURL);
-		HttpResponse httpResponse = scenarioContext.getApiTestManager().getActionHandler(appName, targetServer, userProfile)
-				.httpGet(targetURL, httpRequest.getHeaders(), null, null);
+		HttpResponse httpResponse = executeHttpRequest(appName, targetServer, userProfile, "GET", targetURL, httpRequest);
 		scenarioContext.addParamValue(responseVariableName, httpResponse);
 	}
 	
@@ -1524,8 +1484,7 @@ public class SmartApiStepDefs {
 		httpRequest.setResponseContentType(accept);
 
 		targetURL = scenarioContext.applyParamsValueOnText(targetURL);
-		AbstractApiActionHandler handler =  scenarioContext.getApiTestManager().getActionHandler(appName, targetServer, userProfile);
-		HttpResponse httpResponse = handler.httpDelete(targetURL, httpRequest.getHeaders(), null, null);
+		HttpResponse httpResponse = executeHttpRequest(appName, targetServer, userProfile, "DELETE", targetURL, httpRequest);
 		scenarioContext.addParamValue(responseVariableName, httpResponse);
 	}
 	
@@ -1554,8 +1513,7 @@ public class SmartApiStepDefs {
 		httpRequest.getHeaders().putAll(params);
 
 		targetURL = scenarioContext.applyParamsValueOnText(targetURL);
-		AbstractApiActionHandler handler =  scenarioContext.getApiTestManager().getActionHandler(appName, targetServer, userProfile);
-		HttpResponse httpResponse = handler.httpDelete(targetURL, httpRequest.getHeaders(), null, null);
+		HttpResponse httpResponse = executeHttpRequest(appName, targetServer, userProfile, "DELETE", targetURL, httpRequest);
 		scenarioContext.addParamValue(responseVariableName, httpResponse);
 	}
 	
@@ -1583,8 +1541,7 @@ public class SmartApiStepDefs {
 		httpRequest.setResponseContentType(accept);
 
 		targetURL = scenarioContext.applyParamsValueOnText(targetURL);
-		AbstractApiActionHandler handler =  scenarioContext.getApiTestManager().getActionHandler(appName, targetServer, userProfile);
-		HttpResponse httpResponse = handler.httpHead(targetURL, httpRequest.getHeaders(), null, null);
+		HttpResponse httpResponse = executeHttpRequest(appName, targetServer, userProfile, "HEAD", targetURL, httpRequest);
 		scenarioContext.addParamValue(responseVariableName, httpResponse);
 	}
 	
@@ -1613,8 +1570,7 @@ public class SmartApiStepDefs {
 		httpRequest.getHeaders().putAll(params);	
 
 		targetURL = scenarioContext.applyParamsValueOnText(targetURL);
-		AbstractApiActionHandler handler =  scenarioContext.getApiTestManager().getActionHandler(appName, targetServer, userProfile);
-		HttpResponse httpResponse = handler.httpHead(targetURL, httpRequest.getHeaders(), null, null);
+		HttpResponse httpResponse = executeHttpRequest(appName, targetServer, userProfile, "HEAD", targetURL, httpRequest);
 		scenarioContext.addParamValue(responseVariableName, httpResponse);
 	}
 	
@@ -1637,6 +1593,106 @@ public class SmartApiStepDefs {
 		httpResponse.getValidator().validateExpectedResponseCode(httpStatusCode);
 	}
 	
+	/**
+	 * This step is used to verify the total time taken by the HTTP request. The timing is available for the responses
+	 * of the HTTP request steps (including the file upload / multipart form data steps).
+	 * 
+	 * @param responseVariableName - the variable name that stores the HTTPResponse information.
+	 * @param maxTimeInMillis - the response time (in milliseconds) should be less than this value.
+	 */
+	@Then("verify {string} HTTP response time is less than {int} milliseconds.")
+	public void verify_http_response_time_is_less_than_milliseconds(String responseVariableName, int maxTimeInMillis) {
+		if(!scenarioContext.isLastConditionSetToTrue()) {
+			scenarioContext.log("This step is not executed due to false value of condition=\"" + scenarioContext.getLastConditionName() + "\".");
+			return;
+		}
+		
+		SmartHttpTiming timing = getHttpTiming(responseVariableName);
+		if(timing.getTotalInMillis() >= maxTimeInMillis) {
+			Assert.fail("Response time of '" + responseVariableName + "' HTTP response is " + timing.getTotalInMillis() 
+				+ " milliseconds, expected less than " + maxTimeInMillis + " milliseconds. Timing: " + timing);
+		}
+	}
+	
+	/**
+	 * This step is used to verify the percentile (like P95) of the total time taken by the HTTP requests. The percentile is 
+	 * calculated using nearest rank method. The HTTP response variables are specified in the following format:
+	 * <blockquote><pre>
+	 * | HTTP Response Variable |
+	 * | getUserResponse1       |
+	 * | getUserResponse2       |
+	 * </pre></blockquote>
+	 * 
+	 * First row is always considered as the header.
+	 * 
+	 * @param percentile - the percentile, valid values are 1 to 100.
+	 * @param maxTimeInMillis - the response time (in milliseconds) at the percentile should be less than this value.
+	 * @param responseVariables - the variable names that store the HTTPResponse information.
+	 */
+	@Then("verify P{int} response time of the following HTTP responses is less than {int} milliseconds:")
+	public void verify_percentile_response_time_of_the_following_http_responses_is_less_than_milliseconds(int percentile, 
+			int maxTimeInMillis, DataTable responseVariables) {
+		if(!scenarioContext.isLastConditionSetToTrue()) {
+			scenarioContext.log("This step is not executed due to false value of condition=\"" + scenarioContext.getLastConditionName() + "\".");
+			return;
+		}
+		
+		if(percentile < 1 || percentile > 100) {
+			Assert.fail("Percentile '" + percentile + "' is not valid. Valid values are 1 to 100.");
+		}
+		
+		List<List<String>> rows = responseVariables.asLists();
+		if(rows.size() < 2) {
+			Assert.fail("No HTTP response variable found.");
+		}
+		
+		double[] responseTimes = new double[rows.size() - 1];
+		for(int i = 1; i < rows.size(); i++) {
+			responseTimes[i - 1] = getHttpTiming(rows.get(i).get(0)).getTotalInMillis();
+		}
+		Arrays.sort(responseTimes);
+		
+		int rank = (int) Math.ceil(percentile / 100.0 * responseTimes.length);
+		double responseTime = responseTimes[Math.max(rank, 1) - 1];
+		scenarioContext.log("P" + percentile + " response time of " + responseTimes.length + " HTTP responses: " + responseTime + " milliseconds.");
+		if(responseTime >= maxTimeInMillis) {
+			Assert.fail("P" + percentile + " response time of " + responseTimes.length + " HTTP responses is " + responseTime 
+				+ " milliseconds, expected less than " + maxTimeInMillis + " milliseconds. Response times (sorted): " 
+				+ Arrays.toString(responseTimes));
+		}
+	}
+	
+	/**
+	 * Used to store the timing of the HTTP request into a variable as JSON object. The JSON object contains the following 
+	 * information (time is in milliseconds):
+	 * <blockquote><pre>
+	 *   { source: "network", queueWait: 0.02, handlerSetup: 0.1, total: 161.3 }
+	 * </pre></blockquote>
+	 * 
+	 * For the details of the phases, please refer {@link SmartHttpTiming} class.
+	 * 
+	 * @param responseVariableName - the variable name that stores the HTTPResponse information.
+	 * @param variableName - the name of the variable in which we want to store the timing.
+	 */
+	@Then("store timing of {string} HTTP response into {string} variable.")
+	public void store_timing_of_http_response_into_variable(String responseVariableName, String variableName) {
+		if(!scenarioContext.isLastConditionSetToTrue()) {
+			scenarioContext.log("This step is not executed due to false value of condition=\"" + scenarioContext.getLastConditionName() + "\".");
+			return;
+		}
+		
+		scenarioContext.addParamValue(variableName, JsonPath.parse(getHttpTiming(responseVariableName).toMap()));
+	}
+	
+	private SmartHttpTiming getHttpTiming(String responseVariableName) {
+		HttpResponse httpResponse = (HttpResponse) scenarioContext.getParamValue(responseVariableName);
+		Assert.assertNotNull(httpResponse, "HTTP response '" + responseVariableName + "' not found.");
+		
+		SmartHttpTiming timing = SmartHttpTiming.of(httpResponse);
+		Assert.assertNotNull(timing, "Timing information of '" + responseVariableName + "' HTTP response not found.");
+		return timing;
+	}
+	
 	/**
 	 * This step is used to verify the header information: Content-Type
 	 * 
@@ -1702,6 +1758,11 @@ public class SmartApiStepDefs {
 	/**
 	 * Used to verify the body/payload contents of HTTP Response. 
 	 * 
+	 * The body kept in memory is verified by the HTTP response validator of the framework. The body spilled into 
+	 * temporary file is scanned chunk by chunk using {@link SmartKeywordScanner}, so that it is not loaded 
+	 * into memory. The scanner finds all the keywords in one pass and for inOrder=yes each keyword must start after the 
+	 * end of the previous keyword (keywords do not overlap).
+	 * 
 	 * @param httpResponseVariableName - the variable name that stores the HTTPResponse information.
 	 * @param keywordsInfo - the keywords that need to verified in HTTP response body. The syntax for expecting keywords is given below:
 	 *   <blockquote><pre>
@@ -1727,6 +1788,20 @@ public class SmartApiStepDefs {
 			Assert.fail("No expected keywords found to match in response body.");
 		}
 		
+		if(httpResponse instanceof SmartSpilledHttpResponse) {
+			boolean keywordsInOrder = "true".equalsIgnoreCase(inOrder) || "yes".equalsIgnoreCase(inOrder);
+			try(Reader payloadReader = openPayloadReader(httpResponse)) {
+				List<String> missingKeywords = SmartKeywordScanner.compile(keywords).findMissingKeywords(payloadReader, keywordsInOrder);
+				if(missingKeywords.size() > 0) {
+					Assert.fail("HTTP response body does not contain the following keywords" + (keywordsInOrder ? " in order" : "") 
+							+ ": " + missingKeywords);
+				}
+			} catch(IOException ex) {
+				Assert.fail("Failed to read HTTP response body.", ex);
+			}
+			return;
+		}
+		
 		if("true".equalsIgnoreCase(inOrder) || "yes".equalsIgnoreCase(inOrder)) {
 			httpResponse.getValidator().validateBodyContainsKeywords(keywords, true);
 		} else {
@@ -1764,10 +1839,13 @@ public class SmartApiStepDefs {
 		HttpResponse httpResponse = (HttpResponse) scenarioContext.getParamValue(responseVariableName);
 		Assert.assertNotNull(httpResponse, "HTTP response not found.");
 		
-		httpResponse.getValidator().validateResponseNotEmpty();
+		validateResponseNotEmpty(httpResponse);
 				
-		DocumentContext jsonObj = new JsonDocumentReader(httpResponse.getPayload(), false).getDocumentContext();
+		DocumentContext jsonObj = SmartApiScenarioResources.getInstance(scenarioContext).getDocumentCache()
+				.getJsonDocument(responseVariableName, httpResponse);
 		
+		// all the rows are verified using single walk over the JSON document.
+		SmartJsonMultiPathVerifier verifier = new SmartJsonMultiPathVerifier(jsonObj);
 		List<List<String>> rows = expectedParamsInfo.asLists();
 		List<String> row;
 		String jsonPath, oper, expectedInfo;
@@ -1780,9 +1858,140 @@ public class SmartApiStepDefs {
 			jsonPath = scenarioContext.applyParamsValueOnText(jsonPath);
 			expectedInfo = scenarioContext.applyParamsValueOnText(expectedInfo);
 			
-			// verify the actual value against the expected value.
-			SmartDataValidator.validateJsonOrYamlData(jsonObj, jsonPath, oper, expectedInfo);
+			verifier.addRow(jsonPath, oper, expectedInfo);
+		}
+		
+		// verify the actual values against the expected values.
+		verifier.verify();
+	}
+	
+	/**
+	 * Verifies the JSON of the actual HTTP response equals the JSON of the expected HTTP response (like the snapshots of
+	 * the old and new service versions). Both documents are hashed bottom-up, so the identical subtrees are compared using
+	 * their hashes and only the differing subtrees are descended into. Order of the object properties is ignored, order of
+	 * the array elements is not. At most 50 differences are reported in the format given below:
+	 * <blockquote><pre>
+	 *   $.items[3].price: expected 10.5 but found 11.
+	 *   $.items[4]: missing in actual.
+	 * </pre></blockquote>
+	 * 
+	 * The variable can also contain the JSON object prepared using the read JSON file step. For more details, please refer
+	 * {@link SmartJsonStructuralDiff} class.
+	 * 
+	 * @param expectedResponseVariableName - the variable name that stores the expected HTTPResponse information.
+	 * @param actualResponseVariableName - the variable name that stores the actual HTTPResponse information.
+	 * @param ignoredPaths - the comma separated JSON paths of the subtrees to ignore, it can be empty.
+	 * <blockquote><pre>
+	 * 		Example: $.meta.timestamp, $.items[*].id, $..updatedAt
+	 * </pre></blockquote>
+	 */
+	@Then("verify JSON of {string} response equals JSON of {string} response ignoring paths [{string}].")
+	public void verify_json_of_response_equals_json_of_response_ignoring_paths(String expectedResponseVariableName,
+			String actualResponseVariableName, String ignoredPaths) {
+		if(!scenarioContext.isLastConditionSetToTrue()) {
+			scenarioContext.log("This step is not executed due to false value of condition=\"" + scenarioContext.getLastConditionName() + "\".");
+			return;
+		}
+		
+		ignoredPaths = scenarioContext.applyParamsValueOnText(ignoredPaths);
+		SmartJsonStructuralDiff jsonDiff = null;
+		try {
+			// paths are split only before $, so that the comma inside the property name is kept.
+			jsonDiff = new SmartJsonStructuralDiff(Arrays.asList(ignoredPaths.trim().split("\\s*,\\s*(?=\\$)")), 50);
+		} catch(IllegalArgumentException ex) {
+			Assert.fail(ex.getMessage(), ex);
+		}
+		
+		Object expectedJson = readJsonOfResponseVariable(expectedResponseVariableName);
+		Object actualJson = readJsonOfResponseVariable(actualResponseVariableName);
+		SmartJsonStructuralDiff.Result result = jsonDiff.compare(expectedJson, actualJson);
+		if(!result.isEqual()) {
+			Assert.fail("JSON of '" + actualResponseVariableName + "' response does not equal JSON of '" + expectedResponseVariableName 
+					+ "' response. Differences" + (result.isTruncated() ? " (first " + result.getDifferences().size() + ")" : "") 
+					+ ":\n  " + String.join("\n  ", result.getDifferences()));
+		}
+	}
+	
+	private Object readJsonOfResponseVariable(String variableName) {
+		Object value = scenarioContext.getParamValue(variableName);
+		if(value instanceof DocumentContext) {
+			return ((DocumentContext) value).json();
+		}
+		
+		HttpResponse httpResponse = (HttpResponse) value;
+		Assert.assertNotNull(httpResponse, "HTTP response '" + variableName + "' not found.");
+		validateResponseNotEmpty(httpResponse);
+		return SmartApiScenarioResources.getInstance(scenarioContext).getDocumentCache()
+				.getJsonDocument(variableName, httpResponse).json();
+	}
+	
+	/**
+	 * Verifies the JSON based HTTP response conforms to the JSON schema. The schema file is compiled once and the compiled 
+	 * schema is shared by all the scenarios, it is compiled again only if the schema file is modified. The validation runs 
+	 * on the parsed response document, so the response is parsed only once even if it is verified by other steps also.
+	 * 
+	 * For supported JSON schema keywords, please refer {@link SmartJsonSchema} class. At most 20 errors are reported.
+	 * 
+	 * @param responseVariableName - the variable name that stores the HTTPResponse information.
+	 * @param schemaFile - the relative path of the JSON schema file (relative to project directory).
+	 * <blockquote><pre>
+	 * 		Example: test-data/schemas/user.schema.json
+	 * </pre></blockquote>
+	 */
+	@Then("verify {string} HTTP response conforms to {string} JSON schema.")
+	public void verify_http_response_conforms_to_json_schema(String responseVariableName, String schemaFile) {
+		if(!scenarioContext.isLastConditionSetToTrue()) {
+			scenarioContext.log("This step is not executed due to false value of condition=\"" + scenarioContext.getLastConditionName() + "\".");
+			return;
+		}
+		
+		HttpResponse httpResponse = (HttpResponse) scenarioContext.getParamValue(responseVariableName);
+		Assert.assertNotNull(httpResponse, "HTTP response not found.");
+		
+		schemaFile = scenarioContext.applyParamsValueOnText(schemaFile).trim();
+		SmartJsonSchema schema = null;
+		try {
+			schema = SmartJsonSchemaCache.getInstance().getSchema(
+					new File(Locations.getProjectRootDir() + File.separator + schemaFile).toPath());
+		} catch(IOException | RuntimeException ex) {
+			Assert.fail("Failed to compile '" + schemaFile + "' JSON schema. Reason: " + ex.getMessage(), ex);
+		}
+		
+		validateResponseNotEmpty(httpResponse);
+		Object document = SmartApiScenarioResources.getInstance(scenarioContext).getDocumentCache()
+				.getJsonDocument(responseVariableName, httpResponse).json();
+		
+		List<String> errors = null;
+		try {
+			errors = schema.validate(document, 20);
+		} catch(RuntimeException ex) {
+			Assert.fail("Failed to validate '" + responseVariableName + "' HTTP response against '" + schemaFile + "' JSON schema. Reason: " 
+					+ ex.getMessage(), ex);
 		}
+		if(errors.size() > 0) {
+			Assert.fail("'" + responseVariableName + "' HTTP response does not conform to '" + schemaFile + "' JSON schema:\n  " 
+					+ String.join("\n  ", errors));
+		}
+	}
+	
+	/**
+	 * Used to store the statistics of the compiled JSON schema cache into a variable as JSON object. The JSON object 
+	 * contains the following parameters:
+	 * <blockquote><pre>
+	 *   { cachedSchemas: 40, hitCount: 12000, compileCount: 40 }
+	 * </pre></blockquote>
+	 * 
+	 * @param variableName - the name of the variable in which we want to store the statistics.
+	 */
+	@Then("store JSON schema cache statistics into {string} variable.")
+	public void store_json_schema_cache_statistics_into_variable(String variableName) {
+		if(!scenarioContext.isLastConditionSetToTrue()) {
+			scenarioContext.log("This step is not executed due to false value of condition=\"" + scenarioContext.getLastConditionName() + "\".");
+			return;
+		}
+		
+		Map<String, Object> stats = SmartJsonSchemaCache.getInstance().getStatistics();
+		scenarioContext.addParamValue(variableName, JsonPath.parse(stats));
 	}
 	
 	/**
@@ -1813,23 +2022,34 @@ public class SmartApiStepDefs {
 		HttpResponse httpResponse = (HttpResponse) scenarioContext.getParamValue(responseVariableName);
 		Assert.assertNotNull(httpResponse, "HTTP response not found.");
 		
-		httpResponse.getValidator().validateResponseNotEmpty();
-				
-		Document xmlObj = new XmlDocumentReader(httpResponse.getPayload()).getDocument();
-		
+		validateResponseNotEmpty(httpResponse);
+
+		SmartXmlMultiPathVerifier verifier = new SmartXmlMultiPathVerifier();
 		List<List<String>> rows = expectedParamsInfo.asLists();
 		List<String> row;
 		String xmlPath, operator, expectedInfo;
 		for(int i = 1; i < rows.size(); i++) {
 			row = rows.get(i);
-			xmlPath = row.get(0); 
-			operator = row.get(1); 
+			xmlPath = row.get(0);
+			operator = row.get(1);
 			expectedInfo = row.get(2);
-			
+
 			xmlPath = scenarioContext.applyParamsValueOnText(xmlPath);
-			
-			// verify the actual value against the expected value.
-			SmartDataValidator.validateXmlData(xmlObj, xmlPath, operator, expectedInfo);
+			verifier.addRow(xmlPath, operator, expectedInfo);
+		}
+
+		// verify the actual values against the expected values. Payload is streamed once for all the rows if the paths
+		// are supported by the streaming verifier, otherwise the rows are verified on the (cached) DOM document.
+		SmartHttpResponseDocumentCache documentCache = SmartApiScenarioResources.getInstance(scenarioContext).getDocumentCache();
+		if(!verifier.isStreamable() || documentCache.containsXmlDocument(responseVariableName, httpResponse)) {
+			verifier.verify(documentCache.getXmlDocument(responseVariableName, httpResponse));
+			return;
+		}
+
+		try(Reader payloadReader = openPayloadReader(httpResponse)) {
+			verifier.verify(payloadReader, () -> documentCache.getXmlDocument(responseVariableName, httpResponse));
+		} catch(IOException ex) {
+			Assert.fail("Failed to read HTTP response body.", ex);
 		}
 	}
 	
@@ -1910,6 +2130,13 @@ public class SmartApiStepDefs {
 	 * Used to retrieve the JSON path value from the HTTP response payload / body and store into a variable. 
 	 * So that we can pass the variable's information in other steps.
 	 * 
+	 * Simple JSON paths like $.a.b[3].c or $.items[*].id are evaluated by reading the payload token by token, so
+	 * the whole payload is never parsed into memory and only the matched value is created. Reading is stopped as soon as
+	 * the value is matched (for $.items[*].id, once the items array is read), so the payload after it is not checked: 
+	 * invalid JSON or duplicate member after the matched value is not reported. Use the JSON schema verification step if 
+	 * the whole payload needs to be checked. Other JSON paths (like filters and deep scans) are evaluated on the parsed 
+	 * payload.
+	 * 
 	 * @param jsonPath - the JSON path used to retrieve the parameter value from the JSON based HTTP response.
 	 * 		For more info on JSON Path, please refer @see (@link https://github.com/json-path/JsonPath}
 	 * @param httpResponseVariableName - the variable name that stores the HTTPResponse information.
@@ -1925,11 +2152,913 @@ public class SmartApiStepDefs {
 		HttpResponse httpResponse = (HttpResponse) scenarioContext.getParamValue(httpResponseVariableName);
 		Assert.assertNotNull(httpResponse, "HTTP response not found.");
 		
-		httpResponse.getValidator().validateResponseNotEmpty();
+		SmartStreamingJsonPathExtractor extractor = SmartStreamingJsonPathExtractor.compile(jsonPath);
+		
+		validateResponseNotEmpty(httpResponse);
+		
+		if(extractor != null) {
+			try {
+				SmartStreamingJsonPathExtractor.Result result;
+				try(Reader payloadReader = openPayloadReader(httpResponse)) {
+					result = extractor.extract(payloadReader, SmartHttpResponseDocumentCache.getJsonConfiguration());
+				}
+				if(result.isFound()) {
+					scenarioContext.addParamValue(variableName, result.getValue());
+					return;
+				}
+			} catch(IOException ex) {
+				// invalid JSON (or JSON that can not be streamed), report or read it the same way as the parsed document does.
+			}
+		}
 				
-		DocumentContext jsonObj = new JsonDocumentReader(httpResponse.getPayload(), false).getDocumentContext();
+		DocumentContext jsonObj = SmartApiScenarioResources.getInstance(scenarioContext).getDocumentCache()
+				.getJsonDocument(httpResponseVariableName, httpResponse);
 		Object value = jsonObj.read(jsonPath);
-		scenarioContext.addParamValue(variableName, value);
+		scenarioContext.addParamValue(variableName, SmartHttpResponseDocumentCache.copyOf(value, jsonObj.configuration()));
+	}
+
+	/**
+	 * This step is used to make multiple HTTP API calls in parallel on the same target server. Requests are specified
+	 * using the data table in the format given below:
+	 * <blockquote><pre>
+	 * | Method | TargetURL      | RequestHeaderReferenceVariable | Request Body Template               | RespVar        |
+	 * | POST   | /users         | reqHeader                      | { "name": "${userName1}" }          | createUser1Resp |
+	 * | POST   | /users         | reqHeader                      | { "name": "${userName2}" }          | createUser2Resp |
+	 * | GET    | /departments/1 | reqHeader                      |                                     | deptResp        |
+	 * </pre></blockquote>
+	 * 
+	 * Where:
+	 *   Method: the HTTP method name. Valid values are: GET, POST, PUT, DELETE, HEAD
+	 *   RequestHeaderReferenceVariable: request header reference variable that contains HTTP request header parameter information. It can be empty.
+	 *   Request Body Template: the request body with variables. Variables are applied before sending the request. It is ignored for GET, DELETE and HEAD methods.
+	 *   RespVar: the variable name that stores the HTTPResponse information of the request.
+	 *   
+	 * NOTE: Variables of all the requests are applied before starting the parallel execution. Responses are stored into the
+	 * variables after the completion of all the requests. Virtual threads are used if the JVM supports them. The API action
+	 * handler is not shared by the requests in progress: the first request uses the handler of the scenario and each 
+	 * other concurrent request uses its own handler (with its own login), so up to MaxConcurrency logins are made. Enable 
+	 * the session cache of the target server to reuse the logins, please refer {@link SmartApiSessionCache}.
+	 * 
+	 * @param appName - the configured application name.
+	 * @param targetServer - it is an API Target Server Name that is configured in ApiConfig.yaml file.
+	 * @param userProfile - the name of the user profile that is configured in AppConfig.yaml file that will be used to login on target server.
+	 * @param maxConcurrency - the maximum number of requests that can be executed at a time.
+	 * @param requestsInfo - the requests information in the format given above.
+	 */
+	@SuppressWarnings("unchecked")
+	@When("make the following HTTP requests in parallel on target server [AppName={string}, TargetServer={string}] "
+			+ "using [UserProfile={string}] with [MaxConcurrency={int}]:")
+	public void make_the_following_http_requests_in_parallel_on(String appName, String targetServer, String userProfile,
+			int maxConcurrency, DataTable requestsInfo) {
+		if(!scenarioContext.isLastConditionSetToTrue()) {
+			scenarioContext.log("This step is not executed due to false value of condition=\"" + scenarioContext.getLastConditionName() + "\".");
+			return;
+		}
+		
+		if(maxConcurrency <= 0) {
+			Assert.fail("MaxConcurrency should be greater than 0. Found: " + maxConcurrency);
+		}
+		
+		List<List<String>> rows = requestsInfo.asLists();
+		List<String> methods = new ArrayList<>(rows.size());
+		List<String> targetURLs = new ArrayList<>(rows.size());
+		List<HttpRequest> httpRequests = new ArrayList<>(rows.size());
+		List<String> responseVariableNames = new ArrayList<>(rows.size());
+		
+		List<String> row;
+		String method, targetURL, requestHeaderReferenceVariable, requestBody;
+		for(int i = 1; i < rows.size(); i++) {
+			row = rows.get(i);
+			method = row.get(0).trim().toUpperCase();
+			targetURL = scenarioContext.applyParamsValueOnText(row.get(1));
+			requestHeaderReferenceVariable = row.get(2);
+			requestBody = row.get(3);
+			
+			HttpRequest httpRequest = new HttpRequest();
+			if(("POST".equals(method) || "PUT".equals(method)) && requestBody != null) {
+				httpRequest.setPayload(scenarioContext.applyParamsValueOnText(requestBody));
+			}
+			if(!StringUtil.isEmptyAfterTrim(requestHeaderReferenceVariable)) {
+				Map<String, String> params = (Map<String, String>) scenarioContext.getParamValue(requestHeaderReferenceVariable.trim());
+				Assert.assertNotNull(params, "Request header reference variable '" + requestHeaderReferenceVariable + "' not found.");
+				httpRequest.getHeaders().putAll(params);
+			}
+			
+			methods.add(method);
+			targetURLs.add(targetURL);
+			httpRequests.add(httpRequest);
+			responseVariableNames.add(row.get(4).trim());
+		}
+		
+		// scenario handler is free while the scenario waits for the requests, the other workers get their own handler.
+		AbstractApiActionHandler handler = getActionHandlerIfNetworkCallRequired(appName, targetServer, userProfile);
+		
+		List<Future<HttpResponse>> futures = new ArrayList<>(httpRequests.size());
+		try(SmartApiActionHandlerPool handlerPool = new SmartApiActionHandlerPool(appName, targetServer, userProfile, handler);
+				SmartBoundedExecutor executor = new SmartBoundedExecutor(maxConcurrency, "smart-http-parallel")) {
+			for(int i = 0; i < httpRequests.size(); i++) {
+				final String reqMethod = methods.get(i);
+				final String reqTargetURL = targetURLs.get(i);
+				final HttpRequest httpRequest = httpRequests.get(i);
+				futures.add(executor.submit(() -> SmartHttpRequestExecutor.execute(appName, targetServer, userProfile, handlerPool, 
+						reqMethod, reqTargetURL, httpRequest)));
+			}
+			
+			StringBuilder errors = new StringBuilder();
+			for(int i = 0; i < futures.size(); i++) {
+				try {
+					scenarioContext.addParamValue(responseVariableNames.get(i), spillIfLarge(appName, targetServer, futures.get(i).get()));
+				} catch(ExecutionException ex) {
+					errors.append("\n  ").append(methods.get(i)).append(" ").append(targetURLs.get(i)).append(" [RespVar=")
+						.append(responseVariableNames.get(i)).append("]: ").append(ex.getCause());
+				} catch(InterruptedException ex) {
+					executor.shutdownNow();
+					Thread.currentThread().interrupt();
+					Assert.fail("Interrupted while waiting for the parallel HTTP requests to complete.", ex);
+				}
+			}
+			
+			if(errors.length() > 0) {
+				Assert.fail("Failed to execute the following HTTP requests:" + errors.toString());
+			}
+		}
+	}
+	
+	/**
+	 * This step is used to generate HTTP load on the target server using the specified number of concurrent workers for the specified duration.
+	 * Each worker sends the same request again and again. Statistics (throughput, error counts and latency percentiles) are stored
+	 * into a variable as JSON object, so that it can be verified using the JSON object verification steps. Format of the statistics
+	 * is given below (latency values are in milliseconds):
+	 * <blockquote><pre>
+	 * {
+	 *   method: "GET", targetURL: "/users", concurrentWorkers: 10, durationInSeconds: 30.01,
+	 *   totalRequests: 12000, successCount: 11990, errorCount: 10, throughputPerSecond: 399.87,
+	 *   statusCodes: { "200": 11990, "503": 8 }, errors: { "java.net.ConnectException": 2 },
+	 *   latency: { min: 3.1, mean: 24.5, max: 410.2, p50: 20.1, p90: 41.2, p95: 60.4, p99: 102.3, p999: 380.1 }
+	 * }
+	 * </pre></blockquote>
+	 * 
+	 * A request is counted as error if it fails with exception or its HTTP status code is 400 or above. Each request is sent
+	 * the same way as the other HTTP steps send it (rate limit, retry, session cache, record / replay and connection pool
+	 * settings of the target server are applied), so the latency is the time taken by the step to get the response. Each 
+	 * concurrent worker uses its own API action handler (with its own login), unless the session cache is enabled.
+	 * 
+	 * @param method - the HTTP method name. Valid values are: GET, DELETE, HEAD
+	 * @param appName - the configured application name.
+	 * @param targetServer - it is an API Target Server Name that is configured in ApiConfig.yaml file.
+	 * @param targetURL - the target URL where to make HTTP API calls.
+	 * @param userProfile - the name of the user profile that is configured in AppConfig.yaml file that will be used to login on target server.
+	 * @param requestHeaderReferenceVariable - request header reference variable that contains HTTP request header parameter information.
+	 * @param concurrentWorkers - the number of workers that send the requests concurrently.
+	 * @param durationInSeconds - the duration of the load.
+	 * @param statsVariableName - the variable name that stores the statistics as JSON object.
+	 */
+	@When("run HTTP {string} request load on target server [AppName={string}, TargetServer={string}, TargetURL={string}] "
+			+ "using [UserProfile={string}] with header info [RequestHeaderReferenceVariable={string}] and load info "
+			+ "[ConcurrentWorkers={int}, DurationInSeconds={int}] and store statistics into {string} variable.")
+	public void run_http_request_load_on_target_server(String method, String appName, String targetServer, String targetURL, 
+			String userProfile, String requestHeaderReferenceVariable, int concurrentWorkers, int durationInSeconds, String statsVariableName) {
+		if(!scenarioContext.isLastConditionSetToTrue()) {
+			scenarioContext.log("This step is not executed due to false value of condition=\"" + scenarioContext.getLastConditionName() + "\".");
+			return;
+		}
+		
+		runHttpRequestLoad(method, appName, targetServer, targetURL, userProfile, requestHeaderReferenceVariable, null, 
+				concurrentWorkers, durationInSeconds, statsVariableName);
+	}
+	
+	/**
+	 * This step is used to generate HTTP load on the target server using the specified request body, number of concurrent workers and duration.
+	 * Each worker sends the same request again and again. Statistics (throughput, error counts and latency percentiles) are stored
+	 * into a variable as JSON object, so that it can be verified using the JSON object verification steps. Format of the statistics
+	 * is given below (latency values are in milliseconds):
+	 * <blockquote><pre>
+	 * {
+	 *   method: "POST", targetURL: "/users/search", concurrentWorkers: 10, durationInSeconds: 30.01,
+	 *   totalRequests: 12000, successCount: 11990, errorCount: 10, throughputPerSecond: 399.87,
+	 *   statusCodes: { "200": 11990, "503": 8 }, errors: { "java.net.ConnectException": 2 },
+	 *   latency: { min: 3.1, mean: 24.5, max: 410.2, p50: 20.1, p90: 41.2, p95: 60.4, p99: 102.3, p999: 380.1 }
+	 * }
+	 * </pre></blockquote>
+	 * 
+	 * A request is counted as error if it fails with exception or its HTTP status code is 400 or above. Each request is sent
+	 * the same way as the other HTTP steps send it (rate limit, retry, session cache, record / replay and connection pool
+	 * settings of the target server are applied), so the latency is the time taken by the step to get the response. Each 
+	 * concurrent worker uses its own API action handler (with its own login), unless the session cache is enabled.
+	 * 
+	 * @param method - the HTTP method name. Valid values are: POST, PUT
+	 * @param appName - the configured application name.
+	 * @param targetServer - it is an API Target Server Name that is configured in ApiConfig.yaml file.
+	 * @param targetURL - the target URL where to make HTTP API calls.
+	 * @param userProfile - the name of the user profile that is configured in AppConfig.yaml file that will be used to login on target server.
+	 * @param requestHeaderReferenceVariable - request header reference variable that contains HTTP request header parameter information.
+	 * @param concurrentWorkers - the number of workers that send the requests concurrently.
+	 * @param durationInSeconds - the duration of the load.
+	 * @param statsVariableName - the variable name that stores the statistics as JSON object.
+	 * @param requestBody - the actual contents that are going to send in HTTP request body / payload.
+	 */
+	@When("run HTTP {string} request load using the following request body on target server [AppName={string}, TargetServer={string}, TargetURL={string}] "
+			+ "using [UserProfile={string}] with header info [RequestHeaderReferenceVariable={string}] and load info "
+			+ "[ConcurrentWorkers={int}, DurationInSeconds={int}] and store statistics into {string} variable:")
+	public void run_http_request_load_using_the_following_request_body_on_target_server(String method, String appName, String targetServer, 
+			String targetURL, String userProfile, String requestHeaderReferenceVariable, int concurrentWorkers, int durationInSeconds, 
+			String statsVariableName, DocString requestBody) {
+		if(!scenarioContext.isLastConditionSetToTrue()) {
+			scenarioContext.log("This step is not executed due to false value of condition=\"" + scenarioContext.getLastConditionName() + "\".");
+			return;
+		}
+		
+		String reqTxt = scenarioContext.applyParamsValueOnText(requestBody.getContent());
+		runHttpRequestLoad(method, appName, targetServer, targetURL, userProfile, requestHeaderReferenceVariable, reqTxt, 
+				concurrentWorkers, durationInSeconds, statsVariableName);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private void runHttpRequestLoad(String method, String appName, String targetServer, String targetURL, String userProfile, 
+			String requestHeaderReferenceVariable, String reqTxt, int concurrentWorkers, int durationInSeconds, String statsVariableName) {
+		if(concurrentWorkers <= 0 || durationInSeconds <= 0) {
+			Assert.fail("ConcurrentWorkers and DurationInSeconds should be greater than 0.");
+		}
+		
+		Map<String, String> params = (Map<String, String>) scenarioContext.getParamValue(requestHeaderReferenceVariable);
+		final Map<String, String> headers = params == null ? Map.of() : new LinkedHashMap<>(params);
+		final String reqMethod = method.trim().toUpperCase();
+		final String reqTargetURL = scenarioContext.applyParamsValueOnText(targetURL);
+		// scenario handler is free while the scenario waits for the load, the other workers get their own handler.
+		AbstractApiActionHandler handler = getActionHandlerIfNetworkCallRequired(appName, targetServer, userProfile);
+		
+		Map<String, Object> stats;
+		try(SmartApiActionHandlerPool handlerPool = new SmartApiActionHandlerPool(appName, targetServer, userProfile, handler)) {
+			stats = new SmartHttpLoadGenerator(reqMethod, reqTargetURL, () -> {
+				// each request gets its own copy, the handler may update the request (like its headers).
+				HttpRequest httpRequest = new HttpRequest();
+				if(reqTxt != null) {
+					httpRequest.setPayload(reqTxt);
+				}
+				httpRequest.getHeaders().putAll(headers);
+				return SmartHttpRequestExecutor.execute(appName, targetServer, userProfile, handlerPool, reqMethod, 
+						reqTargetURL, httpRequest);
+			}).run(concurrentWorkers, durationInSeconds);
+		}
+		
+		scenarioContext.log("HTTP load statistics: " + stats);
+		scenarioContext.addParamValue(statsVariableName, JsonPath.parse(stats));
+	}
+	
+	/**
+	 * This step is used to start the HTTP API call in background, so that the following steps (like UI or DB steps) can be executed 
+	 * while the request is in progress. The pending response is stored into the variable and it can be retrieved later using 
+	 * "await {string} HTTP response ..." step. Requests that are not awaited are cancelled after the execution of the scenario.
+	 * 
+	 * NOTE: The API action handler of the scenario is not shared with the background requests, since the following steps may 
+	 * use it at the same time. The background requests of the scenario use their own handlers (with their own login) that are 
+	 * reused by the next background requests and closed after the execution of the scenario, please refer 
+	 * {@link SmartApiActionHandlerPool}.
+	 * 
+	 * @param method - the HTTP method name. Valid values are: GET, DELETE, HEAD
+	 * @param appName - the configured application name.
+	 * @param targetServer - it is an API Target Server Name that is configured in ApiConfig.yaml file.
+	 * @param targetURL - the target URL where to make HTTP API call.
+	 * @param userProfile - the name of the user profile that is configured in AppConfig.yaml file that will be used to login on target server.
+	 * @param requestHeaderReferenceVariable - request header reference variable that contains HTTP request header parameter information.
+	 * @param futureVariableName - the variable name that stores the pending HTTP response.
+	 */
+	@When("start HTTP {string} request asynchronously on target server [AppName={string}, TargetServer={string}, TargetURL={string}] "
+			+ "using [UserProfile={string}] with header info [RequestHeaderReferenceVariable={string}] and store future into {string} variable.")
+	public void start_http_request_asynchronously_on(String method, String appName, String targetServer, String targetURL, 
+			String userProfile, String requestHeaderReferenceVariable, String futureVariableName) {
+		if(!scenarioContext.isLastConditionSetToTrue()) {
+			scenarioContext.log("This step is not executed due to false value of condition=\"" + scenarioContext.getLastConditionName() + "\".");
+			return;
+		}
+		
+		startHttpRequestAsynchronously(method, appName, targetServer, targetURL, userProfile, requestHeaderReferenceVariable, 
+				null, futureVariableName);
+	}
+	
+	/**
+	 * This step is used to start the HTTP API call in background using the textual info present into requestBody. Request body 
+	 * can be specified as doc string. For more details, please refer 
+	 * {@link #start_http_request_asynchronously_on(String, String, String, String, String, String, String)} step.
+	 * 
+	 * @param method - the HTTP method name. Valid values are: POST, PUT
+	 * @param appName - the configured application name.
+	 * @param targetServer - it is an API Target Server Name that is configured in ApiConfig.yaml file.
+	 * @param targetURL - the target URL where to make HTTP API call.
+	 * @param userProfile - the name of the user profile that is configured in AppConfig.yaml file that will be used to login on target server.
+	 * @param requestHeaderReferenceVariable - request header reference variable that contains HTTP request header parameter information.
+	 * @param futureVariableName - the variable name that stores the pending HTTP response.
+	 * @param requestBody - the actual contents that are going to send in HTTP request body / payload.
+	 */
+	@When("start HTTP {string} request asynchronously using the following request body on target server [AppName={string}, TargetServer={string}, "
+			+ "TargetURL={string}] using [UserProfile={string}] with header info [RequestHeaderReferenceVariable={string}] and store future into {string} variable:")
+	public void start_http_request_asynchronously_using_the_following_request_body_on(String method, String appName, String targetServer, 
+			String targetURL, String userProfile, String requestHeaderReferenceVariable, String futureVariableName, DocString requestBody) {
+		if(!scenarioContext.isLastConditionSetToTrue()) {
+			scenarioContext.log("This step is not executed due to false value of condition=\"" + scenarioContext.getLastConditionName() + "\".");
+			return;
+		}
+		
+		startHttpRequestAsynchronously(method, appName, targetServer, targetURL, userProfile, requestHeaderReferenceVariable, 
+				scenarioContext.applyParamsValueOnText(requestBody.getContent()), futureVariableName);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private void startHttpRequestAsynchronously(String method, String appName, String targetServer, String targetURL, String userProfile, 
+			String requestHeaderReferenceVariable, String reqTxt, String futureVariableName) {
+		final String reqMethod = method.trim().toUpperCase();
+		final HttpRequest httpRequest = new HttpRequest();
+		if(reqTxt != null) {
+			httpRequest.setPayload(reqTxt);
+		}
+		if(!StringUtil.isEmptyAfterTrim(requestHeaderReferenceVariable)) {
+			Map<String, String> params = (Map<String, String>) scenarioContext.getParamValue(requestHeaderReferenceVariable);
+			Assert.assertNotNull(params, "Request header reference variable '" + requestHeaderReferenceVariable + "' not found.");
+			httpRequest.getHeaders().putAll(params);
+		}
+		
+		// variables are applied in the scenario thread, only the HTTP call is made in background using the handler of the pool.
+		final String reqTargetURL = scenarioContext.applyParamsValueOnText(targetURL);
+		SmartApiScenarioResources resources = SmartApiScenarioResources.getInstance(scenarioContext);
+		final SmartApiActionHandlerPool handlerPool = resources.getAsyncHandlerPool(appName, targetServer, userProfile);
+		
+		SmartPendingHttpResponse pendingResponse = resources.submitHttpRequest(reqMethod, reqTargetURL, 
+				() -> spillIfLarge(appName, targetServer, SmartHttpRequestExecutor.execute(appName, targetServer, userProfile, 
+						handlerPool, reqMethod, reqTargetURL, httpRequest)));
+		scenarioContext.addParamValue(futureVariableName, pendingResponse);
+	}
+	
+	/**
+	 * This step is used to wait for the completion of the HTTP API call started using "start HTTP {string} request asynchronously ..." 
+	 * step and store the HTTP response into the variable. Step fails if the request is failed or is not completed within the 
+	 * specified time. The logged request time is the total time of the request, please refer {@link SmartHttpTiming}, it does 
+	 * not include the time the request waited for the background thread.
+	 * 
+	 * @param futureVariableName - the variable name that stores the pending HTTP response.
+	 * @param maxTimeToWaitInSeconds - the maximum time to wait for the completion of the request.
+	 * @param responseVariableName - the variable name that stores the HTTPResponse information.
+	 */
+	@When("await {string} HTTP response [MaxTimeToWaitInSeconds={int}] and store it into {string} variable.")
+	public void await_http_response_and_store_it_into_variable(String futureVariableName, int maxTimeToWaitInSeconds, 
+			String responseVariableName) {
+		if(!scenarioContext.isLastConditionSetToTrue()) {
+			scenarioContext.log("This step is not executed due to false value of condition=\"" + scenarioContext.getLastConditionName() + "\".");
+			return;
+		}
+		
+		SmartPendingHttpResponse pendingResponse = (SmartPendingHttpResponse) scenarioContext.getParamValue(futureVariableName);
+		Assert.assertNotNull(pendingResponse, "Pending HTTP response not found.");
+		
+		String requestInfo = pendingResponse.getMethod() + " " + pendingResponse.getTargetURL();
+		try {
+			HttpResponse httpResponse = pendingResponse.await(maxTimeToWaitInSeconds);
+			SmartHttpTiming timing = SmartHttpTiming.of(httpResponse);
+			if(timing != null && timing.getTotalInMillis() >= 0) {
+				scenarioContext.log("HTTP " + requestInfo + " request is completed in " + timing.getTotalInMillis() + " ms, response is awaited after " 
+						+ pendingResponse.getElapsedTimeInMillis() + " ms.");
+			} else {
+				scenarioContext.log("HTTP " + requestInfo + " response is awaited after " + pendingResponse.getElapsedTimeInMillis() + " ms.");
+			}
+			scenarioContext.addParamValue(responseVariableName, httpResponse);
+		} catch(TimeoutException ex) {
+			Assert.fail("HTTP " + requestInfo + " request is not completed within " + maxTimeToWaitInSeconds + " seconds.");
+		} catch(ExecutionException ex) {
+			Assert.fail("HTTP " + requestInfo + " request is failed.", ex.getCause());
+		} catch(CancellationException ex) {
+			Assert.fail("HTTP " + requestInfo + " request is cancelled.", ex);
+		} catch(InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			Assert.fail("Interrupted while waiting for HTTP " + requestInfo + " request to complete.", ex);
+		}
+	}
+	
+	/**
+	 * This step is used to make HTTP GET API call again and again till the JSON based HTTP response meets all the expected conditions or 
+	 * the maximum wait time is elapsed. The interval between the calls grows exponentially (with random jitter) from InitialIntervalInMillis 
+	 * to MaxIntervalInMillis. If the server returns ETag / Last-Modified header then the next calls are sent with If-None-Match / 
+	 * If-Modified-Since header, so the unchanged resource is returned as "304 Not Modified" without the body. The last received 
+	 * response with body is stored into the response variable.
+	 * 
+	 * Expected conditions are specified in the format given below:
+	 * <blockquote><pre>
+	 *   | Parameter/JSON Path        | Operator           | Expected Information                         |
+	 *   | $.status                   | =                  | COMPLETED                                    |
+	 *   | $.progress                 | =                  | { ev: 100, valueType: 'integer'}             |
+	 *   
+	 *   For more details on JSON Path, Operators and Expected Information, please refer 
+	 *   {@link #verify_http_response_contains_json_data_with_the_following_expected_params_information(String, DataTable)} step.
+	 * </pre></blockquote>
+	 * 
+	 * @param appName - the configured application name.
+	 * @param targetServer - it is an API Target Server Name that is configured in ApiConfig.yaml file.
+	 * @param targetURL - the target URL where to make HTTP GET API call.
+	 * @param userProfile - the name of the user profile that is configured in AppConfig.yaml file that will be used to login on target server.
+	 * @param requestHeaderReferenceVariable - request header reference variable that contains HTTP request header parameter information.
+	 * @param maxTimeToWaitInSeconds - the maximum time to wait for the expected conditions.
+	 * @param initialIntervalInMillis - the interval between the first and the second call.
+	 * @param maxIntervalInMillis - the maximum interval between the calls.
+	 * @param responseVariableName - the variable name that stores the HTTPResponse information.
+	 * @param expectedParamsInfo - the expected conditions in the format given above.
+	 */
+	@SuppressWarnings("unchecked")
+	@When("poll HTTP GET request on target server [AppName={string}, TargetServer={string}, TargetURL={string}] using [UserProfile={string}] "
+			+ "with header info [RequestHeaderReferenceVariable={string}] and polling info [MaxTimeToWaitInSeconds={int}, InitialIntervalInMillis={int}, "
+			+ "MaxIntervalInMillis={int}] till the JSON response contains the following expected params information and store it into {string} variable:")
+	public void poll_http_get_request_till_json_response_contains_following_expected_params_information(String appName, String targetServer, 
+			String targetURL, String userProfile, String requestHeaderReferenceVariable, int maxTimeToWaitInSeconds, int initialIntervalInMillis, 
+			int maxIntervalInMillis, String responseVariableName, DataTable expectedParamsInfo) {
+		if(!scenarioContext.isLastConditionSetToTrue()) {
+			scenarioContext.log("This step is not executed due to false value of condition=\"" + scenarioContext.getLastConditionName() + "\".");
+			return;
+		}
+		
+		SmartBackoffPolicy backoffPolicy = null;
+		try {
+			backoffPolicy = new SmartBackoffPolicy(initialIntervalInMillis, maxIntervalInMillis);
+		} catch(IllegalArgumentException ex) {
+			Assert.fail(ex.getMessage());
+		}
+		
+		Map<String, String> headers = new LinkedHashMap<>();
+		if(!StringUtil.isEmptyAfterTrim(requestHeaderReferenceVariable)) {
+			Map<String, String> params = (Map<String, String>) scenarioContext.getParamValue(requestHeaderReferenceVariable);
+			Assert.assertNotNull(params, "Request header reference variable '" + requestHeaderReferenceVariable + "' not found.");
+			headers.putAll(params);
+		}
+		
+		List<List<String>> rows = expectedParamsInfo.asLists();
+		List<String[]> conditions = new ArrayList<>();
+		for(int i = 1; i < rows.size(); i++) {
+			conditions.add(new String[] { scenarioContext.applyParamsValueOnText(rows.get(i).get(0)), rows.get(i).get(1), 
+					scenarioContext.applyParamsValueOnText(rows.get(i).get(2)) });
+		}
+		
+		targetURL = scenarioContext.applyParamsValueOnText(targetURL);
+		long deadline = System.currentTimeMillis() + maxTimeToWaitInSeconds * 1000L;
+		HttpResponse lastResponse = null;
+		Throwable lastError = null;
+		int attempt = 0, notModifiedCount = 0;
+		while(true) {
+			HttpRequest httpRequest = new HttpRequest();
+			httpRequest.getHeaders().putAll(headers);
+			if(lastResponse != null) {
+				String etag = getHeaderValue(lastResponse, "ETag");
+				String lastModified = getHeaderValue(lastResponse, "Last-Modified");
+				if(etag != null) {
+					httpRequest.getHeaders().put("If-None-Match", etag);
+				}
+				if(lastModified != null) {
+					httpRequest.getHeaders().put("If-Modified-Since", lastModified);
+				}
+			}
+			
+			HttpResponse httpResponse = null;
+			try {
+				httpResponse = executeHttpRequest(appName, targetServer, userProfile, "GET", targetURL, httpRequest);
+			} catch(Throwable th) {
+				lastError = th;
+			}
+			
+			if(httpResponse != null && httpResponse.getCode() == 304 && lastResponse != null) {
+				// resource is not changed, so the last evaluation result is still valid.
+				notModifiedCount++;
+			} else if(httpResponse != null) {
+				lastResponse = httpResponse;
+				try {
+					DocumentContext jsonObj = SmartHttpResponseDocumentCache.readJsonDocument(httpResponse);
+					for(String[] condition : conditions) {
+						SmartDataValidator.validateJsonOrYamlData(jsonObj, condition[0], condition[1], condition[2]);
+					}
+					scenarioContext.log("Expected conditions are met after " + (attempt + 1) + " HTTP GET calls (" + notModifiedCount 
+							+ " not modified) on '" + targetURL + "'.");
+					scenarioContext.addParamValue(responseVariableName, httpResponse);
+					return;
+				} catch(Throwable th) {
+					lastError = th;
+				}
+			}
+			
+			long remainingTime = deadline - System.currentTimeMillis();
+			if(remainingTime <= 0) {
+				if(lastResponse != null) {
+					scenarioContext.addParamValue(responseVariableName, lastResponse);
+				}
+				Assert.fail("Expected conditions are not met within " + maxTimeToWaitInSeconds + " seconds after " + (attempt + 1) 
+						+ " HTTP GET calls on '" + targetURL + "'. Last error: " + (lastError == null ? "" : lastError.getMessage()), lastError);
+			}
+			
+			try {
+				Thread.sleep(Math.min(remainingTime, backoffPolicy.getDelayInMillis(attempt)));
+			} catch(InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				Assert.fail("Interrupted while polling HTTP GET request on '" + targetURL + "'.", ex);
+			}
+			attempt++;
+		}
+	}
+	
+	private String getHeaderValue(HttpResponse httpResponse, String headerName) {
+		Map<String, String> headers = httpResponse.getHeaders();
+		if(headers != null) {
+			for(Map.Entry<String, String> header : headers.entrySet()) {
+				if(headerName.equalsIgnoreCase(header.getKey())) {
+					return header.getValue();
+				}
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * This step is used to walk all the pages of the paginated HTTP GET API starting from the target URL and collect the
+	 * items of all the pages into one list. The next page is fetched in the background while the items of the current page 
+	 * are read. Pagination information is specified in the format given below:
+	 * <blockquote><pre>
+	 * {
+	 *   itemsPath: "$.items",
+	 *   nextPage: { type: "cursor", path: "$.meta.nextCursor", queryParam: "cursor" },
+	 *   maxPages: 1000,
+	 *   prefetchDepth: 2,
+	 *   outputFile: "test-results/users.json"
+	 * }
+	 * </pre></blockquote>
+	 * 
+	 * Where:
+	 *   itemsPath: the JSON path of the items in the page. Items of each page are added to the list in the page order.
+	 *   nextPage.type: the mechanism to find the next page. Valid values are:
+	 *      linkHeader - the URL of the next page is in the Link response header with rel="next". It is default.
+	 *      nextURL - the URL of the next page is in the response body at nextPage.path JSON path.
+	 *      cursor - the cursor of the next page is in the response body at nextPage.path JSON path, it is sent using 
+	 *               nextPage.queryParam query parameter of the target URL.
+	 *   maxPages: the maximum number of pages to fetch. Default is 1000.
+	 *   prefetchDepth: the maximum number of pages fetched in advance. Default is 2.
+	 *   outputFile: (Optional) the relative path of the file (relative to project directory). The items are written into 
+	 *      this file as JSON array instead of keeping them into memory, and the absolute path of the file is stored into 
+	 *      the variable.
+	 * 
+	 * Crawling stops when there is no next page or the max pages are fetched. The step fails if any page returns HTTP status 
+	 * code other than 2xx.
+	 * 
+	 * @param appName - the configured application name.
+	 * @param targetServer - it is an API Target Server Name that is configured in ApiConfig.yaml file.
+	 * @param targetURL - the target URL of the first page.
+	 * @param userProfile - the name of the user profile that is configured in AppConfig.yaml file that will be used to login on target server.
+	 * @param requestHeaderReferenceVariable - request header reference variable that contains HTTP request header parameter information.
+	 * @param variableName - the variable name that stores the list of items (or the output file path).
+	 * @param paginationInfo - the pagination information in the format given above.
+	 */
+	@SuppressWarnings("unchecked")
+	@When("crawl paginated HTTP GET request on target server [AppName={string}, TargetServer={string}, TargetURL={string}] using [UserProfile={string}] "
+			+ "with header info [RequestHeaderReferenceVariable={string}] and store items into {string} variable using the following pagination info:")
+	public void crawl_paginated_http_get_request_and_store_items_into_variable(String appName, String targetServer, String targetURL, 
+			String userProfile, String requestHeaderReferenceVariable, String variableName, DocString paginationInfo) {
+		if(!scenarioContext.isLastConditionSetToTrue()) {
+			scenarioContext.log("This step is not executed due to false value of condition=\"" + scenarioContext.getLastConditionName() + "\".");
+			return;
+		}
+		
+		Map<String, String> headers = new LinkedHashMap<>();
+		if(!StringUtil.isEmptyAfterTrim(requestHeaderReferenceVariable)) {
+			Map<String, String> params = (Map<String, String>) scenarioContext.getParamValue(requestHeaderReferenceVariable);
+			Assert.assertNotNull(params, "Request header reference variable '" + requestHeaderReferenceVariable + "' not found.");
+			headers.putAll(params);
+		}
+		
+		DocumentContext paginationObj = new JsonDocumentReader(scenarioContext.applyParamsValueOnText(paginationInfo.getContent()), false)
+				.getDocumentContext();
+		String itemsPath = JsonYamlUtil.readNoException("$.itemsPath", String.class, paginationObj);
+		String nextPageType = JsonYamlUtil.readNoException("$.nextPage.type", String.class, paginationObj);
+		String nextPagePath = JsonYamlUtil.readNoException("$.nextPage.path", String.class, paginationObj);
+		String cursorQueryParam = JsonYamlUtil.readNoException("$.nextPage.queryParam", String.class, paginationObj);
+		Integer maxPages = JsonYamlUtil.readNoException("$.maxPages", Integer.class, paginationObj);
+		Integer prefetchDepth = JsonYamlUtil.readNoException("$.prefetchDepth", Integer.class, paginationObj);
+		String outputFile = JsonYamlUtil.readNoException("$.outputFile", String.class, paginationObj);
+		
+		AbstractApiActionHandler handler = getActionHandlerIfNetworkCallRequired(appName, targetServer, userProfile);
+		SmartHttpPaginationCrawler crawler = null;
+		try {
+			crawler = new SmartHttpPaginationCrawler(url -> {
+				HttpRequest httpRequest = new HttpRequest();
+				httpRequest.getHeaders().putAll(headers);
+				return SmartHttpRequestExecutor.execute(appName, targetServer, userProfile, () -> handler, "GET", url, httpRequest);
+			}, itemsPath, maxPages == null ? 1000 : maxPages, prefetchDepth == null ? 2 : prefetchDepth);
+			crawler.setNextPage(StringUtil.isEmptyAfterTrim(nextPageType) ? SmartHttpPaginationCrawler.NextPageType.linkHeader 
+					: SmartHttpPaginationCrawler.NextPageType.valueOf2(nextPageType), nextPagePath, cursorQueryParam);
+			crawler.setBaseURL(SmartApiTargetServerConfig.getInstance(appName, targetServer).getBaseURL());
+		} catch(IllegalArgumentException ex) {
+			Assert.fail(ex.getMessage());
+		}
+		
+		targetURL = scenarioContext.applyParamsValueOnText(targetURL);
+		Map<String, Object> summary = null;
+		try {
+			if(StringUtil.isEmptyAfterTrim(outputFile)) {
+				List<Object> items = new ArrayList<>();
+				summary = crawler.crawl(targetURL, item -> items.add(item));
+				scenarioContext.addParamValue(variableName, items);
+			} else {
+				File file = new File(Locations.getProjectRootDir() + File.separator + outputFile.trim()).getAbsoluteFile();
+				if(file.getParentFile() != null) {
+					file.getParentFile().mkdirs();
+				}
+				JsonProvider jsonProvider = Configuration.defaultConfiguration().jsonProvider();
+				try(Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+					writer.write('[');
+					boolean[] first = { true };
+					summary = crawler.crawl(targetURL, item -> {
+						if(!first[0]) {
+							writer.write(",\n");
+						}
+						first[0] = false;
+						writer.write(jsonProvider.toJson(item));
+					});
+					writer.write(']');
+				}
+				scenarioContext.addParamValue(variableName, file.getAbsolutePath());
+			}
+		} catch(IOException ex) {
+			Assert.fail("Failed to write the items into '" + outputFile + "' file.", ex);
+		} catch(IllegalStateException ex) {
+			Assert.fail(ex.getMessage(), ex.getCause());
+		}
+		
+		scenarioContext.log("Crawled " + summary.get("pages") + " pages (" + summary.get("items") + " items) starting from '" + targetURL + "'."
+				+ (Boolean.TRUE.equals(summary.get("truncated")) ? " Crawling is stopped after max pages, more pages are available." : ""));
+	}
+
+	/**
+	 * Used to store the statistics of the parsed HTTP response document cache into a variable as JSON object. 
+	 * The JSON object contains the following parameters:
+	 * <blockquote><pre>
+	 *   { hitCount: 10, missCount: 2, cachedResponses: 2, totalHitCount: 100, totalMissCount: 20 }
+	 * </pre></blockquote>
+	 * 
+	 * Where hitCount, missCount and cachedResponses are related to the current scenario and totalHitCount, totalMissCount are
+	 * related to all the scenarios executed so far.
+	 * 
+	 * @param variableName - the name of the variable in which we want to store the statistics.
+	 */
+	@Then("store HTTP response document cache statistics into {string} variable.")
+	public void store_http_response_document_cache_statistics_into_variable(String variableName) {
+		if(!scenarioContext.isLastConditionSetToTrue()) {
+			scenarioContext.log("This step is not executed due to false value of condition=\"" + scenarioContext.getLastConditionName() + "\".");
+			return;
+		}
+		
+		Map<String, Object> stats = SmartApiScenarioResources.getInstance(scenarioContext).getDocumentCache().getStatistics();
+		scenarioContext.addParamValue(variableName, JsonPath.parse(stats));
+	}
+
+	/**
+	 * Used to store the statistics of the request template cache into a variable as JSON object. Request templates
+	 * used by "make HTTP ... request using the contents of the following template file ..." steps are read once and 
+	 * cached till the template file is modified. The JSON object contains the following information for each template 
+	 * (time is in milliseconds):
+	 * <blockquote><pre>
+	 * {
+	 *   "/project/test-data/create-user.json": {
+	 *     length: 512, readCount: 1, renderCount: 200,
+	 *     renderTime: { min: 0.01, mean: 0.02, max: 0.4, p50: 0.02, p90: 0.03, p95: 0.03, p99: 0.1, p999: 0.4 }
+	 *   }
+	 * }
+	 * </pre></blockquote>
+	 * 
+	 * @param variableName - the name of the variable in which we want to store the statistics.
+	 */
+	@Then("store request template cache statistics into {string} variable.")
+	public void store_request_template_cache_statistics_into_variable(String variableName) {
+		if(!scenarioContext.isLastConditionSetToTrue()) {
+			scenarioContext.log("This step is not executed due to false value of condition=\"" + scenarioContext.getLastConditionName() + "\".");
+			return;
+		}
+		
+		Map<String, Object> stats = SmartRequestTemplateCache.getInstance().getStatistics();
+		scenarioContext.addParamValue(variableName, JsonPath.parse(stats));
+	}
+	
+	/**
+	 * Used to store the metrics of the connection pool of the target server into a variable as JSON object. The connection
+	 * pool is leased by the network calls of the HTTP request steps and it is shared by all the scenarios. The JSON object 
+	 * contains the following information (time is in milliseconds):
+	 * <blockquote><pre>
+	 * {
+	 *   enabled: true, maxConnections: 20, leased: 0, peakLeased: 8, totalLeases: 200, leaseTimeouts: 0, failedRequests: 0,
+	 *   leaseWaitTime: { min: 0, mean: 0.01, max: 0.5, p50: 0, p90: 0, p95: 0, p99: 0.2, p999: 0.5 }
+	 * }
+	 * </pre></blockquote>
+	 * 
+	 * The connections are managed by the HTTP client of the API action handler, so only the leases are measured. The 
+	 * requests are bounded only if the pool is configured, please refer {@link SmartHttpConnectionPool} class.
+	 * 
+	 * @param appName - the configured application name.
+	 * @param targetServer - it is an API Target Server Name that is configured in ApiConfig.yaml file.
+	 * @param variableName - the name of the variable in which we want to store the metrics.
+	 */
+	@Then("store HTTP connection pool metrics of target server [AppName={string}, TargetServer={string}] into {string} variable.")
+	public void store_http_connection_pool_metrics_of_target_server_into_variable(String appName, String targetServer, String variableName) {
+		if(!scenarioContext.isLastConditionSetToTrue()) {
+			scenarioContext.log("This step is not executed due to false value of condition=\"" + scenarioContext.getLastConditionName() + "\".");
+			return;
+		}
+		
+		Map<String, Object> metrics = SmartHttpConnectionPool.getInstance(appName, targetServer).getMetrics();
+		scenarioContext.addParamValue(variableName, JsonPath.parse(metrics));
+	}
+	
+	/**
+	 * Used to store the request coalescing statistics of the target server into a variable as JSON object. When request
+	 * coalescing is enabled, the identical HTTP GET requests in progress at the same time share one network call. The 
+	 * JSON object contains the following information:
+	 * <blockquote><pre>
+	 *   { enabled: true, requests: 100, networkCalls: 10, collapsedRequests: 90, collapseRatio: 10.0, maxCollapsedRequests: 15 }
+	 * </pre></blockquote>
+	 * 
+	 * For request coalescing settings, please refer {@link SmartHttpRequestCoalescer} class.
+	 * 
+	 * @param appName - the configured application name.
+	 * @param targetServer - it is an API Target Server Name that is configured in ApiConfig.yaml file.
+	 * @param variableName - the name of the variable in which we want to store the statistics.
+	 */
+	@Then("store HTTP request coalescing statistics of target server [AppName={string}, TargetServer={string}] into {string} variable.")
+	public void store_http_request_coalescing_statistics_of_target_server_into_variable(String appName, String targetServer, String variableName) {
+		if(!scenarioContext.isLastConditionSetToTrue()) {
+			scenarioContext.log("This step is not executed due to false value of condition=\"" + scenarioContext.getLastConditionName() + "\".");
+			return;
+		}
+		
+		Map<String, Object> stats = SmartHttpRequestCoalescer.getInstance(appName, targetServer).getStatistics();
+		scenarioContext.addParamValue(variableName, JsonPath.parse(stats));
+	}
+	
+	/**
+	 * Used to store the rate limiter metrics of the target server into a variable as JSON object. The JSON object contains 
+	 * the following information (time is in milliseconds):
+	 * <blockquote><pre>
+	 * {
+	 *   enabled: true, requestsPerSecond: 20.0, burst: 5, honorRetryAfter: true, requests: 200, throttledRequests: 150,
+	 *   retryAfterPauses: 1, throttledWaitTime: { min: 0.1, mean: 40.2, max: 2000.5, p50: 45, p90: 50, p95: 50, p99: 60, p999: 2000.5 }
+	 * }
+	 * </pre></blockquote>
+	 * 
+	 * For rate limit settings, please refer {@link SmartHttpRateLimiter} class.
+	 * 
+	 * @param appName - the configured application name.
+	 * @param targetServer - it is an API Target Server Name that is configured in ApiConfig.yaml file.
+	 * @param variableName - the name of the variable in which we want to store the metrics.
+	 */
+	@Then("store HTTP rate limiter metrics of target server [AppName={string}, TargetServer={string}] into {string} variable.")
+	public void store_http_rate_limiter_metrics_of_target_server_into_variable(String appName, String targetServer, String variableName) {
+		if(!scenarioContext.isLastConditionSetToTrue()) {
+			scenarioContext.log("This step is not executed due to false value of condition=\"" + scenarioContext.getLastConditionName() + "\".");
+			return;
+		}
+		
+		Map<String, Object> metrics = SmartHttpRateLimiter.getInstance(appName, targetServer).getMetrics();
+		scenarioContext.addParamValue(variableName, JsonPath.parse(metrics));
+	}
+	
+	/**
+	 * Used to store the statistics of the cross scenario API session cache into a variable as JSON object. The JSON 
+	 * object contains the following information:
+	 * <blockquote><pre>
+	 *   { hitCount: 500, loginCount: 4, refreshCount: 2, reloginCount: 0, cachedSessions: 2 }
+	 * </pre></blockquote>
+	 * 
+	 * Where loginCount is the number of logins made when there was no valid session, refreshCount is the number of 
+	 * logins made to refresh the session before its expiry and reloginCount is the number of logins made because the 
+	 * server rejected the cached session. For session cache settings, please refer {@link SmartApiSessionCache} class.
+	 * 
+	 * @param variableName - the name of the variable in which we want to store the statistics.
+	 */
+	@Then("store API session cache statistics into {string} variable.")
+	public void store_api_session_cache_statistics_into_variable(String variableName) {
+		if(!scenarioContext.isLastConditionSetToTrue()) {
+			scenarioContext.log("This step is not executed due to false value of condition=\"" + scenarioContext.getLastConditionName() + "\".");
+			return;
+		}
+		
+		Map<String, Object> stats = SmartApiSessionCache.getInstance().getStatistics();
+		scenarioContext.addParamValue(variableName, JsonPath.parse(stats));
+	}
+	
+	/**
+	 * Stores the retry metrics of the target server into variable in the format given below:
+	 * <blockquote><pre>
+	 *   { maxAttempts: 3, idempotentOnly: true, retryOnStatusCodes: [502, 503, 504], requests: 1000, retries: 12,
+	 *     budgetExhausted: 0, budgetTokens: 10.0 }
+	 * </pre></blockquote>
+	 * 
+	 * Retry is configured for the target server in ApiConfig.yaml file, please refer {@link SmartHttpRetryPolicy}.
+	 * 
+	 * @param appName - the configured application name.
+	 * @param targetServer - it is an API Target Server Name that is configured in ApiConfig.yaml file.
+	 * @param variableName - the name of the variable in which we want to store the metrics.
+	 */
+	@Then("store HTTP retry metrics of target server [AppName={string}, TargetServer={string}] into {string} variable.")
+	public void store_http_retry_metrics_of_target_server_into_variable(String appName, String targetServer, 
+			String variableName) {
+		if(!scenarioContext.isLastConditionSetToTrue()) {
+			scenarioContext.log("This step is not executed due to false value of condition=\"" + scenarioContext.getLastConditionName() + "\".");
+			return;
+		}
+		
+		Map<String, Object> metrics = SmartHttpRetryPolicy.getInstance(appName, targetServer).getMetrics();
+		scenarioContext.addParamValue(variableName, JsonPath.parse(metrics));
+	}
+	
+	/**
+	 * Executes the HTTP request through {@link SmartHttpRequestExecutor}, so that the response can be recorded / replayed. 
+	 * Action handler is retrieved (user is logged in) only if the network call is made.
+	 */
+	private HttpResponse executeHttpRequest(String appName, String targetServer, String userProfile, String method, 
+			String targetURL, HttpRequest httpRequest) {
+		HttpResponse httpResponse = SmartHttpRequestExecutor.execute(appName, targetServer, userProfile, 
+				() -> getActionHandler(appName, targetServer, userProfile), method, targetURL, httpRequest);
+		return onHttpResponse(appName, targetServer, method, targetURL, httpResponse);
+	}
+	
+	/**
+	 * Uploads the files through {@link SmartHttpRequestExecutor} the same way as {@link #executeHttpRequest(String, String, String, String, String, HttpRequest)}.
+	 */
+	private HttpResponse executeHttpUpload(String appName, String targetServer, String userProfile, String method, 
+			String targetURL, HttpMultipartFileRequest httpRequest, SmartMultipartBodyKey bodyKey) {
+		HttpResponse httpResponse = SmartHttpRequestExecutor.executeUpload(appName, targetServer, userProfile, 
+				() -> getActionHandler(appName, targetServer, userProfile), method, targetURL, httpRequest, bodyKey);
+		return onHttpResponse(appName, targetServer, method, targetURL, httpResponse);
+	}
+	
+	/**
+	 * Sends the multipart form data through {@link SmartHttpRequestExecutor} the same way as {@link #executeHttpRequest(String, String, String, String, String, HttpRequest)}.
+	 */
+	private HttpResponse executeHttpUpload(String appName, String targetServer, String userProfile, String method, 
+			String targetURL, HttpMultipartFormRequest httpRequest, SmartMultipartBodyKey bodyKey) {
+		HttpResponse httpResponse = SmartHttpRequestExecutor.executeUpload(appName, targetServer, userProfile, 
+				() -> getActionHandler(appName, targetServer, userProfile), method, targetURL, httpRequest, bodyKey);
+		return onHttpResponse(appName, targetServer, method, targetURL, httpResponse);
+	}
+	
+	private HttpResponse onHttpResponse(String appName, String targetServer, String method, String targetURL, HttpResponse httpResponse) {
+		SmartHttpTiming timing = SmartHttpTiming.of(httpResponse);
+		if(timing != null && timing.getRetries() > 0) {
+			scenarioContext.log("HTTP " + method + " request on '" + targetURL + "' is retried " + timing.getRetries() 
+				+ " time(s). Attempts: " + timing.toMap().get("attempts"));
+		}
+		return spillIfLarge(appName, targetServer, httpResponse);
+	}
+	
+	/**
+	 * Spills the large payload of the HTTP response into temporary file as per the settings of the target server, so that
+	 * the payload is not kept on the heap till the end of the scenario, please refer {@link SmartSpilledHttpResponse}.
+	 */
+	private HttpResponse spillIfLarge(String appName, String targetServer, HttpResponse httpResponse) {
+		try {
+			return SmartSpilledHttpResponse.spillIfLarge(httpResponse, SmartSpilledHttpResponse.getThresholdInBytes(appName, targetServer), 
+					SmartApiScenarioResources.getInstance(scenarioContext));
+		} catch(IOException ex) {
+			// payload is kept on the heap if it can not be spilled.
+			return httpResponse;
+		}
+	}
+	
+	/**
+	 * Verifies the HTTP response has the payload. Spilled payload is never empty (empty payload is not spilled), so it is 
+	 * not loaded back from the temporary file for this check.
+	 */
+	private void validateResponseNotEmpty(HttpResponse httpResponse) {
+		if(!(httpResponse instanceof SmartSpilledHttpResponse)) {
+			httpResponse.getValidator().validateResponseNotEmpty();
+		}
+	}
+	
+	/**
+	 * Returns the reader of the HTTP response payload, spilled payload is read from the temporary file as a stream.
+	 */
+	private Reader openPayloadReader(HttpResponse httpResponse) throws IOException {
+		if(httpResponse instanceof SmartSpilledHttpResponse) {
+			return ((SmartSpilledHttpResponse) httpResponse).openPayloadReader();
+		}
+		return new StringReader(httpResponse.getPayload() == null ? "" : httpResponse.getPayload());
+	}
+	
+	/**
+	 * Returns the API action handler of the user profile that belongs to the scenario. Requests executed through 
+	 * {@link SmartHttpRequestExecutor} use the cached session instead if the session cache is enabled for the 
+	 * target server, please refer {@link SmartApiSessionCache}.
+	 */
+	private AbstractApiActionHandler getActionHandler(String appName, String targetServer, String userProfile) {
+		return scenarioContext.getApiTestManager().getActionHandler(appName, targetServer, userProfile);
+	}
+	
+	/**
+	 * Returns the API action handler of the scenario if the request executor needs it: not in replay mode (responses are 
+	 * replayed) and not if the cached session is used.
+	 */
+	private AbstractApiActionHandler getActionHandlerIfNetworkCallRequired(String appName, String targetServer, String userProfile) {
+		if(SmartHttpRecordReplayStore.getInstance(appName, targetServer).getMode() == SmartHttpRecordReplayStore.Mode.replay
+				|| SmartApiSessionCache.getInstance().isEnabled(appName, targetServer, userProfile)) {
+			return null;
+		}
+		return getActionHandler(appName, targetServer, userProfile);
 	}
 
 }
@@ -0,0 +1,157 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.uitnet.testing.smartfwk.api.core.AbstractApiActionHandler;
+import org.uitnet.testing.smartfwk.api.core.ApiTestManager;
+import org.uitnet.testing.smartfwk.api.core.support.HttpResponse;
+
+/**
+ * Pool of the API action handlers of one user profile, used by the steps that send the requests from more than one
+ * thread (parallel, load and asynchronous requests). The API action handler is not documented as thread-safe, so each
+ * call borrows the handler for its own use and returns it when the call is completed. If no handler is free then a new
+ * handler is created (and the user logs in) using the new API test manager, so the number of the handlers never goes
+ * above the number of the calls in progress.
+ *
+ * The handler of the scenario can be added to the pool when the scenario does not use it while the pool is in use (the
+ * scenario thread waits for the calls), it is used first and it is not closed by the pool. The handlers created by the
+ * pool are closed when the pool is closed.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartApiActionHandlerPool implements AutoCloseable {
+	private String appName;
+	private String targetServer;
+	private String userProfile;
+	private Deque<AbstractApiActionHandler> idleHandlers;
+	private Map<AbstractApiActionHandler, ApiTestManager> createdHandlers;
+	private boolean closed;
+
+	/**
+	 * Creates the pool.
+	 *
+	 * @param appName - the configured application name.
+	 * @param targetServer - the API target server name that is configured in ApiConfig.yaml file.
+	 * @param userProfile - the name of the user profile used to login on target server.
+	 * @param scenarioHandler - the handler of the scenario that can be used by the pool, may be null.
+	 */
+	public SmartApiActionHandlerPool(String appName, String targetServer, String userProfile,
+			AbstractApiActionHandler scenarioHandler) {
+		this.appName = appName;
+		this.targetServer = targetServer;
+		this.userProfile = userProfile;
+		idleHandlers = new ArrayDeque<>();
+		createdHandlers = new IdentityHashMap<>();
+		if (scenarioHandler != null) {
+			idleHandlers.add(scenarioHandler);
+		}
+	}
+
+	/**
+	 * Calls the API using the handler that is not used by any other call.
+	 *
+	 * @param call - makes the API call using the handler.
+	 * @return the HTTP response.
+	 */
+	public HttpResponse execute(Function<AbstractApiActionHandler, HttpResponse> call) {
+		AbstractApiActionHandler handler = borrow();
+		try {
+			return call.apply(handler);
+		} finally {
+			release(handler);
+		}
+	}
+
+	/**
+	 * Returns the number of the handlers created by the pool (number of logins).
+	 *
+	 * @return the handler count.
+	 */
+	public synchronized int getCreatedHandlerCount() {
+		return createdHandlers.size();
+	}
+
+	/**
+	 * Closes the handlers created by the pool. Calls in progress keep their handler till they are completed.
+	 */
+	@Override
+	public synchronized void close() {
+		closed = true;
+		idleHandlers.clear();
+		for (Map.Entry<AbstractApiActionHandler, ApiTestManager> entry : createdHandlers.entrySet()) {
+			close(entry.getValue(), entry.getKey());
+		}
+		createdHandlers.clear();
+	}
+
+	/**
+	 * Closes the handler and the API test manager that created it, if they hold any closeable resource. Errors are
+	 * ignored because the handler is no longer used.
+	 *
+	 * @param apiTestManager - the API test manager that created the handler.
+	 * @param handler - the handler.
+	 */
+	static void close(ApiTestManager apiTestManager, AbstractApiActionHandler handler) {
+		for (Object resource : new Object[] { handler, apiTestManager }) {
+			if (resource instanceof AutoCloseable) {
+				try {
+					((AutoCloseable) resource).close();
+				} catch (Exception ex) {
+					// ignore
+				}
+			}
+		}
+	}
+
+	private AbstractApiActionHandler borrow() {
+		synchronized (this) {
+			if (closed) {
+				throw new IllegalStateException("API action handler pool of '" + userProfile + "' user profile is closed.");
+			}
+			AbstractApiActionHandler handler = idleHandlers.pollFirst();
+			if (handler != null) {
+				return handler;
+			}
+		}
+
+		// login is done outside the lock, so that the other calls can use the free handlers meanwhile.
+		ApiTestManager apiTestManager = new ApiTestManager();
+		AbstractApiActionHandler handler = apiTestManager.getActionHandler(appName, targetServer, userProfile);
+		synchronized (this) {
+			if (closed) {
+				close(apiTestManager, handler);
+			} else {
+				createdHandlers.put(handler, apiTestManager);
+			}
+		}
+		return handler;
+	}
+
+	private synchronized void release(AbstractApiActionHandler handler) {
+		if (!closed) {
+			idleHandlers.addFirst(handler);
+		}
+	}
+}
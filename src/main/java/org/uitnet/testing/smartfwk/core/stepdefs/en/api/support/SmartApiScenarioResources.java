@@ -0,0 +1,162 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+
+import org.uitnet.testing.smartfwk.SmartCucumberScenarioContext;
+import org.uitnet.testing.smartfwk.api.core.support.HttpResponse;
+
+/**
+ * Holds the API step resources that live as long as a single scenario (like cached
+ * documents of HTTP responses). Resources are looked up using the scenario context and
+ * are released by the global after scenario hook.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartApiScenarioResources {
+	private static final int MAX_ASYNC_REQUESTS = 8;
+	private static final Map<SmartCucumberScenarioContext, SmartApiScenarioResources> resourcesByScenario = Collections
+			.synchronizedMap(new WeakHashMap<>());
+
+	private SmartHttpResponseDocumentCache documentCache;
+	private List<Path> tempFiles;
+	private List<SmartPendingHttpResponse> pendingResponses;
+	private SmartBoundedExecutor asyncExecutor;
+	private Map<String, SmartApiActionHandlerPool> asyncHandlerPools;
+
+	private SmartApiScenarioResources() {
+		documentCache = new SmartHttpResponseDocumentCache();
+		tempFiles = Collections.synchronizedList(new LinkedList<>());
+		pendingResponses = new LinkedList<>();
+		asyncHandlerPools = new HashMap<>();
+	}
+
+	/**
+	 * Returns the resources of the specified scenario. Resources are created on first use.
+	 *
+	 * @param scenarioContext - the scenario context.
+	 * @return the resources of the scenario.
+	 */
+	public static SmartApiScenarioResources getInstance(SmartCucumberScenarioContext scenarioContext) {
+		return resourcesByScenario.computeIfAbsent(scenarioContext, k -> new SmartApiScenarioResources());
+	}
+
+	/**
+	 * Releases all the resources of the specified scenario. It is called after the execution of the scenario.
+	 *
+	 * @param scenarioContext - the scenario context.
+	 */
+	public static void release(SmartCucumberScenarioContext scenarioContext) {
+		SmartApiScenarioResources resources = resourcesByScenario.remove(scenarioContext);
+		if (resources != null) {
+			resources.close();
+		}
+	}
+
+	public SmartHttpResponseDocumentCache getDocumentCache() {
+		return documentCache;
+	}
+
+	/**
+	 * Registers the temporary file that is deleted after the execution of the scenario.
+	 *
+	 * @param tempFile - the temporary file.
+	 */
+	public void addTempFile(Path tempFile) {
+		tempFiles.add(tempFile);
+	}
+
+	/**
+	 * Submits the HTTP request to the background executor of the scenario. At most 8 requests of a scenario are
+	 * executed at a time. Pending requests are cancelled after the execution of the scenario.
+	 *
+	 * @param method - the HTTP method name.
+	 * @param targetURL - the target URL.
+	 * @param request - the task that executes the HTTP request.
+	 * @return the pending HTTP response.
+	 */
+	public synchronized SmartPendingHttpResponse submitHttpRequest(String method, String targetURL,
+			Callable<HttpResponse> request) {
+		if (asyncExecutor == null) {
+			asyncExecutor = new SmartBoundedExecutor(MAX_ASYNC_REQUESTS, "smart-http-async");
+		}
+		pendingResponses.removeIf(SmartPendingHttpResponse::isDone);
+
+		SmartPendingHttpResponse pendingResponse = new SmartPendingHttpResponse(method, targetURL,
+				asyncExecutor.submit(request));
+		pendingResponses.add(pendingResponse);
+		return pendingResponse;
+	}
+
+	/**
+	 * Returns the pool of the API action handlers used by the background requests of the user profile. The handler of
+	 * the scenario is not added to the pool, since the scenario may use it while the requests are in progress. The
+	 * pool is closed after the execution of the scenario.
+	 *
+	 * @param appName - the configured application name.
+	 * @param targetServer - the API target server name that is configured in ApiConfig.yaml file.
+	 * @param userProfile - the name of the user profile used to login on target server.
+	 * @return the handler pool.
+	 */
+	public synchronized SmartApiActionHandlerPool getAsyncHandlerPool(String appName, String targetServer,
+			String userProfile) {
+		return asyncHandlerPools.computeIfAbsent(appName + ":" + targetServer + ":" + userProfile,
+				k -> new SmartApiActionHandlerPool(appName, targetServer, userProfile, null));
+	}
+
+	protected void close() {
+		synchronized (this) {
+			for (SmartPendingHttpResponse pendingResponse : pendingResponses) {
+				pendingResponse.cancel();
+			}
+			pendingResponses.clear();
+			if (asyncExecutor != null) {
+				asyncExecutor.shutdownNow();
+				asyncExecutor = null;
+			}
+			for (SmartApiActionHandlerPool handlerPool : asyncHandlerPools.values()) {
+				handlerPool.close();
+			}
+			asyncHandlerPools.clear();
+		}
+
+		documentCache.clear();
+
+		synchronized (tempFiles) {
+			for (Path tempFile : tempFiles) {
+				try {
+					Files.deleteIfExists(tempFile);
+				} catch (IOException ex) {
+					tempFile.toFile().deleteOnExit();
+				}
+			}
+			tempFiles.clear();
+		}
+	}
+}
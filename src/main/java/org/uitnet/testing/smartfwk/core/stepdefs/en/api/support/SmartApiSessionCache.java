@@ -0,0 +1,305 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.uitnet.testing.smartfwk.api.core.AbstractApiActionHandler;
+import org.uitnet.testing.smartfwk.api.core.ApiTestManager;
+import org.uitnet.testing.smartfwk.api.core.support.HttpResponse;
+
+/**
+ * Process wide cache of the authenticated API sessions. The API action handler keeps the authentication information
+ * (like bearer token and cookies) of the user profile after login, so the session is cached per application, target
+ * server and user profile and it is shared by all the scenarios till it expires. This avoids the login in every new
+ * scenario.
+ *
+ * The cache owns the API action handlers of the session: each handler is created by its own API test manager (not by
+ * the API test manager of any scenario), so it is not closed when a scenario ends. The handler is not documented as
+ * thread-safe, so it is used by one request at a time, the same way as {@link SmartApiActionHandlerPool}: the request
+ * borrows the free logged in handler and returns it when it is completed. If all the handlers are in use then the user
+ * logs in once more, so the session keeps as many handlers as the requests sent at a time and the requests are never
+ * queued behind each other. The lock of the session is held only to borrow / return the handler and to login, so at
+ * most one login (or refresh) of the session is in progress at a time.
+ *
+ * When the request borrows the handler, the handler is checked and the user logs in again if:
+ * <blockquote><pre>
+ *   - there is no free handler, or the handler is older than ttlInSeconds.
+ *   - the handler will expire within refreshBeforeExpiryInSeconds (refresh).
+ * </pre></blockquote>
+ * The refresh is done inline by the first request that borrows the handler within refreshBeforeExpiryInSeconds, there is
+ * no background refresh: the request waits for the login, but it is never sent with the session that is about to expire.
+ * The handler that is not used within this window is replaced by the next request after it expires. The replaced
+ * handlers are closed. The cache does not know the real lifetime of the token issued by the server, so ttlInSeconds should
+ * be less than the session / token expiry time of the server. If the server rejects the session anyway (response status
+ * code is listed in reloginOnStatusCodes) then the user logs in again and the request is sent once more.
+ *
+ * Session cache is disabled by default and it is enabled for the target server in the apiStepDefs section of
+ * ApiConfig.yaml file in the format given below:
+ * <blockquote><pre>
+ * apiStepDefs:
+ *   targetServers:
+ *     MyServer:
+ *       sessionCache:
+ *         enabled: true
+ *         ttlInSeconds: 1800                   # should be less than the session / token expiry time of the server
+ *         refreshBeforeExpiryInSeconds: 60
+ *         reloginOnStatusCodes: [401]
+ *         excludedUserProfiles: ["LogoutTestUser"]
+ * </pre></blockquote>
+ *
+ * User profiles listed in excludedUserProfiles are not cached, the scenarios using them login as before. Only the
+ * requests sent through {@link SmartHttpRequestExecutor} use the cached session, the other steps use the API action
+ * handler of the scenario.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartApiSessionCache {
+	private static final SmartApiSessionCache instance = new SmartApiSessionCache();
+
+	private Map<String, Session> sessions;
+	private AtomicLong hitCount = new AtomicLong(0);
+	private AtomicLong loginCount = new AtomicLong(0);
+	private AtomicLong refreshCount = new AtomicLong(0);
+	private AtomicLong reloginCount = new AtomicLong(0);
+
+	private SmartApiSessionCache() {
+		sessions = new ConcurrentHashMap<>();
+	}
+
+	public static SmartApiSessionCache getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Returns true if the session cache is enabled for the target server and user profile.
+	 *
+	 * @param appName - the configured application name.
+	 * @param targetServer - the API target server name that is configured in ApiConfig.yaml file.
+	 * @param userProfile - the name of the user profile used to login on target server.
+	 * @return true if the session cache is enabled.
+	 */
+	public boolean isEnabled(String appName, String targetServer, String userProfile) {
+		return getSession(appName, targetServer, userProfile).enabled;
+	}
+
+	/**
+	 * Calls the API using the cached API action handler of the user profile. The handler is not used by any other call
+	 * at the same time. The session cache must be enabled for the target server and user profile, please refer
+	 * {@link #isEnabled(String, String, String)}.
+	 *
+	 * @param appName - the configured application name.
+	 * @param targetServer - the API target server name that is configured in ApiConfig.yaml file.
+	 * @param userProfile - the name of the user profile used to login on target server.
+	 * @param call - makes the API call using the handler. It may be called twice if the server rejects the session.
+	 * @return the HTTP response.
+	 */
+	public HttpResponse execute(String appName, String targetServer, String userProfile,
+			Function<AbstractApiActionHandler, HttpResponse> call) {
+		Session session = getSession(appName, targetServer, userProfile);
+		if (!session.enabled) {
+			throw new IllegalStateException("Session cache is not enabled for '" + userProfile + "' user profile of '"
+					+ targetServer + "' target server.");
+		}
+		return session.execute(call);
+	}
+
+	/**
+	 * Removes all the cached sessions, the next request of each user profile will login again. The free handlers are
+	 * closed now, the handlers in use are closed when their request is completed.
+	 */
+	public void clear() {
+		for (Session session : sessions.values()) {
+			session.invalidate();
+		}
+	}
+
+	/**
+	 * Returns the statistics in the format given below:
+	 * <blockquote><pre>
+	 *   { hitCount: 500, loginCount: 4, refreshCount: 2, reloginCount: 0, cachedSessions: 2, cachedHandlers: 3 }
+	 * </pre></blockquote>
+	 *
+	 * Where cachedSessions is the number of the user profiles that have at least one logged in handler and
+	 * cachedHandlers is the number of the logged in handlers of all the user profiles.
+	 *
+	 * @return the statistics.
+	 */
+	public Map<String, Object> getStatistics() {
+		int cachedSessions = 0;
+		int cachedHandlers = 0;
+		for (Session session : sessions.values()) {
+			int handlerCount = session.getHandlerCount();
+			if (handlerCount > 0) {
+				cachedSessions++;
+				cachedHandlers += handlerCount;
+			}
+		}
+
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("hitCount", hitCount.get());
+		stats.put("loginCount", loginCount.get());
+		stats.put("refreshCount", refreshCount.get());
+		stats.put("reloginCount", reloginCount.get());
+		stats.put("cachedSessions", cachedSessions);
+		stats.put("cachedHandlers", cachedHandlers);
+		return stats;
+	}
+
+	private Session getSession(String appName, String targetServer, String userProfile) {
+		return sessions.computeIfAbsent(appName + ":" + targetServer + ":" + userProfile,
+				k -> new Session(appName, targetServer, userProfile));
+	}
+
+	private class Session {
+		private String appName;
+		private String targetServer;
+		private String userProfile;
+		private boolean enabled;
+		private long ttlInNanos;
+		private long refreshBeforeExpiryInNanos;
+		private Set<Integer> reloginOnStatusCodes;
+		private Deque<LoggedInHandler> freeHandlers = new ArrayDeque<>();
+		private int handlerCount;
+		private int generation;
+
+		@SuppressWarnings("unchecked")
+		private Session(String appName, String targetServer, String userProfile) {
+			this.appName = appName;
+			this.targetServer = targetServer;
+			this.userProfile = userProfile;
+
+			SmartApiTargetServerConfig config = SmartApiTargetServerConfig.getInstance(appName, targetServer);
+			TreeSet<String> excludedUserProfiles = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+			excludedUserProfiles.addAll(config.getValue("sessionCache.excludedUserProfiles", List.class,
+					Collections.emptyList()));
+
+			enabled = config.getValue("sessionCache.enabled", Boolean.class, false)
+					&& !excludedUserProfiles.contains(userProfile);
+			ttlInNanos = TimeUnit.SECONDS.toNanos(config.getValue("sessionCache.ttlInSeconds", Integer.class, 1800));
+			refreshBeforeExpiryInNanos = Math.min(ttlInNanos / 2, TimeUnit.SECONDS
+					.toNanos(config.getValue("sessionCache.refreshBeforeExpiryInSeconds", Integer.class, 60)));
+
+			reloginOnStatusCodes = new HashSet<>();
+			for (Object statusCode : config.getValue("sessionCache.reloginOnStatusCodes", List.class, List.of(401))) {
+				reloginOnStatusCodes.add(((Number) statusCode).intValue());
+			}
+		}
+
+		private HttpResponse execute(Function<AbstractApiActionHandler, HttpResponse> call) {
+			LoggedInHandler loggedInHandler = borrow();
+			try {
+				HttpResponse httpResponse = call.apply(loggedInHandler.handler);
+				if (httpResponse != null && reloginOnStatusCodes.contains(httpResponse.getCode())) {
+					// session is rejected by the server before the configured ttl.
+					reloginCount.incrementAndGet();
+					loggedInHandler = replace(loggedInHandler);
+					httpResponse = call.apply(loggedInHandler.handler);
+				}
+				return httpResponse;
+			} finally {
+				release(loggedInHandler);
+			}
+		}
+
+		private synchronized LoggedInHandler borrow() {
+			LoggedInHandler loggedInHandler;
+			while ((loggedInHandler = freeHandlers.pollFirst()) != null) {
+				long age = System.nanoTime() - loggedInHandler.loginTime;
+				if (age >= ttlInNanos) {
+					close(loggedInHandler);
+				} else if (age >= ttlInNanos - refreshBeforeExpiryInNanos) {
+					refreshCount.incrementAndGet();
+					return replace(loggedInHandler);
+				} else {
+					hitCount.incrementAndGet();
+					return loggedInHandler;
+				}
+			}
+			loginCount.incrementAndGet();
+			return login();
+		}
+
+		private synchronized void release(LoggedInHandler loggedInHandler) {
+			if (loggedInHandler.generation == generation) {
+				// most recently used handler is used first, so the rarely used extra handlers expire.
+				freeHandlers.addFirst(loggedInHandler);
+			} else {
+				close(loggedInHandler);
+			}
+		}
+
+		private synchronized LoggedInHandler replace(LoggedInHandler loggedInHandler) {
+			close(loggedInHandler);
+			return login();
+		}
+
+		private synchronized LoggedInHandler login() {
+			// new API test manager is used so that the new handler (and login) is created instead of the old one.
+			ApiTestManager apiTestManager = new ApiTestManager();
+			LoggedInHandler loggedInHandler = new LoggedInHandler(apiTestManager,
+					apiTestManager.getActionHandler(appName, targetServer, userProfile), generation);
+			handlerCount++;
+			return loggedInHandler;
+		}
+
+		private synchronized void close(LoggedInHandler loggedInHandler) {
+			handlerCount--;
+			SmartApiActionHandlerPool.close(loggedInHandler.apiTestManager, loggedInHandler.handler);
+		}
+
+		private synchronized void invalidate() {
+			generation++;
+			LoggedInHandler loggedInHandler;
+			while ((loggedInHandler = freeHandlers.pollFirst()) != null) {
+				close(loggedInHandler);
+			}
+		}
+
+		private synchronized int getHandlerCount() {
+			return handlerCount;
+		}
+	}
+
+	private static class LoggedInHandler {
+		private ApiTestManager apiTestManager;
+		private AbstractApiActionHandler handler;
+		private long loginTime;
+		private int generation;
+
+		private LoggedInHandler(ApiTestManager apiTestManager, AbstractApiActionHandler handler, int generation) {
+			this.apiTestManager = apiTestManager;
+			this.handler = handler;
+			this.generation = generation;
+			loginTime = System.nanoTime();
+		}
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.uitnet.testing.smartfwk.api.core.reader.YamlDocumentReader;
+import org.uitnet.testing.smartfwk.ui.core.commons.Locations;
+import org.uitnet.testing.smartfwk.ui.core.utils.JsonYamlUtil;
+import org.uitnet.testing.smartfwk.ui.core.utils.StringUtil;
+
+import com.jayway.jsonpath.DocumentContext;
+
+/**
+ * Reads the optional settings of the API step definitions for the target server. These settings are specified
+ * in the "apiStepDefs" section of test-config/apps-config/&lt;AppName&gt;/ApiConfig.yaml file in the format given
+ * below:
+ * <blockquote><pre>
+ * apiStepDefs:
+ *   targetServers:
+ *     MyServer:
+ *       baseURL: "https://myserver.example.com/api"
+ * </pre></blockquote>
+ *
+ * Where MyServer is the target server name configured in the same file. All the settings are optional.
+ * The configuration file is read once per application.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartApiTargetServerConfig {
+	private static final Map<String, DocumentContext> configByAppName = new ConcurrentHashMap<>();
+	private static final Map<String, SmartApiTargetServerConfig> configByTargetServer = new ConcurrentHashMap<>();
+
+	private String appName;
+	private String targetServer;
+	private DocumentContext config;
+
+	SmartApiTargetServerConfig(String appName, String targetServer, DocumentContext config) {
+		this.appName = appName;
+		this.targetServer = targetServer;
+		this.config = config;
+	}
+
+	/**
+	 * Returns the settings of the specified target server.
+	 *
+	 * @param appName - the configured application name.
+	 * @param targetServer - the API target server name that is configured in ApiConfig.yaml file.
+	 * @return the settings of the target server.
+	 */
+	public static SmartApiTargetServerConfig getInstance(String appName, String targetServer) {
+		return configByTargetServer.computeIfAbsent(appName + ":" + targetServer,
+				k -> new SmartApiTargetServerConfig(appName, targetServer, getAppConfig(appName)));
+	}
+
+	public String getAppName() {
+		return appName;
+	}
+
+	public String getTargetServer() {
+		return targetServer;
+	}
+
+	/**
+	 * Returns the base URL of the target server. Relative target URLs are resolved against it.
+	 *
+	 * @return the base URL, null if not configured.
+	 */
+	public String getBaseURL() {
+		return getValue("baseURL", String.class, null);
+	}
+
+	/**
+	 * Returns the value of the setting of the target server.
+	 *
+	 * @param settingPath - the path of the setting relative to the target server section. Nested
+	 *                    settings are separated by dot (like retryPolicy.maxAttempts).
+	 * @param valueType - the type of the value.
+	 * @param defaultValue - the value returned if the setting is not configured.
+	 * @return the value of the setting.
+	 */
+	public <T> T getValue(String settingPath, Class<T> valueType, T defaultValue) {
+		if (config == null) {
+			return defaultValue;
+		}
+
+		StringBuilder jsonPath = new StringBuilder("$['apiStepDefs']['targetServers']['").append(targetServer).append("']");
+		for (String name : settingPath.split("\\.")) {
+			jsonPath.append("['").append(name).append("']");
+		}
+
+		T value = JsonYamlUtil.readNoException(jsonPath.toString(), valueType, config);
+		return value == null ? defaultValue : value;
+	}
+
+	private static DocumentContext getAppConfig(String appName) {
+		DocumentContext config = configByAppName.get(appName);
+		if (config == null) {
+			File configFile = new File(Locations.getProjectRootDir() + File.separator + "test-config" + File.separator
+					+ "apps-config" + File.separator + appName + File.separator + "ApiConfig.yaml");
+			if (StringUtil.isEmptyAfterTrim(appName) || !configFile.exists()) {
+				return null;
+			}
+			config = new YamlDocumentReader(configFile, false).getDocumentContext();
+			configByAppName.put(appName, config);
+		}
+		return config;
+	}
+}
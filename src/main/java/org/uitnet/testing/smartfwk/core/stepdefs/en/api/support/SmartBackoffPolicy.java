@@ -0,0 +1,75 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with jitter. The delay of n-th attempt (starting from 0) is calculated as given below:
+ * <blockquote><pre>
+ *   interval = min(maxInterval, initialInterval * 2^n)
+ *   delay    = interval / 2 + random(0, interval / 2)
+ * </pre></blockquote>
+ *
+ * Jitter spreads the attempts of the parallel scenarios, so that they do not hit the server at the same time.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartBackoffPolicy {
+	private long initialIntervalInMillis;
+	private long maxIntervalInMillis;
+
+	/**
+	 * Creates the backoff policy.
+	 *
+	 * @param initialIntervalInMillis - the interval of the first attempt. Must be greater than 0.
+	 * @param maxIntervalInMillis - the maximum interval. Must not be less than the initial interval.
+	 */
+	public SmartBackoffPolicy(long initialIntervalInMillis, long maxIntervalInMillis) {
+		if (initialIntervalInMillis <= 0 || maxIntervalInMillis < initialIntervalInMillis) {
+			throw new IllegalArgumentException("Initial interval should be greater than 0 and max interval should not be less than "
+					+ "initial interval. Found: initialInterval=" + initialIntervalInMillis + ", maxInterval=" + maxIntervalInMillis);
+		}
+		this.initialIntervalInMillis = initialIntervalInMillis;
+		this.maxIntervalInMillis = maxIntervalInMillis;
+	}
+
+	public long getInitialIntervalInMillis() {
+		return initialIntervalInMillis;
+	}
+
+	public long getMaxIntervalInMillis() {
+		return maxIntervalInMillis;
+	}
+
+	/**
+	 * Returns the delay before the next attempt.
+	 *
+	 * @param attempt - the number of attempts already made (starting from 0).
+	 * @return the delay in milliseconds.
+	 */
+	public long getDelayInMillis(int attempt) {
+		long interval = maxIntervalInMillis;
+		if (attempt < 62 && initialIntervalInMillis <= (maxIntervalInMillis >> Math.max(0, attempt))) {
+			interval = initialIntervalInMillis << Math.max(0, attempt);
+		}
+		long half = interval / 2;
+		return half + ThreadLocalRandom.current().nextLong(interval - half + 1);
+	}
+}
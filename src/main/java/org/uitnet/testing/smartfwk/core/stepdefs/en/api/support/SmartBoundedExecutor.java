@@ -0,0 +1,140 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor that runs at most the configured number of tasks at a time. Virtual threads are used
+ * when the JVM supports them (Java 21+), otherwise a fixed pool of daemon threads is used.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartBoundedExecutor implements AutoCloseable {
+	private static final Method newVirtualThreadExecutorMethod = findVirtualThreadExecutorMethod();
+
+	private ExecutorService executor;
+	private Semaphore permits;
+	private boolean virtualThreads;
+
+	/**
+	 * Creates the executor.
+	 *
+	 * @param maxConcurrency - the maximum number of tasks that can run at a time. Must be greater than 0.
+	 * @param threadNamePrefix - the prefix of the thread name (used only for platform threads).
+	 */
+	public SmartBoundedExecutor(int maxConcurrency, String threadNamePrefix) {
+		if (maxConcurrency <= 0) {
+			throw new IllegalArgumentException("Max concurrency should be greater than 0. Found: " + maxConcurrency);
+		}
+		executor = newVirtualThreadExecutor();
+		if (executor != null) {
+			virtualThreads = true;
+			permits = new Semaphore(maxConcurrency, true);
+		} else {
+			executor = Executors.newFixedThreadPool(maxConcurrency, new DaemonThreadFactory(threadNamePrefix));
+		}
+	}
+
+	public <T> Future<T> submit(Callable<T> task) {
+		if (permits == null) {
+			return executor.submit(task);
+		}
+
+		return executor.submit(() -> {
+			permits.acquire();
+			try {
+				return task.call();
+			} finally {
+				permits.release();
+			}
+		});
+	}
+
+	public boolean isUsingVirtualThreads() {
+		return virtualThreads;
+	}
+
+	/**
+	 * Cancels the running tasks and shuts down the executor.
+	 */
+	public void shutdownNow() {
+		executor.shutdownNow();
+	}
+
+	@Override
+	public void close() {
+		executor.shutdown();
+		try {
+			if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+				executor.shutdownNow();
+			}
+		} catch (InterruptedException ex) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	public static boolean isVirtualThreadSupported() {
+		return newVirtualThreadExecutorMethod != null;
+	}
+
+	private static ExecutorService newVirtualThreadExecutor() {
+		if (newVirtualThreadExecutorMethod == null) {
+			return null;
+		}
+		try {
+			return (ExecutorService) newVirtualThreadExecutorMethod.invoke(null);
+		} catch (Exception ex) {
+			return null;
+		}
+	}
+
+	private static Method findVirtualThreadExecutorMethod() {
+		try {
+			return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+		} catch (Exception ex) {
+			return null;
+		}
+	}
+
+	private static class DaemonThreadFactory implements ThreadFactory {
+		private final AtomicInteger threadCount = new AtomicInteger(0);
+		private final String namePrefix;
+
+		private DaemonThreadFactory(String namePrefix) {
+			this.namePrefix = namePrefix;
+		}
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread t = new Thread(r, namePrefix + "-" + threadCount.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		}
+	}
+}
@@ -0,0 +1,203 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounds the number of the HTTP requests of the target server that are in progress at the same time and measures the
+ * leases of these requests. One pool is created per application and target server and it is shared by all the
+ * scenarios. Each network call made through {@link SmartHttpRequestExecutor} leases the pool till its response is
+ * received.
+ *
+ * The connections (keep-alive, TLS sessions) are managed by the HTTP client of the API action handler, which does not
+ * expose them. So the pool does not open, keep or close the connections and it reports only what it measures: the
+ * leases, the time spent waiting for the lease, the lease timeouts and the failed requests.
+ *
+ * The requests are bounded only if the pool is configured for the target server in the apiStepDefs section of
+ * ApiConfig.yaml file in the format given below, otherwise the leases are only counted:
+ * <blockquote><pre>
+ * apiStepDefs:
+ *   targetServers:
+ *     MyServer:
+ *       connectionPool:
+ *         maxConnections: 20
+ *         leaseTimeoutInSeconds: 60
+ * </pre></blockquote>
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartHttpConnectionPool {
+	private static final Map<String, SmartHttpConnectionPool> poolsByTargetServer = new ConcurrentHashMap<>();
+
+	private SmartApiTargetServerConfig config;
+	private boolean enabled;
+	private int maxConnections;
+	private int leaseTimeoutInSeconds;
+	private Semaphore leases;
+
+	private AtomicLong totalLeases = new AtomicLong(0);
+	private AtomicLong leaseTimeouts = new AtomicLong(0);
+	private AtomicLong failedRequests = new AtomicLong(0);
+	private int leased;
+	private int peakLeased;
+	private SmartLatencyHistogram leaseWaitTimeHistogram = new SmartLatencyHistogram();
+
+	private SmartHttpConnectionPool(SmartApiTargetServerConfig config) {
+		this.config = config;
+		enabled = config.getValue("connectionPool", Object.class, null) != null;
+		if (enabled) {
+			maxConnections = Math.max(1, config.getValue("connectionPool.maxConnections", Integer.class, 20));
+			leaseTimeoutInSeconds = config.getValue("connectionPool.leaseTimeoutInSeconds", Integer.class, 60);
+			leases = new Semaphore(maxConnections, true);
+		}
+	}
+
+	/**
+	 * Returns the pool of the specified target server.
+	 *
+	 * @param appName - the configured application name.
+	 * @param targetServer - the API target server name that is configured in ApiConfig.yaml file.
+	 * @return the pool.
+	 */
+	public static SmartHttpConnectionPool getInstance(String appName, String targetServer) {
+		return poolsByTargetServer.computeIfAbsent(appName + ":" + targetServer,
+				k -> new SmartHttpConnectionPool(SmartApiTargetServerConfig.getInstance(appName, targetServer)));
+	}
+
+	public SmartApiTargetServerConfig getConfig() {
+		return config;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public int getMaxConnections() {
+		return maxConnections;
+	}
+
+	/**
+	 * Leases the pool for one request. If the pool is configured then it waits while the max connections are in use,
+	 * otherwise it returns immediately.
+	 *
+	 * @return the lease that must be closed once the response is received.
+	 * @throws IOException if the lease is not available within the lease timeout.
+	 * @throws InterruptedException if the current thread is interrupted while waiting.
+	 */
+	public Lease lease() throws IOException, InterruptedException {
+		long startTime = System.nanoTime();
+		if (enabled && !leases.tryAcquire(leaseTimeoutInSeconds, TimeUnit.SECONDS)) {
+			leaseTimeouts.incrementAndGet();
+			throw new IOException("No connection of '" + config.getTargetServer() + "' target server is available within "
+					+ leaseTimeoutInSeconds + " seconds. All " + maxConnections + " connections are in use.");
+		}
+
+		long waitTimeInNanos = System.nanoTime() - startTime;
+		totalLeases.incrementAndGet();
+		synchronized (this) {
+			leased++;
+			peakLeased = Math.max(peakLeased, leased);
+			leaseWaitTimeHistogram.recordValue(waitTimeInNanos / 1000);
+		}
+		return new Lease(waitTimeInNanos);
+	}
+
+	/**
+	 * Returns the pool metrics in the format given below (time is in milliseconds):
+	 * <blockquote><pre>
+	 * {
+	 *   enabled: true, maxConnections: 20, leased: 0, peakLeased: 8, totalLeases: 200, leaseTimeouts: 0, failedRequests: 0,
+	 *   leaseWaitTime: { min: 0, mean: 0.01, max: 0.5, p50: 0, p90: 0, p95: 0, p99: 0.2, p999: 0.5 }
+	 * }
+	 * </pre></blockquote>
+	 *
+	 * maxConnections is reported only if the pool is configured.
+	 *
+	 * @return the metrics.
+	 */
+	public Map<String, Object> getMetrics() {
+		Map<String, Object> metrics = new LinkedHashMap<>();
+		metrics.put("enabled", enabled);
+		if (enabled) {
+			metrics.put("maxConnections", maxConnections);
+		}
+		synchronized (this) {
+			metrics.put("leased", leased);
+			metrics.put("peakLeased", peakLeased);
+			metrics.put("totalLeases", totalLeases.get());
+			metrics.put("leaseTimeouts", leaseTimeouts.get());
+			metrics.put("failedRequests", failedRequests.get());
+			metrics.put("leaseWaitTime", SmartHttpLoadGenerator.toLatencyInfo(leaseWaitTimeHistogram));
+		}
+		return metrics;
+	}
+
+	/**
+	 * Lease of the pool. Closing the lease more than once has no effect.
+	 */
+	public class Lease implements AutoCloseable {
+		private long waitTimeInNanos;
+		private boolean released;
+		private boolean failed = true;
+
+		private Lease(long waitTimeInNanos) {
+			this.waitTimeInNanos = waitTimeInNanos;
+		}
+
+		/**
+		 * Returns the time spent waiting for the lease.
+		 *
+		 * @return the wait time in nanoseconds.
+		 */
+		public long getWaitTimeInNanos() {
+			return waitTimeInNanos;
+		}
+
+		/**
+		 * Marks the request successful. Requests whose lease is closed without calling this method are counted as failed.
+		 */
+		public void completed() {
+			failed = false;
+		}
+
+		@Override
+		public void close() {
+			if (released) {
+				return;
+			}
+			released = true;
+			if (failed) {
+				failedRequests.incrementAndGet();
+			}
+			synchronized (SmartHttpConnectionPool.this) {
+				leased--;
+			}
+			if (enabled) {
+				leases.release();
+			}
+		}
+	}
+}
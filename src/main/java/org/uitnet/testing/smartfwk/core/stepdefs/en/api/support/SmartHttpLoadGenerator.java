@@ -0,0 +1,202 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import org.uitnet.testing.smartfwk.api.core.support.HttpResponse;
+
+/**
+ * Generates HTTP load on the target server using the specified number of concurrent workers for the specified
+ * duration. Each worker sends the same request again and again (closed loop) and records the latency into its own
+ * histogram. Histograms of all the workers are merged at the end to prepare the statistics.
+ *
+ * The request is sent by the request call supplied by the caller, so the load is sent the same way (and measured the
+ * same way) as the other HTTP steps send the request, please refer {@link SmartHttpRequestExecutor}. The request call is
+ * called by all the workers at the same time, so it must not share any mutable object (like the HTTP request) between
+ * the calls.
+ *
+ * A request is counted as error if it throws an exception or its HTTP status code is 400 or above. If the worker
+ * itself fails then the failure is counted as one erroneous request.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartHttpLoadGenerator {
+	private String method;
+	private String targetURL;
+	private Supplier<HttpResponse> requestCall;
+
+	/**
+	 * Creates the load generator.
+	 *
+	 * @param method - the HTTP method name, used for the statistics.
+	 * @param targetURL - the target URL, used for the statistics.
+	 * @param requestCall - sends the request and returns the HTTP response, it is called by all the workers at the same time.
+	 */
+	public SmartHttpLoadGenerator(String method, String targetURL, Supplier<HttpResponse> requestCall) {
+		this.method = method;
+		this.targetURL = targetURL;
+		this.requestCall = requestCall;
+	}
+
+	/**
+	 * Runs the load and returns the statistics in the format given below (latency values are in milliseconds):
+	 * <blockquote><pre>
+	 * {
+	 *   method: "GET", targetURL: "/users", concurrentWorkers: 10, durationInSeconds: 30.01,
+	 *   totalRequests: 12000, successCount: 11990, errorCount: 10, throughputPerSecond: 399.87,
+	 *   statusCodes: { "200": 11990, "503": 8 }, errors: { "java.net.ConnectException": 2 },
+	 *   latency: { min: 3.1, mean: 24.5, max: 410.2, p50: 20.1, p90: 41.2, p95: 60.4, p99: 102.3, p999: 380.1 }
+	 * }
+	 * </pre></blockquote>
+	 *
+	 * @param concurrentWorkers - the number of workers that send the requests concurrently.
+	 * @param durationInSeconds - the duration of the load.
+	 * @return the statistics.
+	 */
+	public Map<String, Object> run(int concurrentWorkers, int durationInSeconds) {
+		if (concurrentWorkers <= 0 || durationInSeconds <= 0) {
+			throw new IllegalArgumentException("Concurrent workers and duration should be greater than 0.");
+		}
+
+		long startTime = System.nanoTime();
+		long deadline = startTime + durationInSeconds * 1000000000L;
+		List<Future<WorkerResult>> futures = new ArrayList<>(concurrentWorkers);
+		WorkerResult total = new WorkerResult();
+
+		try (SmartBoundedExecutor executor = new SmartBoundedExecutor(concurrentWorkers, "smart-http-load")) {
+			for (int i = 0; i < concurrentWorkers; i++) {
+				futures.add(executor.submit(() -> runWorker(deadline)));
+			}
+
+			for (Future<WorkerResult> future : futures) {
+				try {
+					total.merge(future.get());
+				} catch (ExecutionException ex) {
+					total.addError(ex.getCause());
+				} catch (InterruptedException ex) {
+					executor.shutdownNow();
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+		}
+
+		double elapsedSeconds = (System.nanoTime() - startTime) / 1000000000.0;
+		return prepareStatistics(total, concurrentWorkers, elapsedSeconds);
+	}
+
+	private WorkerResult runWorker(long deadline) {
+		WorkerResult result = new WorkerResult();
+		long reqStartTime;
+		while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+			reqStartTime = System.nanoTime();
+			try {
+				HttpResponse httpResponse = requestCall.get();
+				result.histogram.recordValue((System.nanoTime() - reqStartTime) / 1000);
+				result.addStatusCode(httpResponse.getCode());
+			} catch (Throwable th) {
+				result.histogram.recordValue((System.nanoTime() - reqStartTime) / 1000);
+				result.addError(th);
+			}
+		}
+		return result;
+	}
+
+	private Map<String, Object> prepareStatistics(WorkerResult total, int concurrentWorkers, double elapsedSeconds) {
+		long totalRequests = total.requestCount;
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("method", method);
+		stats.put("targetURL", targetURL);
+		stats.put("concurrentWorkers", concurrentWorkers);
+		stats.put("durationInSeconds", round(elapsedSeconds));
+		stats.put("totalRequests", totalRequests);
+		stats.put("successCount", totalRequests - total.errorCount);
+		stats.put("errorCount", total.errorCount);
+		stats.put("throughputPerSecond", elapsedSeconds > 0 ? round(totalRequests / elapsedSeconds) : 0.0);
+		stats.put("statusCodes", total.statusCodes);
+		stats.put("errors", total.errors);
+		stats.put("latency", toLatencyInfo(total.histogram));
+		return stats;
+	}
+
+	/**
+	 * Converts the histogram into the latency information (in milliseconds).
+	 *
+	 * @param histogram - the latency histogram (in microseconds).
+	 * @return the latency information.
+	 */
+	public static Map<String, Object> toLatencyInfo(SmartLatencyHistogram histogram) {
+		Map<String, Object> latency = new LinkedHashMap<>();
+		latency.put("min", toMillis(histogram.getMinValue()));
+		latency.put("mean", round(histogram.getMean() / 1000.0));
+		latency.put("max", toMillis(histogram.getMaxValue()));
+		latency.put("p50", toMillis(histogram.getValueAtPercentile(50)));
+		latency.put("p90", toMillis(histogram.getValueAtPercentile(90)));
+		latency.put("p95", toMillis(histogram.getValueAtPercentile(95)));
+		latency.put("p99", toMillis(histogram.getValueAtPercentile(99)));
+		latency.put("p999", toMillis(histogram.getValueAtPercentile(99.9)));
+		return latency;
+	}
+
+	private static double toMillis(long valueInMicros) {
+		return round(valueInMicros / 1000.0);
+	}
+
+	private static double round(double value) {
+		return Math.round(value * 100.0) / 100.0;
+	}
+
+	private static class WorkerResult {
+		private SmartLatencyHistogram histogram = new SmartLatencyHistogram();
+		private Map<String, Long> statusCodes = new TreeMap<>();
+		private Map<String, Long> errors = new TreeMap<>();
+		private long requestCount;
+		private long errorCount;
+
+		private void addStatusCode(int statusCode) {
+			requestCount++;
+			statusCodes.merge(String.valueOf(statusCode), 1L, Long::sum);
+			if (statusCode >= 400) {
+				errorCount++;
+			}
+		}
+
+		private void addError(Throwable th) {
+			requestCount++;
+			errors.merge(th.getClass().getName(), 1L, Long::sum);
+			errorCount++;
+		}
+
+		private void merge(WorkerResult other) {
+			histogram.add(other.histogram);
+			requestCount += other.requestCount;
+			other.statusCodes.forEach((k, v) -> statusCodes.merge(k, v, Long::sum));
+			other.errors.forEach((k, v) -> errors.merge(k, v, Long::sum));
+			errorCount += other.errorCount;
+		}
+	}
+}
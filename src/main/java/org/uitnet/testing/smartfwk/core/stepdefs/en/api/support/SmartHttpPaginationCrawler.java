@@ -0,0 +1,390 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Function;
+
+import org.uitnet.testing.smartfwk.api.core.support.HttpResponse;
+import org.uitnet.testing.smartfwk.ui.core.utils.StringUtil;
+
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.PathNotFoundException;
+
+/**
+ * Walks all the pages of the paginated API and passes the items of each page to the item consumer. The next page
+ * is found using one of the mechanisms given below:
+ * <blockquote><pre>
+ *   linkHeader  - the URL of the next page is in the Link response header with rel="next" (RFC 8288).
+ *   nextURL     - the URL of the next page is in the response body at the specified JSON path.
+ *   cursor      - the cursor of the next page is in the response body at the specified JSON path, it is sent
+ *                 using the specified query parameter of the first page URL.
+ * </pre></blockquote>
+ *
+ * The pages are fetched by the background thread while the caller thread reads the items of the previous pages.
+ * The background thread finds only the next page link (reading the response body till the JSON path is found) and
+ * continues with the next page, so at most prefetchDepth pages are fetched but not yet read by the caller.
+ *
+ * Crawling is stopped when there is no next page or the max pages are fetched.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartHttpPaginationCrawler {
+	public enum NextPageType {
+		linkHeader, nextURL, cursor;
+
+		public static NextPageType valueOf2(String name) {
+			for (NextPageType type : values()) {
+				if (type.name().equalsIgnoreCase(name.trim())) {
+					return type;
+				}
+			}
+			throw new IllegalArgumentException("Invalid next page type '" + name + "'. Valid values are: linkHeader, nextURL, cursor");
+		}
+	}
+
+	/**
+	 * Consumer of the items of the pages.
+	 */
+	public interface ItemConsumer {
+		void accept(Object item) throws IOException;
+	}
+
+	private Function<String, HttpResponse> pageFetcher;
+	private String itemsPath;
+	private SmartStreamingJsonPathExtractor itemsExtractor;
+	private int maxPages;
+	private int prefetchDepth;
+	private String baseURL;
+
+	private NextPageType nextPageType = NextPageType.linkHeader;
+	private String nextPagePath;
+	private SmartStreamingJsonPathExtractor nextPageExtractor;
+	private String cursorQueryParam;
+
+	/**
+	 * Creates the crawler, next page is found using the Link header by default.
+	 *
+	 * @param pageFetcher - makes the HTTP GET call on the specified URL and returns the response.
+	 * @param itemsPath - the JSON path of the items in the page, like $.items or $.data[*]
+	 * @param maxPages - the maximum number of pages to fetch. Must be greater than 0.
+	 * @param prefetchDepth - the maximum number of pages fetched in advance. Must be greater than 0.
+	 */
+	public SmartHttpPaginationCrawler(Function<String, HttpResponse> pageFetcher, String itemsPath, int maxPages,
+			int prefetchDepth) {
+		if (StringUtil.isEmptyAfterTrim(itemsPath)) {
+			throw new IllegalArgumentException("Items path can not be empty.");
+		}
+		if (maxPages <= 0 || prefetchDepth <= 0) {
+			throw new IllegalArgumentException("Max pages and prefetch depth should be greater than 0.");
+		}
+		this.pageFetcher = pageFetcher;
+		this.itemsPath = itemsPath.trim();
+		this.itemsExtractor = SmartStreamingJsonPathExtractor.compile(this.itemsPath);
+		this.maxPages = maxPages;
+		this.prefetchDepth = prefetchDepth;
+	}
+
+	/**
+	 * Sets the mechanism to find the next page.
+	 *
+	 * @param nextPageType - the next page mechanism.
+	 * @param nextPagePath - the JSON path of the next page URL or cursor, not used for linkHeader.
+	 * @param cursorQueryParam - the query parameter name used to send the cursor, used only for cursor.
+	 */
+	public void setNextPage(NextPageType nextPageType, String nextPagePath, String cursorQueryParam) {
+		if (nextPageType != NextPageType.linkHeader && StringUtil.isEmptyAfterTrim(nextPagePath)) {
+			throw new IllegalArgumentException("Next page path can not be empty for '" + nextPageType + "' next page type.");
+		}
+		if (nextPageType == NextPageType.cursor && StringUtil.isEmptyAfterTrim(cursorQueryParam)) {
+			throw new IllegalArgumentException("Cursor query parameter can not be empty for 'cursor' next page type.");
+		}
+		this.nextPageType = nextPageType;
+		this.nextPagePath = nextPagePath == null ? null : nextPagePath.trim();
+		this.nextPageExtractor = SmartStreamingJsonPathExtractor.compile(this.nextPagePath);
+		this.cursorQueryParam = cursorQueryParam == null ? null : cursorQueryParam.trim();
+	}
+
+	/**
+	 * Sets the base URL of the target server. Absolute next page URLs that start with the base URL are converted to
+	 * the relative URLs.
+	 *
+	 * @param baseURL - the base URL, may be null.
+	 */
+	public void setBaseURL(String baseURL) {
+		this.baseURL = StringUtil.isEmptyAfterTrim(baseURL) ? null : baseURL.trim();
+	}
+
+	/**
+	 * Fetches all the pages starting from the first page URL and passes the items to the consumer in the page
+	 * order.
+	 *
+	 * @param firstPageURL - the URL of the first page.
+	 * @param itemConsumer - the consumer of the items.
+	 * @return the crawl summary in the format: { pages: 120, items: 12000, truncated: false }, where truncated is
+	 *         true if the crawl is stopped due to the max pages.
+	 * @throws IOException if the consumer fails to consume the item.
+	 */
+	public Map<String, Object> crawl(String firstPageURL, ItemConsumer itemConsumer) throws IOException {
+		BlockingQueue<Page> pages = new ArrayBlockingQueue<>(prefetchDepth);
+		long pageCount = 0;
+		long itemCount = 0;
+		boolean truncated = false;
+
+		SmartBoundedExecutor executor = new SmartBoundedExecutor(1, "smart-http-pagination");
+		try {
+			executor.submit(() -> fetchPages(firstPageURL, pages));
+
+			Page page;
+			while (true) {
+				try {
+					page = pages.take();
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("Interrupted while waiting for the page.", ex);
+				}
+				if (page.error != null) {
+					throw new IllegalStateException("Failed to fetch page " + (pageCount + 1) + " from '" + page.url + "'. Reason: "
+							+ page.error.getMessage(), page.error);
+				}
+
+				pageCount++;
+				for (Object item : readItems(page)) {
+					itemConsumer.accept(item);
+					itemCount++;
+				}
+
+				if (page.nextURL == null) {
+					break;
+				} else if (pageCount >= maxPages) {
+					truncated = true;
+					break;
+				}
+			}
+		} finally {
+			// stops the background thread if the caller failed before the last page.
+			executor.shutdownNow();
+		}
+
+		Map<String, Object> summary = new LinkedHashMap<>();
+		summary.put("pages", pageCount);
+		summary.put("items", itemCount);
+		summary.put("truncated", truncated);
+		return summary;
+	}
+
+	private Void fetchPages(String firstPageURL, BlockingQueue<Page> pages) throws InterruptedException {
+		String url = firstPageURL;
+		for (int i = 0; i < maxPages && url != null; i++) {
+			Page page = new Page(url);
+			try {
+				page.response = pageFetcher.apply(url);
+				if (page.response == null) {
+					throw new IllegalStateException("No HTTP response received.");
+				} else if (page.response.getCode() < 200 || page.response.getCode() >= 300) {
+					throw new IllegalStateException("HTTP status code is " + page.response.getCode() + ".");
+				}
+				page.nextURL = findNextPageURL(firstPageURL, url, page.response);
+			} catch (Throwable th) {
+				page.error = th;
+			}
+
+			pages.put(page);
+			if (page.error != null) {
+				break;
+			}
+			url = page.nextURL;
+		}
+		return null;
+	}
+
+	private List<?> readItems(Page page) {
+		String payload = page.response.getPayload();
+		if (StringUtil.isEmptyAfterTrim(payload)) {
+			return List.of();
+		}
+
+		Object items = null;
+		try {
+			if (itemsExtractor != null) {
+				SmartStreamingJsonPathExtractor.Result result = itemsExtractor.extract(new StringReader(payload), Configuration.defaultConfiguration());
+				items = result.isFound() ? result.getValue() : null;
+			} else {
+				items = JsonPath.parse(payload).read(itemsPath);
+			}
+		} catch (PathNotFoundException ex) {
+			// page without items.
+		} catch (IOException | RuntimeException ex) {
+			throw new IllegalStateException("Failed to read items from '" + page.url + "' page. Reason: " + ex.getMessage(), ex);
+		}
+		// release the page as soon as its items are read.
+		page.response = null;
+
+		if (items == null) {
+			return List.of();
+		}
+		return items instanceof List ? (List<?>) items : List.of(items);
+	}
+
+	private String findNextPageURL(String firstPageURL, String currentURL, HttpResponse response) throws IOException {
+		if (nextPageType == NextPageType.linkHeader) {
+			String link = findNextLink(response.getHeaders());
+			return link == null ? null : resolveURL(currentURL, link);
+		}
+
+		Object value = null;
+		String payload = response.getPayload();
+		if (!StringUtil.isEmptyAfterTrim(payload)) {
+			if (nextPageExtractor != null) {
+				SmartStreamingJsonPathExtractor.Result result = nextPageExtractor.extract(new StringReader(payload), Configuration.defaultConfiguration());
+				value = result.isFound() ? result.getValue() : null;
+			} else {
+				try {
+					value = JsonPath.parse(payload).read(nextPagePath);
+				} catch (PathNotFoundException ex) {
+					// last page.
+				}
+			}
+		}
+		if (value instanceof List) {
+			List<?> values = (List<?>) value;
+			value = values.isEmpty() ? null : values.get(0);
+		}
+		if (value == null || StringUtil.isEmptyAfterTrim(value.toString())) {
+			return null;
+		}
+
+		if (nextPageType == NextPageType.nextURL) {
+			return resolveURL(currentURL, value.toString().trim());
+		}
+		return setQueryParam(firstPageURL, cursorQueryParam, value.toString());
+	}
+
+	/**
+	 * Finds the URL of rel="next" link in the Link header, like: &lt;https://api.example.com/users?page=3&gt;; rel="next"
+	 */
+	private static String findNextLink(Map<String, String> headers) {
+		if (headers == null) {
+			return null;
+		}
+		for (Map.Entry<String, String> header : headers.entrySet()) {
+			if (!"Link".equalsIgnoreCase(header.getKey()) || header.getValue() == null) {
+				continue;
+			}
+			for (String link : header.getValue().split(",(?=\\s*<)")) {
+				int start = link.indexOf('<');
+				int end = link.indexOf('>', start + 1);
+				if (start < 0 || end < 0) {
+					continue;
+				}
+				for (String param : link.substring(end + 1).split(";")) {
+					String[] nameValue = param.split("=", 2);
+					if (nameValue.length == 2 && "rel".equalsIgnoreCase(nameValue[0].trim())) {
+						for (String rel : nameValue[1].trim().replace("\"", "").split("\\s+")) {
+							if ("next".equalsIgnoreCase(rel)) {
+								return link.substring(start + 1, end).trim();
+							}
+						}
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	private String resolveURL(String currentURL, String link) {
+		if (link.startsWith("http://") || link.startsWith("https://")) {
+			if (baseURL != null && link.startsWith(baseURL)) {
+				String relativeURL = link.substring(baseURL.length());
+				return relativeURL.startsWith("/") || baseURL.endsWith("/") ? relativeURL : "/" + relativeURL;
+			}
+			return link;
+		}
+
+		if (link.startsWith("?")) {
+			// query only reference, not resolved correctly by URI.
+			int queryIndex = currentURL.indexOf('?');
+			return (queryIndex < 0 ? currentURL : currentURL.substring(0, queryIndex)) + link;
+		}
+		if (currentURL.startsWith("http://") || currentURL.startsWith("https://")) {
+			return URI.create(currentURL).resolve(link).toString();
+		}
+		// relative URL of the target server.
+		String resolvedURL = URI.create("http://localhost" + (currentURL.startsWith("/") ? "" : "/") + currentURL)
+				.resolve(link).toString().substring("http://localhost".length());
+		return currentURL.startsWith("/") ? resolvedURL : resolvedURL.substring(1);
+	}
+
+	private static String setQueryParam(String url, String name, String value) {
+		String fragment = "";
+		int fragmentIndex = url.indexOf('#');
+		if (fragmentIndex >= 0) {
+			fragment = url.substring(fragmentIndex);
+			url = url.substring(0, fragmentIndex);
+		}
+
+		String param = name + "=" + URLEncoder.encode(value, StandardCharsets.UTF_8);
+		int queryIndex = url.indexOf('?');
+		if (queryIndex < 0) {
+			return url + "?" + param + fragment;
+		}
+
+		StringBuilder newURL = new StringBuilder(url.substring(0, queryIndex + 1));
+		boolean replaced = false;
+		for (String queryParam : url.substring(queryIndex + 1).split("&")) {
+			if (queryParam.isEmpty()) {
+				continue;
+			}
+			if (newURL.charAt(newURL.length() - 1) != '?') {
+				newURL.append('&');
+			}
+			if (queryParam.equals(name) || queryParam.startsWith(name + "=")) {
+				newURL.append(param);
+				replaced = true;
+			} else {
+				newURL.append(queryParam);
+			}
+		}
+		if (!replaced) {
+			newURL.append(newURL.charAt(newURL.length() - 1) == '?' ? "" : "&").append(param);
+		}
+		return newURL.append(fragment).toString();
+	}
+
+	private static class Page {
+		private String url;
+		private HttpResponse response;
+		private String nextURL;
+		private Throwable error;
+
+		private Page(String url) {
+			this.url = url;
+		}
+	}
+}
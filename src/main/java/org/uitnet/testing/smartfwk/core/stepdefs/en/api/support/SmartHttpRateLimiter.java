@@ -0,0 +1,247 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.uitnet.testing.smartfwk.api.core.support.HttpResponse;
+import org.uitnet.testing.smartfwk.ui.core.utils.StringUtil;
+
+/**
+ * Token bucket rate limiter of the requests made on the target server. The bucket is refilled at the configured
+ * rate and holds up to burst tokens, each request takes one token and waits if the bucket is empty. Waiting
+ * requests are served in their arrival order (fair queuing), so no scenario thread starves.
+ *
+ * If honorRetryAfter is enabled then the 429 (Too Many Requests) and 503 (Service Unavailable) responses with
+ * Retry-After header pause all the requests of the target server till the time specified by the server (but not
+ * longer than maxRetryAfterInSeconds).
+ *
+ * Rate limiting is disabled by default and it is enabled for the target server in the apiStepDefs section of
+ * ApiConfig.yaml file in the format given below:
+ * <blockquote><pre>
+ * apiStepDefs:
+ *   targetServers:
+ *     MyServer:
+ *       rateLimit:
+ *         requestsPerSecond: 20
+ *         burst: 5
+ *         honorRetryAfter: true
+ *         maxRetryAfterInSeconds: 60
+ * </pre></blockquote>
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartHttpRateLimiter {
+	private static final Map<String, SmartHttpRateLimiter> limitersByTargetServer = new ConcurrentHashMap<>();
+
+	private boolean enabled;
+	private double requestsPerSecond;
+	private int burst;
+	private boolean honorRetryAfter;
+	private int maxRetryAfterInSeconds;
+
+	private long intervalInNanos;
+	private long burstToleranceInNanos;
+	private ReentrantLock lock = new ReentrantLock(true);
+	// theoretical arrival time of the next request.
+	private long nextArrivalTime;
+	private long pausedTill;
+	private boolean paused;
+
+	private long requests;
+	private long throttledRequests;
+	private long retryAfterPauses;
+	private SmartLatencyHistogram throttledWaitTimeHistogram = new SmartLatencyHistogram();
+
+	SmartHttpRateLimiter(SmartApiTargetServerConfig config) {
+		Number rate = config.getValue("rateLimit.requestsPerSecond", Number.class, 0);
+		requestsPerSecond = rate.doubleValue();
+		enabled = requestsPerSecond > 0;
+		burst = Math.max(1, config.getValue("rateLimit.burst", Integer.class, 1));
+		honorRetryAfter = config.getValue("rateLimit.honorRetryAfter", Boolean.class, false);
+		maxRetryAfterInSeconds = config.getValue("rateLimit.maxRetryAfterInSeconds", Integer.class, 60);
+
+		if (enabled) {
+			intervalInNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+			burstToleranceInNanos = intervalInNanos * (burst - 1);
+		}
+		nextArrivalTime = System.nanoTime();
+	}
+
+	/**
+	 * Returns the rate limiter of the specified target server.
+	 *
+	 * @param appName - the configured application name.
+	 * @param targetServer - the API target server name that is configured in ApiConfig.yaml file.
+	 * @return the rate limiter.
+	 */
+	public static SmartHttpRateLimiter getInstance(String appName, String targetServer) {
+		return limitersByTargetServer.computeIfAbsent(appName + ":" + targetServer,
+				k -> new SmartHttpRateLimiter(SmartApiTargetServerConfig.getInstance(appName, targetServer)));
+	}
+
+	/**
+	 * Returns true if the requests are rate limited or the Retry-After header is honored.
+	 *
+	 * @return true if enabled.
+	 */
+	public boolean isEnabled() {
+		return enabled || honorRetryAfter;
+	}
+
+	/**
+	 * Takes the token, waits till the token is available. Waiting requests get the token in their arrival order.
+	 *
+	 * @return the time waited in nanoseconds.
+	 * @throws InterruptedException if the current thread is interrupted while waiting.
+	 */
+	public long acquire() throws InterruptedException {
+		if (!isEnabled()) {
+			return 0;
+		}
+
+		long waitTimeInNanos;
+		lock.lock();
+		try {
+			long now = System.nanoTime();
+			long startTime = paused && pausedTill - now > 0 ? pausedTill : now;
+			waitTimeInNanos = startTime - now;
+			if (enabled) {
+				if (nextArrivalTime - startTime < 0) {
+					nextArrivalTime = startTime;
+				}
+				waitTimeInNanos = Math.max(waitTimeInNanos, nextArrivalTime - burstToleranceInNanos - now);
+				nextArrivalTime += intervalInNanos;
+			}
+
+			requests++;
+			if (waitTimeInNanos > 0) {
+				throttledRequests++;
+				throttledWaitTimeHistogram.recordValue(waitTimeInNanos / 1000);
+			}
+		} finally {
+			lock.unlock();
+		}
+
+		if (waitTimeInNanos > 0) {
+			TimeUnit.NANOSECONDS.sleep(waitTimeInNanos);
+		}
+		return Math.max(0, waitTimeInNanos);
+	}
+
+	/**
+	 * Pauses the requests if the response is 429 (Too Many Requests) or 503 (Service Unavailable) and it contains
+	 * Retry-After header. Has no effect if honorRetryAfter is disabled.
+	 *
+	 * @param httpResponse - the HTTP response, may be null.
+	 */
+	public void onResponse(HttpResponse httpResponse) {
+		if (!honorRetryAfter || httpResponse == null || httpResponse.getHeaders() == null) {
+			return;
+		}
+		for (Map.Entry<String, String> header : httpResponse.getHeaders().entrySet()) {
+			if ("Retry-After".equalsIgnoreCase(header.getKey())) {
+				onResponse(httpResponse.getCode(), header.getValue());
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Pauses the requests if the response is 429 (Too Many Requests) or 503 (Service Unavailable) and it contains
+	 * Retry-After header. Has no effect if honorRetryAfter is disabled.
+	 *
+	 * @param responseCode - the HTTP response code.
+	 * @param retryAfter - the value of Retry-After header (delay in seconds or HTTP date), may be null.
+	 */
+	public void onResponse(int responseCode, String retryAfter) {
+		if (!honorRetryAfter || (responseCode != 429 && responseCode != 503) || StringUtil.isEmptyAfterTrim(retryAfter)) {
+			return;
+		}
+
+		long delayInMillis = parseRetryAfterInMillis(retryAfter.trim());
+		if (delayInMillis <= 0) {
+			return;
+		}
+		delayInMillis = Math.min(delayInMillis, TimeUnit.SECONDS.toMillis(maxRetryAfterInSeconds));
+
+		lock.lock();
+		try {
+			long till = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayInMillis);
+			if (!paused || till - pausedTill > 0) {
+				pausedTill = till;
+				paused = true;
+			}
+			retryAfterPauses++;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the metrics in the format given below (time is in milliseconds):
+	 * <blockquote><pre>
+	 * {
+	 *   enabled: true, requestsPerSecond: 20.0, burst: 5, honorRetryAfter: true, requests: 200, throttledRequests: 150,
+	 *   retryAfterPauses: 1, throttledWaitTime: { min: 0.1, mean: 40.2, max: 2000.5, p50: 45, p90: 50, p95: 50, p99: 60, p999: 2000.5 }
+	 * }
+	 * </pre></blockquote>
+	 *
+	 * @return the metrics.
+	 */
+	public Map<String, Object> getMetrics() {
+		Map<String, Object> metrics = new LinkedHashMap<>();
+		metrics.put("enabled", enabled);
+		metrics.put("requestsPerSecond", requestsPerSecond);
+		metrics.put("burst", burst);
+		metrics.put("honorRetryAfter", honorRetryAfter);
+		lock.lock();
+		try {
+			metrics.put("requests", requests);
+			metrics.put("throttledRequests", throttledRequests);
+			metrics.put("retryAfterPauses", retryAfterPauses);
+			metrics.put("throttledWaitTime", SmartHttpLoadGenerator.toLatencyInfo(throttledWaitTimeHistogram));
+		} finally {
+			lock.unlock();
+		}
+		return metrics;
+	}
+
+	private static long parseRetryAfterInMillis(String retryAfter) {
+		try {
+			return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter));
+		} catch (NumberFormatException ex) {
+			// not delay in seconds, try HTTP date.
+		}
+
+		try {
+			ZonedDateTime time = ZonedDateTime.parse(retryAfter, DateTimeFormatter.RFC_1123_DATE_TIME);
+			return time.toInstant().toEpochMilli() - System.currentTimeMillis();
+		} catch (DateTimeParseException ex) {
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,354 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.uitnet.testing.smartfwk.api.core.support.HttpResponse;
+import org.uitnet.testing.smartfwk.ui.core.commons.Locations;
+import org.uitnet.testing.smartfwk.ui.core.utils.JsonYamlUtil;
+import org.uitnet.testing.smartfwk.ui.core.utils.StringUtil;
+
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+
+/**
+ * Records the HTTP responses of the target server on the disk and replays them later without making the network
+ * call. Each response is stored into a separate gzipped JSON file whose name is the SHA-256 hash of the request key.
+ * The request key is made of user profile, HTTP method, resolved URL, the request headers listed in keyHeaders
+ * (names are case insensitive) and SHA-256 hash of the request body.
+ *
+ * The record / replay mode is configured for the target server in the apiStepDefs section of ApiConfig.yaml file
+ * in the format given below:
+ * <blockquote><pre>
+ * apiStepDefs:
+ *   targetServers:
+ *     MyServer:
+ *       recordReplay:
+ *         mode: replay                             # off, record, replay, replayOrRecord
+ *         storeDir: "test-data/api-recordings"     # relative to project directory
+ *         keyHeaders: ["Accept", "Content-Type"]
+ *         cacheSizeInBytes: 8388608                # recently used recordings kept in memory, 0 to always read the file
+ * </pre></blockquote>
+ *
+ * The mode of all the target servers can be overridden using "smartfwk.api.recordReplayMode" system property.
+ * Recordings are stored into &lt;storeDir&gt;/&lt;AppName&gt;/&lt;TargetServer&gt; directory. Recently used recordings are
+ * kept in memory in a least recently used cache bounded by cacheSizeInBytes (approximate size of the payloads, default
+ * is 8 MB), the other recordings are read from the file on each lookup. Missing recordings are never cached, so the
+ * recordings added later on the disk are found.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartHttpRecordReplayStore {
+	public static final String MODE_SYSTEM_PROPERTY = "smartfwk.api.recordReplayMode";
+
+	private static final List<String> DEFAULT_KEY_HEADERS = Arrays.asList("Accept", "Content-Type");
+	private static final long DEFAULT_CACHE_SIZE_IN_BYTES = 8 * 1024 * 1024;
+	private static final Map<String, SmartHttpRecordReplayStore> storesByTargetServer = new ConcurrentHashMap<>();
+
+	private Mode mode;
+	private Path storeDir;
+	private TreeSet<String> keyHeaders;
+	private long maxCacheSizeInBytes;
+	private long cacheSizeInBytes;
+	private LinkedHashMap<String, RecordedResponse> responses;
+
+	public enum Mode {
+		off, record, replay, replayOrRecord;
+
+		public static Mode valueOf2(String mode) {
+			if (StringUtil.isEmptyAfterTrim(mode)) {
+				return off;
+			}
+			for (Mode m : values()) {
+				if (m.name().equalsIgnoreCase(mode.trim())) {
+					return m;
+				}
+			}
+			throw new IllegalArgumentException("Record / replay mode '" + mode + "' is not supported. Valid values are: "
+					+ Arrays.toString(values()));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private SmartHttpRecordReplayStore(SmartApiTargetServerConfig config) {
+		String modeName = System.getProperty(MODE_SYSTEM_PROPERTY);
+		if (StringUtil.isEmptyAfterTrim(modeName)) {
+			modeName = config.getValue("recordReplay.mode", String.class, null);
+		}
+		mode = Mode.valueOf2(modeName);
+
+		String dir = config.getValue("recordReplay.storeDir", String.class, "test-data/api-recordings");
+		storeDir = new File(Locations.getProjectRootDir() + File.separator + dir + File.separator + config.getAppName()
+				+ File.separator + config.getTargetServer()).toPath();
+
+		keyHeaders = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+		keyHeaders.addAll(config.getValue("recordReplay.keyHeaders", List.class, DEFAULT_KEY_HEADERS));
+
+		maxCacheSizeInBytes = config.getValue("recordReplay.cacheSizeInBytes", Number.class, DEFAULT_CACHE_SIZE_IN_BYTES)
+				.longValue();
+		responses = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	/**
+	 * Returns the store of the specified target server.
+	 *
+	 * @param appName - the configured application name.
+	 * @param targetServer - the API target server name that is configured in ApiConfig.yaml file.
+	 * @return the store.
+	 */
+	public static SmartHttpRecordReplayStore getInstance(String appName, String targetServer) {
+		return storesByTargetServer.computeIfAbsent(appName + ":" + targetServer,
+				k -> new SmartHttpRecordReplayStore(SmartApiTargetServerConfig.getInstance(appName, targetServer)));
+	}
+
+	public Mode getMode() {
+		return mode;
+	}
+
+	public boolean isReplayEnabled() {
+		return mode == Mode.replay || mode == Mode.replayOrRecord;
+	}
+
+	public boolean isRecordEnabled() {
+		return mode == Mode.record || mode == Mode.replayOrRecord;
+	}
+
+	public Path getStoreDir() {
+		return storeDir;
+	}
+
+	/**
+	 * Prepares the request key.
+	 *
+	 * @param userProfile - the user profile used to login on the target server.
+	 * @param method - the HTTP method name.
+	 * @param targetURL - the resolved target URL.
+	 * @param headers - the request headers.
+	 * @param payload - the request body, may be null.
+	 * @return the request key.
+	 */
+	public String getRequestKey(String userProfile, String method, String targetURL, Map<String, String> headers,
+			String payload) {
+		StringBuilder key = new StringBuilder();
+		key.append(userProfile).append('\n').append(method.trim().toUpperCase()).append('\n').append(targetURL.trim());
+		if (headers != null) {
+			Map<String, String> sortedHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+			for (Map.Entry<String, String> header : headers.entrySet()) {
+				if (keyHeaders.contains(header.getKey())) {
+					sortedHeaders.put(header.getKey(), header.getValue() == null ? "" : header.getValue().trim());
+				}
+			}
+			for (Map.Entry<String, String> header : sortedHeaders.entrySet()) {
+				key.append('\n').append(header.getKey().toLowerCase()).append(':').append(header.getValue());
+			}
+		}
+		key.append('\n').append(payload == null ? "" : sha256(payload));
+		return key.toString();
+	}
+
+	/**
+	 * Returns the recorded response of the request. Recording is read from the disk if it is not found in the cache of
+	 * the recently used recordings.
+	 *
+	 * @param requestKey - the request key.
+	 * @return the new HTTP response object prepared from the recording, null if the request is not recorded.
+	 */
+	public HttpResponse lookup(String requestKey) {
+		RecordedResponse recordedResponse;
+		synchronized (responses) {
+			recordedResponse = responses.get(requestKey);
+		}
+		if (recordedResponse == null) {
+			recordedResponse = load(requestKey);
+			if (recordedResponse == null) {
+				return null;
+			}
+			cache(requestKey, recordedResponse);
+		}
+		return recordedResponse.toHttpResponse();
+	}
+
+	/**
+	 * Stores the response of the request on the disk.
+	 *
+	 * @param requestKey - the request key.
+	 * @param httpResponse - the HTTP response.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public void record(String requestKey, HttpResponse httpResponse) throws IOException {
+		RecordedResponse recordedResponse = new RecordedResponse(httpResponse);
+
+		Map<String, Object> responseInfo = new LinkedHashMap<>();
+		responseInfo.put("code", recordedResponse.code);
+		responseInfo.put("message", recordedResponse.message);
+		responseInfo.put("headers", recordedResponse.headers);
+		responseInfo.put("payloadType", recordedResponse.payloadType);
+		responseInfo.put("payload", recordedResponse.payload);
+
+		Map<String, Object> recording = new LinkedHashMap<>();
+		recording.put("requestKey", requestKey);
+		recording.put("recordedAt", System.currentTimeMillis());
+		recording.put("response", responseInfo);
+
+		Files.createDirectories(storeDir);
+		Path file = getFile(requestKey);
+		Path tempFile = Files.createTempFile(storeDir, ".recording-", ".tmp");
+		try {
+			try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tempFile))) {
+				out.write(JsonPath.parse(recording).jsonString().getBytes(StandardCharsets.UTF_8));
+			}
+			Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+		cache(requestKey, recordedResponse);
+	}
+
+	/**
+	 * Puts the recording into the cache and evicts the least recently used recordings till the cache size is within the
+	 * limit. Recording larger than the limit is not cached.
+	 */
+	private void cache(String requestKey, RecordedResponse recordedResponse) {
+		long size = recordedResponse.getSizeInBytes();
+		synchronized (responses) {
+			RecordedResponse oldResponse = responses.remove(requestKey);
+			if (oldResponse != null) {
+				cacheSizeInBytes -= oldResponse.getSizeInBytes();
+			}
+			if (size > maxCacheSizeInBytes) {
+				return;
+			}
+
+			responses.put(requestKey, recordedResponse);
+			cacheSizeInBytes += size;
+			Iterator<RecordedResponse> iter = responses.values().iterator();
+			while (cacheSizeInBytes > maxCacheSizeInBytes && iter.hasNext()) {
+				cacheSizeInBytes -= iter.next().getSizeInBytes();
+				iter.remove();
+			}
+		}
+	}
+
+	private RecordedResponse load(String requestKey) {
+		Path file = getFile(requestKey);
+		if (!Files.exists(file)) {
+			return null;
+		}
+
+		String json;
+		try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+			json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		} catch (IOException ex) {
+			throw new IllegalStateException("Failed to read '" + file + "' recording file.", ex);
+		}
+
+		DocumentContext recording = JsonPath.parse(json);
+		if (!requestKey.equals(JsonYamlUtil.readNoException("$.requestKey", String.class, recording))) {
+			// hash collision, treat as not recorded.
+			return null;
+		}
+		return new RecordedResponse(recording);
+	}
+
+	private Path getFile(String requestKey) {
+		return storeDir.resolve(sha256(requestKey) + ".json.gz");
+	}
+
+	private static String sha256(String text) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+			StringBuilder hex = new StringBuilder(digest.length * 2);
+			for (byte b : digest) {
+				hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return hex.toString();
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException("SHA-256 algorithm not found.", ex);
+		}
+	}
+
+	private static class RecordedResponse {
+		private int code;
+		private String message;
+		private Map<String, String> headers;
+		private String payloadType;
+		private String payload;
+
+		private RecordedResponse(HttpResponse httpResponse) {
+			code = httpResponse.getCode();
+			message = httpResponse.getMessage();
+			headers = httpResponse.getHeaders() == null ? new LinkedHashMap<>()
+					: new LinkedHashMap<>(httpResponse.getHeaders());
+			payloadType = httpResponse.getPayloadType();
+			payload = httpResponse.getPayload();
+		}
+
+		@SuppressWarnings("unchecked")
+		private RecordedResponse(DocumentContext recording) {
+			Integer responseCode = JsonYamlUtil.readNoException("$.response.code", Integer.class, recording);
+			code = responseCode == null ? 0 : responseCode;
+			message = JsonYamlUtil.readNoException("$.response.message", String.class, recording);
+			Map<String, String> recordedHeaders = JsonYamlUtil.readNoException("$.response.headers", Map.class, recording);
+			headers = recordedHeaders == null ? new LinkedHashMap<>() : new LinkedHashMap<>(recordedHeaders);
+			payloadType = JsonYamlUtil.readNoException("$.response.payloadType", String.class, recording);
+			payload = JsonYamlUtil.readNoException("$.response.payload", String.class, recording);
+		}
+
+		/**
+		 * Returns the approximate size (2 bytes per character) of the recording.
+		 */
+		private long getSizeInBytes() {
+			long size = 2L * ((payload == null ? 0 : payload.length()) + (message == null ? 0 : message.length()));
+			for (Map.Entry<String, String> header : headers.entrySet()) {
+				size += 2L * ((header.getKey() == null ? 0 : header.getKey().length()) + (header.getValue() == null ? 0 : header.getValue().length()));
+			}
+			return size;
+		}
+
+		private HttpResponse toHttpResponse() {
+			HttpResponse httpResponse = new HttpResponse();
+			httpResponse.setCode(code);
+			httpResponse.setMessage(message);
+			httpResponse.setHeaders(new LinkedHashMap<>(headers));
+			httpResponse.setPayloadType(payloadType);
+			httpResponse.setPayload(payload);
+			return httpResponse;
+		}
+	}
+}
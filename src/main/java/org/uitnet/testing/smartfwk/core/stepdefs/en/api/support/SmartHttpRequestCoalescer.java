@@ -0,0 +1,212 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+import org.uitnet.testing.smartfwk.api.core.support.HttpResponse;
+import org.uitnet.testing.smartfwk.ui.core.utils.StringUtil;
+
+/**
+ * Collapses the identical HTTP GET requests that are in progress at the same time (like the requests made by the
+ * parallel scenarios on configuration or lookup endpoints) into one network call. The first request makes the
+ * network call and the other requests wait for its response. Each request gets its own copy of the response.
+ *
+ * Requests are identical if the application name, target server, user profile, target URL and the request headers
+ * (like Accept) are same. Only the requests in progress are collapsed, the responses are not cached.
+ *
+ * Request coalescing is disabled by default and it is enabled for the target server in the apiStepDefs section
+ * of ApiConfig.yaml file in the format given below:
+ * <blockquote><pre>
+ * apiStepDefs:
+ *   targetServers:
+ *     MyServer:
+ *       requestCoalescing:
+ *         enabled: true
+ * </pre></blockquote>
+ *
+ * It can be enabled / disabled for all the target servers using "smartfwk.api.requestCoalescing" system property.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartHttpRequestCoalescer {
+	public static final String ENABLED_SYSTEM_PROPERTY = "smartfwk.api.requestCoalescing";
+
+	private static final Map<String, SmartHttpRequestCoalescer> coalescersByTargetServer = new ConcurrentHashMap<>();
+
+	private boolean enabled;
+	private Map<String, InFlightRequest> inFlightRequests;
+	private long requests;
+	private long networkCalls;
+	private long maxCollapsedRequests;
+
+	SmartHttpRequestCoalescer(SmartApiTargetServerConfig config) {
+		String enabledValue = System.getProperty(ENABLED_SYSTEM_PROPERTY);
+		if (StringUtil.isEmptyAfterTrim(enabledValue)) {
+			enabled = config.getValue("requestCoalescing.enabled", Boolean.class, false);
+		} else {
+			enabled = "true".equalsIgnoreCase(enabledValue.trim()) || "yes".equalsIgnoreCase(enabledValue.trim());
+		}
+		inFlightRequests = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Returns the coalescer of the specified target server.
+	 *
+	 * @param appName - the configured application name.
+	 * @param targetServer - the API target server name that is configured in ApiConfig.yaml file.
+	 * @return the coalescer.
+	 */
+	public static SmartHttpRequestCoalescer getInstance(String appName, String targetServer) {
+		return coalescersByTargetServer.computeIfAbsent(appName + ":" + targetServer,
+				k -> new SmartHttpRequestCoalescer(SmartApiTargetServerConfig.getInstance(appName, targetServer)));
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Prepares the request key.
+	 *
+	 * @param userProfile - the user profile used to login on the target server.
+	 * @param targetURL - the resolved target URL.
+	 * @param headers - the request headers, may be null.
+	 * @return the request key.
+	 */
+	public static String getRequestKey(String userProfile, String targetURL, Map<String, String> headers) {
+		StringBuilder key = new StringBuilder();
+		key.append(userProfile).append('\n').append(targetURL.trim());
+		if (headers != null) {
+			Map<String, String> sortedHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+			sortedHeaders.putAll(headers);
+			for (Map.Entry<String, String> header : sortedHeaders.entrySet()) {
+				key.append('\n').append(header.getKey().toLowerCase()).append(':').append(header.getValue());
+			}
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Executes the request or waits for the identical request that is already in progress.
+	 *
+	 * @param requestKey - the request key, please refer {@link #getRequestKey(String, String, Map)} method.
+	 * @param networkCall - makes the network call.
+	 * @param timing - the timing of the request, the wait time is recorded as queue wait if the request is collapsed.
+	 * @return the HTTP response, the copy of the response if the request is collapsed.
+	 */
+	public HttpResponse execute(String requestKey, Supplier<HttpResponse> networkCall, SmartHttpTiming timing) {
+		InFlightRequest newRequest = new InFlightRequest();
+		InFlightRequest inFlightRequest;
+		synchronized (this) {
+			requests++;
+			inFlightRequest = inFlightRequests.putIfAbsent(requestKey, newRequest);
+			if (inFlightRequest == null) {
+				networkCalls++;
+			} else {
+				inFlightRequest.collapsedRequests++;
+				maxCollapsedRequests = Math.max(maxCollapsedRequests, inFlightRequest.collapsedRequests);
+			}
+		}
+
+		if (inFlightRequest != null) {
+			long startTime = System.nanoTime();
+			HttpResponse httpResponse = copyOf(inFlightRequest.await());
+			timing.setSource("coalesced");
+			timing.addQueueWait(System.nanoTime() - startTime);
+			return httpResponse;
+		}
+
+		try {
+			HttpResponse httpResponse = networkCall.get();
+			// waiting requests get the copy of the response as it is now, before the caller gets a chance to update it.
+			newRequest.response.complete(httpResponse == null ? null : copyOf(httpResponse));
+			return httpResponse;
+		} catch (RuntimeException | Error ex) {
+			newRequest.response.completeExceptionally(ex);
+			throw ex;
+		} finally {
+			inFlightRequests.remove(requestKey, newRequest);
+		}
+	}
+
+	/**
+	 * Returns the statistics in the format given below:
+	 * <blockquote><pre>
+	 *   { enabled: true, requests: 100, networkCalls: 10, collapsedRequests: 90, collapseRatio: 10.0, maxCollapsedRequests: 15 }
+	 * </pre></blockquote>
+	 *
+	 * Where collapseRatio is the number of requests per network call and maxCollapsedRequests is the maximum number of
+	 * requests that waited for the same network call.
+	 *
+	 * @return the statistics.
+	 */
+	public synchronized Map<String, Object> getStatistics() {
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("enabled", enabled);
+		stats.put("requests", requests);
+		stats.put("networkCalls", networkCalls);
+		stats.put("collapsedRequests", requests - networkCalls);
+		stats.put("collapseRatio", networkCalls == 0 ? 0.0 : Math.round(requests * 100.0 / networkCalls) / 100.0);
+		stats.put("maxCollapsedRequests", maxCollapsedRequests);
+		return stats;
+	}
+
+	private static HttpResponse copyOf(HttpResponse httpResponse) {
+		if (httpResponse == null) {
+			return null;
+		}
+		HttpResponse copy = new HttpResponse();
+		copy.setCode(httpResponse.getCode());
+		copy.setMessage(httpResponse.getMessage());
+		copy.setHeaders(httpResponse.getHeaders() == null ? new LinkedHashMap<>()
+				: new LinkedHashMap<>(httpResponse.getHeaders()));
+		copy.setPayloadType(httpResponse.getPayloadType());
+		copy.setPayload(httpResponse.getPayload());
+		return copy;
+	}
+
+	private static class InFlightRequest {
+		private CompletableFuture<HttpResponse> response = new CompletableFuture<>();
+		private long collapsedRequests;
+
+		private HttpResponse await() {
+			try {
+				return response.get();
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for the response of identical request.", ex);
+			} catch (ExecutionException ex) {
+				Throwable cause = ex.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				} else if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new IllegalStateException("Identical request failed.", cause);
+			}
+		}
+	}
+}
@@ -0,0 +1,287 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.testng.Assert;
+import org.uitnet.testing.smartfwk.api.core.AbstractApiActionHandler;
+import org.uitnet.testing.smartfwk.api.core.support.HttpMultipartFileRequest;
+import org.uitnet.testing.smartfwk.api.core.support.HttpMultipartFormRequest;
+import org.uitnet.testing.smartfwk.api.core.support.HttpRequest;
+import org.uitnet.testing.smartfwk.api.core.support.HttpResponse;
+
+/**
+ * Executes the HTTP request using the API action handler based on the HTTP method name.
+ * Valid method names are: GET, POST, PUT, DELETE, HEAD. Multipart requests (upload files / multipart form data)
+ * are executed using POST or PUT method.
+ *
+ * The HTTP steps execute the requests through this class, so that the responses can be recorded and
+ * replayed, please refer {@link SmartHttpRecordReplayStore} class, the identical GET requests in progress can
+ * be collapsed into one network call, please refer {@link SmartHttpRequestCoalescer} class, and the requests failed due
+ * to the transient errors can be retried, please refer {@link SmartHttpRetryPolicy} class.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartHttpRequestExecutor {
+
+	private SmartHttpRequestExecutor() {
+		// do nothing
+	}
+
+	/**
+	 * Makes the network call of the HTTP request using the handler. It is used by the other methods only, so that each
+	 * request goes through the rate limit, retry, session cache, record / replay and connection pool settings.
+	 */
+	private static HttpResponse execute(AbstractApiActionHandler handler, String method, String targetURL,
+			HttpRequest httpRequest) {
+		String methodName = method == null ? "" : method.trim().toUpperCase();
+		switch (methodName) {
+		case "GET":
+			return handler.httpGet(targetURL, httpRequest.getHeaders(), null, null);
+		case "POST":
+			return handler.httpPost(targetURL, httpRequest, null, null);
+		case "PUT":
+			return handler.httpPut(targetURL, httpRequest, null, null);
+		case "DELETE":
+			return handler.httpDelete(targetURL, httpRequest.getHeaders(), null, null);
+		case "HEAD":
+			return handler.httpHead(targetURL, httpRequest.getHeaders(), null, null);
+		default:
+			Assert.fail("HTTP method '" + method + "' is not supported. Valid values are: GET, POST, PUT, DELETE, HEAD.");
+		}
+		return null;
+	}
+
+	/**
+	 * Executes the HTTP request on the target server. If the replay mode is enabled for the target server then
+	 * the recorded response is returned without making the network call (and without login on the target server).
+	 * If the record mode is enabled then the response is recorded. If request coalescing is enabled then the GET request
+	 * waits for the identical GET request that is already in progress instead of making the network call.
+	 * 
+	 * The network calls are rate limited as per the rate limit settings of the target server, please refer
+	 * {@link SmartHttpRateLimiter} class, and retried as per the retry policy of the target server (or the retry headers
+	 * of the request), please refer {@link SmartHttpRetryPolicy} class. The timing of the request (including the attempts)
+	 * is attached to the response, please refer {@link SmartHttpTiming} class.
+	 *
+	 * @param appName - the configured application name.
+	 * @param targetServer - the API target server name that is configured in ApiConfig.yaml file.
+	 * @param userProfile - the name of the user profile used to login on target server.
+	 * @param handlerSupplier - supplies the API action handler of the target server, called only if the network call is made.
+	 * @param method - the HTTP method name. Valid values are: GET, POST, PUT, DELETE, HEAD
+	 * @param targetURL - the target URL (variables must be applied already).
+	 * @param httpRequest - the HTTP request that contains header and payload information.
+	 * @return the HTTP response.
+	 */
+	public static HttpResponse execute(String appName, String targetServer, String userProfile,
+			Supplier<AbstractApiActionHandler> handlerSupplier, String method, String targetURL, HttpRequest httpRequest) {
+		return execute(appName, targetServer, userProfile, call -> call.apply(handlerSupplier.get()), method, targetURL,
+				httpRequest.getHeaders(), httpRequest::getPayload, handler -> execute(handler, method, targetURL, httpRequest));
+	}
+
+	/**
+	 * Executes the HTTP request on the target server the same way as
+	 * {@link #execute(String, String, String, Supplier, String, String, HttpRequest)}, the network call uses the handler
+	 * borrowed from the handler pool. It is used when the requests are sent from more than one thread at a time.
+	 *
+	 * @param appName - the configured application name.
+	 * @param targetServer - the API target server name that is configured in ApiConfig.yaml file.
+	 * @param userProfile - the name of the user profile used to login on target server.
+	 * @param handlerPool - the pool of the API action handlers of the user profile, used only if the network call is made.
+	 * @param method - the HTTP method name. Valid values are: GET, POST, PUT, DELETE, HEAD
+	 * @param targetURL - the target URL (variables must be applied already).
+	 * @param httpRequest - the HTTP request that contains header and payload information.
+	 * @return the HTTP response.
+	 */
+	public static HttpResponse execute(String appName, String targetServer, String userProfile,
+			SmartApiActionHandlerPool handlerPool, String method, String targetURL, HttpRequest httpRequest) {
+		return execute(appName, targetServer, userProfile, handlerPool::execute, method, targetURL,
+				httpRequest.getHeaders(), httpRequest::getPayload, handler -> execute(handler, method, targetURL, httpRequest));
+	}
+
+	/**
+	 * Uploads the files on the target server, the same way as {@link #execute(String, String, String, Supplier, String, String, HttpRequest)}
+	 * executes the HTTP request.
+	 *
+	 * @param appName - the configured application name.
+	 * @param targetServer - the API target server name that is configured in ApiConfig.yaml file.
+	 * @param userProfile - the name of the user profile used to login on target server.
+	 * @param handlerSupplier - supplies the API action handler of the target server, called only if the network call is made.
+	 * @param method - the HTTP method name. Valid values are: POST, PUT
+	 * @param targetURL - the target URL (variables must be applied already).
+	 * @param httpRequest - the multipart request that contains header and files information.
+	 * @param bodyKey - describes the files, used to prepare the record / replay key of the request.
+	 * @return the HTTP response.
+	 */
+	public static HttpResponse executeUpload(String appName, String targetServer, String userProfile,
+			Supplier<AbstractApiActionHandler> handlerSupplier, String method, String targetURL,
+			HttpMultipartFileRequest httpRequest, SmartMultipartBodyKey bodyKey) {
+		boolean put = isPut(method);
+		return execute(appName, targetServer, userProfile, call -> call.apply(handlerSupplier.get()), method, targetURL,
+				httpRequest.getHeaders(), bodyKey::getKey,
+				handler -> handler.httpUploadFormFiles(targetURL, httpRequest, null, null, put));
+	}
+
+	/**
+	 * Sends the multipart form data on the target server, the same way as 
+	 * {@link #execute(String, String, String, Supplier, String, String, HttpRequest)} executes the HTTP request.
+	 *
+	 * @param appName - the configured application name.
+	 * @param targetServer - the API target server name that is configured in ApiConfig.yaml file.
+	 * @param userProfile - the name of the user profile used to login on target server.
+	 * @param handlerSupplier - supplies the API action handler of the target server, called only if the network call is made.
+	 * @param method - the HTTP method name. Valid values are: POST, PUT
+	 * @param targetURL - the target URL (variables must be applied already).
+	 * @param httpRequest - the multipart request that contains header and parts information.
+	 * @param bodyKey - describes the parts, used to prepare the record / replay key of the request.
+	 * @return the HTTP response.
+	 */
+	public static HttpResponse executeUpload(String appName, String targetServer, String userProfile,
+			Supplier<AbstractApiActionHandler> handlerSupplier, String method, String targetURL,
+			HttpMultipartFormRequest httpRequest, SmartMultipartBodyKey bodyKey) {
+		boolean put = isPut(method);
+		return execute(appName, targetServer, userProfile, call -> call.apply(handlerSupplier.get()), method, targetURL,
+				httpRequest.getHeaders(), bodyKey::getKey,
+				handler -> handler.httpUploadMultipartFormData(targetURL, httpRequest, null, null, put));
+	}
+
+	private static boolean isPut(String method) {
+		String methodName = method == null ? "" : method.trim().toUpperCase();
+		if (!"POST".equals(methodName) && !"PUT".equals(methodName)) {
+			Assert.fail("HTTP method '" + method + "' is not supported for multipart request. Valid values are: POST, PUT.");
+		}
+		return "PUT".equals(methodName);
+	}
+
+	private static HttpResponse execute(String appName, String targetServer, String userProfile,
+			HandlerProvider handlerProvider, String method, String targetURL, Map<String, String> headers,
+			Supplier<String> payloadSupplier, Function<AbstractApiActionHandler, HttpResponse> call) {
+		SmartHttpTiming timing = new SmartHttpTiming();
+		// retry headers are removed before the request key is prepared.
+		SmartHttpRetryPolicy retryPolicy = null;
+		try {
+			retryPolicy = SmartHttpRetryPolicy.getInstance(appName, targetServer).forRequest(headers);
+		} catch(IllegalArgumentException ex) {
+			Assert.fail("Invalid retry header in HTTP " + method + " request on '" + targetURL + "'. " + ex.getMessage(), ex);
+		}
+		HttpResponse httpResponse = execute(appName, targetServer, userProfile, handlerProvider, method, targetURL,
+				headers, payloadSupplier, call, retryPolicy, timing);
+		SmartHttpTiming.attach(httpResponse, timing.completed());
+		return httpResponse;
+	}
+
+	private static HttpResponse execute(String appName, String targetServer, String userProfile,
+			HandlerProvider handlerProvider, String method, String targetURL, Map<String, String> headers,
+			Supplier<String> payloadSupplier, Function<AbstractApiActionHandler, HttpResponse> call,
+			SmartHttpRetryPolicy retryPolicy, SmartHttpTiming timing) {
+		SmartHttpRecordReplayStore store = SmartHttpRecordReplayStore.getInstance(appName, targetServer);
+		if (store.getMode() == SmartHttpRecordReplayStore.Mode.off) {
+			return executeOnNetwork(appName, targetServer, userProfile, handlerProvider, method, targetURL, headers, call,
+					retryPolicy, timing);
+		}
+
+		String requestKey = null;
+		try {
+			requestKey = store.getRequestKey(userProfile, method, targetURL, headers, payloadSupplier.get());
+		} catch (UncheckedIOException ex) {
+			Assert.fail("Failed to prepare the record / replay key of HTTP " + method + " request on '" + targetURL + "'.", ex);
+		}
+		if (store.isReplayEnabled()) {
+			HttpResponse httpResponse = store.lookup(requestKey);
+			if (httpResponse != null) {
+				timing.setSource("replay");
+				return httpResponse;
+			} else if (!store.isRecordEnabled()) {
+				Assert.fail("No recorded response found for HTTP " + method + " request on '" + targetURL + "' [AppName="
+						+ appName + ", TargetServer=" + targetServer + ", UserProfile=" + userProfile + "] in '"
+						+ store.getStoreDir() + "' directory.");
+			}
+		}
+
+		HttpResponse httpResponse = executeOnNetwork(appName, targetServer, userProfile, handlerProvider, method, targetURL,
+				headers, call, retryPolicy, timing);
+		if (httpResponse != null && httpResponse.getCode() != 304) {
+			// 304 is the answer of conditional request and does not contain the body, so it is never recorded.
+			try {
+				store.record(requestKey, httpResponse);
+			} catch (IOException ex) {
+				Assert.fail("Failed to record the response of HTTP " + method + " request on '" + targetURL + "'.", ex);
+			}
+		}
+		return httpResponse;
+	}
+
+	private static HttpResponse executeOnNetwork(String appName, String targetServer, String userProfile,
+			HandlerProvider handlerProvider, String method, String targetURL, Map<String, String> headers,
+			Function<AbstractApiActionHandler, HttpResponse> call, SmartHttpRetryPolicy retryPolicy, SmartHttpTiming timing) {
+		SmartHttpRateLimiter rateLimiter = SmartHttpRateLimiter.getInstance(appName, targetServer);
+		SmartHttpConnectionPool connectionPool = SmartHttpConnectionPool.getInstance(appName, targetServer);
+		SmartApiSessionCache sessionCache = SmartApiSessionCache.getInstance();
+		Supplier<HttpResponse> attemptCall = () -> {
+			long startTime = System.nanoTime();
+			Function<AbstractApiActionHandler, HttpResponse> rateLimitedCall = handler -> {
+				timing.setHandlerSetup(System.nanoTime() - startTime);
+				try {
+					timing.addQueueWait(rateLimiter.acquire());
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					Assert.fail("Interrupted while waiting for the rate limit of '" + targetServer + "' target server.", ex);
+				}
+				HttpResponse httpResponse = null;
+				try (SmartHttpConnectionPool.Lease lease = connectionPool.lease()) {
+					timing.addQueueWait(lease.getWaitTimeInNanos());
+					httpResponse = call.apply(handler);
+					lease.completed();
+				} catch (IOException ex) {
+					Assert.fail("Failed to execute HTTP " + method + " request on '" + targetURL + "'. " + ex.getMessage(), ex);
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					Assert.fail("Interrupted while waiting for the connection of '" + targetServer + "' target server.", ex);
+				}
+				rateLimiter.onResponse(httpResponse);
+				return httpResponse;
+			};
+			if (sessionCache.isEnabled(appName, targetServer, userProfile)) {
+				// cached session is owned by the session cache and shared by the scenarios.
+				return sessionCache.execute(appName, targetServer, userProfile, rateLimitedCall);
+			}
+			return handlerProvider.execute(rateLimitedCall);
+		};
+		Supplier<HttpResponse> networkCall = () -> retryPolicy.execute(method, attemptCall, timing);
+
+		SmartHttpRequestCoalescer coalescer = SmartHttpRequestCoalescer.getInstance(appName, targetServer);
+		if (!coalescer.isEnabled() || method == null || !"GET".equalsIgnoreCase(method.trim())) {
+			return networkCall.get();
+		}
+
+		String requestKey = SmartHttpRequestCoalescer.getRequestKey(userProfile, targetURL, headers);
+		return coalescer.execute(requestKey, networkCall, timing);
+	}
+
+	/**
+	 * Provides the API action handler for the network call, the call may borrow the handler only for its own duration.
+	 */
+	private interface HandlerProvider {
+		HttpResponse execute(Function<AbstractApiActionHandler, HttpResponse> call);
+	}
+}
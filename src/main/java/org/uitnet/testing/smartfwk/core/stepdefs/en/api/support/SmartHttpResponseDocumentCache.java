@@ -0,0 +1,255 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.uitnet.testing.smartfwk.api.core.reader.JsonDocumentReader;
+import org.uitnet.testing.smartfwk.api.core.reader.XmlDocumentReader;
+import org.uitnet.testing.smartfwk.api.core.support.HttpResponse;
+import org.w3c.dom.Document;
+
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.spi.json.JsonProvider;
+
+/**
+ * Caches the parsed JSON / XML document of the HTTP response stored in a response variable, so that the
+ * payload is parsed only once even if many verification steps are executed on the same response.
+ *
+ * The cached entry is bound to the HTTP response object (and its payload) stored in the variable. If the
+ * variable is reassigned then the old entry is discarded on the next lookup.
+ *
+ * The cached JSON and XML documents are shared as is (in the containers of the configured JSON provider, like
+ * json-smart JSONObject / JSONArray), so they must be used for reading only. Values that are stored into the
+ * scenario variables must be copied using {@link #copyOf(Object, Configuration)} so that the variable does not share
+ * the nodes of the cached document.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartHttpResponseDocumentCache {
+	private static final AtomicLong totalHitCount = new AtomicLong(0);
+	private static final AtomicLong totalMissCount = new AtomicLong(0);
+
+	private static volatile Configuration jsonConfiguration;
+
+	private Map<String, CachedDocument> documents;
+	private long hitCount;
+	private long missCount;
+
+	public SmartHttpResponseDocumentCache() {
+		documents = new HashMap<>();
+	}
+
+	/**
+	 * Returns the JSON document of the HTTP response payload. Returned document is shared, so it must not be updated.
+	 *
+	 * @param responseVariableName - the variable name that stores the HTTPResponse information.
+	 * @param httpResponse - the HTTP response stored in the variable.
+	 * @return the JSON document.
+	 */
+	public synchronized DocumentContext getJsonDocument(String responseVariableName, HttpResponse httpResponse) {
+		CachedDocument doc = lookup(responseVariableName, httpResponse);
+		if (doc.jsonRoot == null) {
+			missCount++;
+			totalMissCount.incrementAndGet();
+			DocumentContext parsedDoc = readJsonDocument(doc.payload, httpResponse);
+			doc.jsonConfig = parsedDoc.configuration();
+			doc.jsonRoot = parsedDoc.json();
+		} else {
+			hitCount++;
+			totalHitCount.incrementAndGet();
+		}
+		return JsonPath.using(doc.jsonConfig).parse(doc.jsonRoot);
+	}
+
+	/**
+	 * Parses the JSON document of the HTTP response payload without caching it. Spilled payload is parsed from its
+	 * temporary file, so {@link SmartSpilledHttpResponse#getPayload()} is not called.
+	 *
+	 * @param httpResponse - the HTTP response.
+	 * @return the JSON document.
+	 */
+	public static DocumentContext readJsonDocument(HttpResponse httpResponse) {
+		return readJsonDocument(null, httpResponse);
+	}
+
+	/**
+	 * Returns the configuration of the JSON documents parsed by the cache, it is the configuration used by
+	 * {@link JsonDocumentReader}.
+	 *
+	 * @return the configuration.
+	 */
+	public static Configuration getJsonConfiguration() {
+		if (jsonConfiguration == null) {
+			jsonConfiguration = new JsonDocumentReader("{}", false).getDocumentContext().configuration();
+		}
+		return jsonConfiguration;
+	}
+
+	/**
+	 * Returns the XML document of the HTTP response payload. Returned document is shared, so it must not be updated.
+	 *
+	 * @param responseVariableName - the variable name that stores the HTTPResponse information.
+	 * @param httpResponse - the HTTP response stored in the variable.
+	 * @return the XML document.
+	 */
+	public synchronized Document getXmlDocument(String responseVariableName, HttpResponse httpResponse) {
+		CachedDocument doc = lookup(responseVariableName, httpResponse);
+		if (doc.xmlDocument == null) {
+			missCount++;
+			totalMissCount.incrementAndGet();
+			doc.xmlDocument = readXmlDocument(doc.payload, httpResponse);
+		} else {
+			hitCount++;
+			totalHitCount.incrementAndGet();
+		}
+		return doc.xmlDocument;
+	}
+
+	/**
+	 * Returns true if the XML document of the HTTP response payload is already parsed and cached.
+	 *
+	 * @param responseVariableName - the variable name that stores the HTTPResponse information.
+	 * @param httpResponse - the HTTP response stored in the variable.
+	 * @return true if the XML document is cached.
+	 */
+	public synchronized boolean containsXmlDocument(String responseVariableName, HttpResponse httpResponse) {
+		CachedDocument doc = documents.get(responseVariableName);
+		if (doc == null || doc.response != httpResponse || doc.xmlDocument == null) {
+			return false;
+		}
+		return httpResponse instanceof SmartSpilledHttpResponse || doc.payload == httpResponse.getPayload();
+	}
+
+	/**
+	 * Removes the cached documents of the specified response variable.
+	 *
+	 * @param responseVariableName - the variable name that stores the HTTPResponse information.
+	 */
+	public synchronized void invalidate(String responseVariableName) {
+		documents.remove(responseVariableName);
+	}
+
+	public synchronized void clear() {
+		documents.clear();
+	}
+
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	public static long getTotalHitCount() {
+		return totalHitCount.get();
+	}
+
+	public static long getTotalMissCount() {
+		return totalMissCount.get();
+	}
+
+	/**
+	 * Returns the cache statistics of the current scenario and of all the scenarios executed so far.
+	 *
+	 * @return the statistics.
+	 */
+	public synchronized Map<String, Object> getStatistics() {
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("hitCount", hitCount);
+		stats.put("missCount", missCount);
+		stats.put("cachedResponses", documents.size());
+		stats.put("totalHitCount", totalHitCount.get());
+		stats.put("totalMissCount", totalMissCount.get());
+		return stats;
+	}
+
+	/**
+	 * Returns the deep copy of the value read from the cached JSON document. Objects and arrays are copied into the
+	 * containers created by the JSON provider of the document, so the copy is rendered as JSON text (like ["a","b"])
+	 * same as the value read from the newly parsed document. Scalar values are returned as is.
+	 *
+	 * @param value - the value read from the document.
+	 * @param configuration - the configuration of the document.
+	 * @return the copy.
+	 */
+	public static Object copyOf(Object value, Configuration configuration) {
+		JsonProvider provider = configuration.jsonProvider();
+		if (provider.isMap(value)) {
+			Object copy = provider.createMap();
+			for (String key : provider.getPropertyKeys(value)) {
+				provider.setProperty(copy, key, copyOf(provider.getMapValue(value, key), configuration));
+			}
+			return copy;
+		} else if (provider.isArray(value)) {
+			Object copy = provider.createArray();
+			int index = 0;
+			for (Object item : provider.toIterable(value)) {
+				provider.setArrayIndex(copy, index++, copyOf(item, configuration));
+			}
+			return copy;
+		}
+		return value;
+	}
+
+	private static DocumentContext readJsonDocument(String payload, HttpResponse httpResponse) {
+		if (payload == null && httpResponse instanceof SmartSpilledHttpResponse) {
+			return new JsonDocumentReader(((SmartSpilledHttpResponse) httpResponse).getPayloadFile().toFile(), false)
+					.getDocumentContext();
+		}
+		return new JsonDocumentReader(payload != null ? payload : httpResponse.getPayload(), false).getDocumentContext();
+	}
+
+	private static Document readXmlDocument(String payload, HttpResponse httpResponse) {
+		if (payload == null && httpResponse instanceof SmartSpilledHttpResponse) {
+			return new XmlDocumentReader(((SmartSpilledHttpResponse) httpResponse).getPayloadFile().toFile()).getDocument();
+		}
+		return new XmlDocumentReader(payload != null ? payload : httpResponse.getPayload()).getDocument();
+	}
+
+	private CachedDocument lookup(String responseVariableName, HttpResponse httpResponse) {
+		// spilled payload is not kept by the cache, the document is parsed from the temporary file instead.
+		String payload = httpResponse instanceof SmartSpilledHttpResponse ? null : httpResponse.getPayload();
+		CachedDocument doc = documents.get(responseVariableName);
+		if (doc == null || doc.response != httpResponse || doc.payload != payload) {
+			doc = new CachedDocument(httpResponse, payload);
+			documents.put(responseVariableName, doc);
+		}
+		return doc;
+	}
+
+	private static class CachedDocument {
+		private HttpResponse response;
+		private String payload;
+		private Object jsonRoot;
+		private Configuration jsonConfig;
+		private Document xmlDocument;
+
+		private CachedDocument(HttpResponse response, String payload) {
+			this.response = response;
+			this.payload = payload;
+		}
+	}
+}
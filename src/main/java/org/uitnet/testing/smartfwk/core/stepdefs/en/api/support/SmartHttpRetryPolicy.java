@@ -0,0 +1,301 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.uitnet.testing.smartfwk.api.core.support.HttpResponse;
+
+/**
+ * Retries the HTTP request that failed due to the transient error (like 502 / 503 response or connection reset)
+ * with exponential backoff and jitter, please refer {@link SmartBackoffPolicy} class.
+ *
+ * All the retries of the target server are limited by the retry budget that is shared by all the scenarios. Each
+ * request adds retryBudget.ratio token into the budget (up to retryBudget.maxTokens) and each retry takes one token,
+ * so that the retries are at most the ratio of the requests (plus max tokens burst). If the budget is exhausted then
+ * the failed response is returned without retry, this stops the retry storm on the struggling server.
+ *
+ * Retry is disabled by default and it is enabled for the target server in the apiStepDefs section of ApiConfig.yaml
+ * file in the format given below:
+ * <blockquote><pre>
+ * apiStepDefs:
+ *   targetServers:
+ *     MyServer:
+ *       retry:
+ *         maxAttempts: 3
+ *         idempotentOnly: true                  # retries only GET, HEAD, PUT, DELETE requests
+ *         retryOnStatusCodes: [502, 503, 504]
+ *         initialIntervalInMillis: 200
+ *         maxIntervalInMillis: 5000
+ *         retryBudget:
+ *           ratio: 0.1
+ *           maxTokens: 10
+ * </pre></blockquote>
+ *
+ * Requests failed with I/O error (like connection reset or timeout) are always retryable. The settings (except the
+ * retry budget) can be overridden for the request using the headers given below in the request header reference
+ * variable, these headers are removed before sending the request:
+ * <blockquote><pre>
+ *   X-Smartfwk-Retry-MaxAttempts, X-Smartfwk-Retry-IdempotentOnly, X-Smartfwk-Retry-InitialIntervalInMillis,
+ *   X-Smartfwk-Retry-MaxIntervalInMillis
+ * </pre></blockquote>
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartHttpRetryPolicy {
+	public static final String HEADER_PREFIX = "X-Smartfwk-Retry-";
+
+	private static final Map<String, SmartHttpRetryPolicy> policiesByTargetServer = new ConcurrentHashMap<>();
+	private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "PUT", "DELETE", "OPTIONS");
+
+	private int maxAttempts;
+	private boolean idempotentOnly;
+	private Set<Integer> retryOnStatusCodes;
+	private SmartBackoffPolicy backoffPolicy;
+	private RetryBudget retryBudget;
+
+	@SuppressWarnings("unchecked")
+	SmartHttpRetryPolicy(SmartApiTargetServerConfig config) {
+		maxAttempts = Math.max(1, config.getValue("retry.maxAttempts", Integer.class, 1));
+		idempotentOnly = config.getValue("retry.idempotentOnly", Boolean.class, true);
+		retryOnStatusCodes = new TreeSet<>();
+		for (Object code : config.getValue("retry.retryOnStatusCodes", List.class, List.of(502, 503, 504))) {
+			retryOnStatusCodes.add(Integer.valueOf(code.toString().trim()));
+		}
+		backoffPolicy = new SmartBackoffPolicy(config.getValue("retry.initialIntervalInMillis", Integer.class, 200),
+				config.getValue("retry.maxIntervalInMillis", Integer.class, 5000));
+		retryBudget = new RetryBudget(config.getValue("retry.retryBudget.ratio", Number.class, 0.1).doubleValue(),
+				config.getValue("retry.retryBudget.maxTokens", Number.class, 10).doubleValue());
+	}
+
+	private SmartHttpRetryPolicy(SmartHttpRetryPolicy policy) {
+		maxAttempts = policy.maxAttempts;
+		idempotentOnly = policy.idempotentOnly;
+		retryOnStatusCodes = policy.retryOnStatusCodes;
+		backoffPolicy = policy.backoffPolicy;
+		retryBudget = policy.retryBudget;
+	}
+
+	/**
+	 * Returns the retry policy of the specified target server.
+	 *
+	 * @param appName - the configured application name.
+	 * @param targetServer - the API target server name that is configured in ApiConfig.yaml file.
+	 * @return the retry policy.
+	 */
+	public static SmartHttpRetryPolicy getInstance(String appName, String targetServer) {
+		return policiesByTargetServer.computeIfAbsent(appName + ":" + targetServer,
+				k -> new SmartHttpRetryPolicy(SmartApiTargetServerConfig.getInstance(appName, targetServer)));
+	}
+
+	/**
+	 * Returns the retry policy of the request. The retry headers (please refer the class documentation) are removed from
+	 * the request headers and applied on the copy of this policy.
+	 *
+	 * @param headers - the request headers, may be null.
+	 * @return the retry policy of the request, this policy if the request does not contain the retry headers.
+	 */
+	public SmartHttpRetryPolicy forRequest(Map<String, String> headers) {
+		if (headers == null || headers.isEmpty()) {
+			return this;
+		}
+
+		SmartHttpRetryPolicy policy = this;
+		long initialInterval = backoffPolicy.getInitialIntervalInMillis();
+		long maxInterval = backoffPolicy.getMaxIntervalInMillis();
+		Iterator<Map.Entry<String, String>> itr = headers.entrySet().iterator();
+		while (itr.hasNext()) {
+			Map.Entry<String, String> header = itr.next();
+			if (header.getKey() == null || !header.getKey().regionMatches(true, 0, HEADER_PREFIX, 0, HEADER_PREFIX.length())) {
+				continue;
+			}
+			itr.remove();
+			if (policy == this) {
+				policy = new SmartHttpRetryPolicy(this);
+			}
+
+			String name = header.getKey().substring(HEADER_PREFIX.length());
+			String value = header.getValue() == null ? "" : header.getValue().trim();
+			try {
+				if ("MaxAttempts".equalsIgnoreCase(name)) {
+					policy.maxAttempts = Math.max(1, Integer.parseInt(value));
+				} else if ("IdempotentOnly".equalsIgnoreCase(name)) {
+					policy.idempotentOnly = "true".equalsIgnoreCase(value) || "yes".equalsIgnoreCase(value);
+				} else if ("InitialIntervalInMillis".equalsIgnoreCase(name)) {
+					initialInterval = Long.parseLong(value);
+				} else if ("MaxIntervalInMillis".equalsIgnoreCase(name)) {
+					maxInterval = Long.parseLong(value);
+				} else {
+					throw new IllegalArgumentException("Unknown retry header '" + header.getKey() + "'.");
+				}
+			} catch (NumberFormatException ex) {
+				throw new IllegalArgumentException("Invalid value '" + value + "' of '" + header.getKey() + "' retry header.", ex);
+			}
+		}
+
+		if (policy != this && (initialInterval != backoffPolicy.getInitialIntervalInMillis()
+				|| maxInterval != backoffPolicy.getMaxIntervalInMillis())) {
+			policy.backoffPolicy = new SmartBackoffPolicy(initialInterval, Math.max(initialInterval, maxInterval));
+		}
+		return policy;
+	}
+
+	/**
+	 * Returns true if the request of the specified method can be retried.
+	 *
+	 * @param method - the HTTP method name.
+	 * @return true if the request can be retried.
+	 */
+	public boolean isRetryable(String method) {
+		return maxAttempts > 1 && (!idempotentOnly || (method != null && IDEMPOTENT_METHODS.contains(method.trim().toUpperCase())));
+	}
+
+	/**
+	 * Makes the request and retries it if it fails with retryable status code or I/O error. The attempts are recorded in
+	 * the timing of the request.
+	 *
+	 * @param method - the HTTP method name.
+	 * @param attemptCall - makes one attempt of the request.
+	 * @param timing - the timing of the request.
+	 * @return the HTTP response of the last attempt.
+	 */
+	public HttpResponse execute(String method, Supplier<HttpResponse> attemptCall, SmartHttpTiming timing) {
+		retryBudget.onRequest();
+		if (!isRetryable(method)) {
+			return attemptCall.get();
+		}
+
+		for (int attempt = 0;; attempt++) {
+			long startTime = System.nanoTime();
+			HttpResponse httpResponse = null;
+			RuntimeException error = null;
+			try {
+				httpResponse = attemptCall.get();
+			} catch (RuntimeException ex) {
+				if (!isIOError(ex)) {
+					throw ex;
+				}
+				error = ex;
+			}
+			long attemptTime = System.nanoTime() - startTime;
+			String outcome = error != null ? error.getClass().getSimpleName()
+					: httpResponse == null ? "no response" : String.valueOf(httpResponse.getCode());
+
+			boolean failed = error != null || (httpResponse != null && retryOnStatusCodes.contains(httpResponse.getCode()));
+			if (!failed || attempt + 1 >= maxAttempts) {
+				timing.addAttempt(outcome, attemptTime, -1);
+				return returnOrThrow(httpResponse, error);
+			}
+			if (!retryBudget.tryWithdraw()) {
+				timing.addAttempt(outcome + " (retry budget exhausted)", attemptTime, -1);
+				return returnOrThrow(httpResponse, error);
+			}
+
+			long delayInMillis = backoffPolicy.getDelayInMillis(attempt);
+			timing.addAttempt(outcome, attemptTime, delayInMillis);
+			try {
+				TimeUnit.MILLISECONDS.sleep(delayInMillis);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return returnOrThrow(httpResponse, error);
+			}
+		}
+	}
+
+	/**
+	 * Returns the retry metrics in the format given below:
+	 * <blockquote><pre>
+	 *   { maxAttempts: 3, idempotentOnly: true, retryOnStatusCodes: [502, 503, 504], requests: 1000, retries: 12,
+	 *     budgetExhausted: 0, budgetTokens: 10.0 }
+	 * </pre></blockquote>
+	 *
+	 * @return the metrics.
+	 */
+	public Map<String, Object> getMetrics() {
+		Map<String, Object> metrics = new LinkedHashMap<>();
+		metrics.put("maxAttempts", maxAttempts);
+		metrics.put("idempotentOnly", idempotentOnly);
+		metrics.put("retryOnStatusCodes", Collections.unmodifiableSet(retryOnStatusCodes));
+		retryBudget.addMetrics(metrics);
+		return metrics;
+	}
+
+	private static HttpResponse returnOrThrow(HttpResponse httpResponse, RuntimeException error) {
+		if (error != null) {
+			throw error;
+		}
+		return httpResponse;
+	}
+
+	private static boolean isIOError(Throwable th) {
+		for (int depth = 0; th != null && depth < 10; depth++, th = th.getCause()) {
+			if (th instanceof IOException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static class RetryBudget {
+		private double ratio;
+		private double maxTokens;
+		private double tokens;
+		private long requests;
+		private long retries;
+		private long budgetExhausted;
+
+		private RetryBudget(double ratio, double maxTokens) {
+			this.ratio = Math.max(0, ratio);
+			this.maxTokens = Math.max(1, maxTokens);
+			this.tokens = this.maxTokens;
+		}
+
+		private synchronized void onRequest() {
+			requests++;
+			tokens = Math.min(maxTokens, tokens + ratio);
+		}
+
+		private synchronized boolean tryWithdraw() {
+			if (tokens < 1) {
+				budgetExhausted++;
+				return false;
+			}
+			tokens--;
+			retries++;
+			return true;
+		}
+
+		private synchronized void addMetrics(Map<String, Object> metrics) {
+			metrics.put("requests", requests);
+			metrics.put("retries", retries);
+			metrics.put("budgetExhausted", budgetExhausted);
+			metrics.put("budgetTokens", Math.round(tokens * 100) / 100.0);
+		}
+	}
+}
@@ -0,0 +1,251 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.uitnet.testing.smartfwk.api.core.support.HttpResponse;
+
+/**
+ * Timing of the HTTP request, split into the phases given below:
+ * <blockquote><pre>
+ *   queueWait         - time spent waiting for the free connection or for the identical request in progress.
+ *   handlerSetup      - time spent to get the API action handler of the target server (includes login, if any).
+ *   total             - total time of the request.
+ * </pre></blockquote>
+ *
+ * If the request is retried, please refer {@link SmartHttpRetryPolicy} class, then the outcome and time of each
+ * attempt and the backoff delay before the next attempt are also recorded.
+ *
+ * Phases that are not measured for the request are not reported. The API action handler sends the request and reads
+ * the response (headers and body) in one call, so the time to first byte and the body transfer time can not be
+ * measured separately. Connection and TLS handshake times are not exposed by the HTTP client and are included in total.
+ *
+ * The timing is attached to the HTTP response object by the request executor, it is kept till the response object is
+ * in use. Timings are looked up by the identity of the response object (not by its equals / hashCode), so two equal
+ * responses never share the timing.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartHttpTiming {
+	private static final Map<ResponseKey, SmartHttpTiming> timingsByResponse = new HashMap<>();
+	private static final ReferenceQueue<HttpResponse> collectedResponses = new ReferenceQueue<>();
+
+	private String source = "network";
+	private long startTime;
+	private long queueWaitInNanos = -1;
+	private long handlerSetupInNanos = -1;
+	private long totalInNanos = -1;
+	private List<Map<String, Object>> attempts;
+
+	/**
+	 * Creates the timing, total time is measured from now.
+	 */
+	public SmartHttpTiming() {
+		startTime = System.nanoTime();
+	}
+
+	/**
+	 * Attaches the timing to the HTTP response.
+	 *
+	 * @param httpResponse - the HTTP response.
+	 * @param timing - the timing.
+	 */
+	public static void attach(HttpResponse httpResponse, SmartHttpTiming timing) {
+		if (httpResponse != null) {
+			synchronized (timingsByResponse) {
+				removeCollectedResponses();
+				timingsByResponse.put(new ResponseKey(httpResponse, collectedResponses), timing);
+			}
+		}
+	}
+
+	/**
+	 * Returns the timing attached to the HTTP response.
+	 *
+	 * @param httpResponse - the HTTP response.
+	 * @return the timing, null if no timing is attached.
+	 */
+	public static SmartHttpTiming of(HttpResponse httpResponse) {
+		if (httpResponse == null) {
+			return null;
+		}
+		synchronized (timingsByResponse) {
+			removeCollectedResponses();
+			return timingsByResponse.get(new ResponseKey(httpResponse, null));
+		}
+	}
+
+	private static void removeCollectedResponses() {
+		Reference<? extends HttpResponse> ref;
+		while ((ref = collectedResponses.poll()) != null) {
+			timingsByResponse.remove(ref);
+		}
+	}
+
+	/**
+	 * Returns the source of the response. Valid values are: network, coalesced (response of the identical request
+	 * in progress), replay (recorded response).
+	 *
+	 * @return the source of the response.
+	 */
+	public String getSource() {
+		return source;
+	}
+
+	public void setSource(String source) {
+		this.source = source;
+	}
+
+	public void addQueueWait(long nanos) {
+		queueWaitInNanos = Math.max(0, queueWaitInNanos) + nanos;
+	}
+
+	public void setHandlerSetup(long nanos) {
+		handlerSetupInNanos = nanos;
+	}
+
+	/**
+	 * Records the attempt of the retryable request.
+	 *
+	 * @param outcome - the HTTP status code or the error of the attempt.
+	 * @param nanos - the time taken by the attempt.
+	 * @param backoffInMillis - the delay before the next attempt, -1 if it is the last attempt.
+	 */
+	public synchronized void addAttempt(String outcome, long nanos, long backoffInMillis) {
+		if (attempts == null) {
+			attempts = new ArrayList<>();
+		}
+		Map<String, Object> attempt = new LinkedHashMap<>();
+		attempt.put("attempt", attempts.size() + 1);
+		attempt.put("outcome", outcome);
+		attempt.put("time", toMillis(nanos));
+		if (backoffInMillis >= 0) {
+			attempt.put("backoff", backoffInMillis);
+		}
+		attempts.add(attempt);
+	}
+
+	/**
+	 * Returns the number of retries made for the request.
+	 *
+	 * @return the number of retries, 0 if the request is not retried.
+	 */
+	public synchronized int getRetries() {
+		return attempts == null ? 0 : attempts.size() - 1;
+	}
+
+	/**
+	 * Marks the request completed, total time is measured till now.
+	 *
+	 * @return this timing.
+	 */
+	public SmartHttpTiming completed() {
+		totalInNanos = System.nanoTime() - startTime;
+		return this;
+	}
+
+	/**
+	 * Returns the total time of the request.
+	 *
+	 * @return the total time in milliseconds, -1 if the request is not completed.
+	 */
+	public double getTotalInMillis() {
+		return toMillis(totalInNanos);
+	}
+
+	/**
+	 * Returns the timing in the format given below (time is in milliseconds):
+	 * <blockquote><pre>
+	 *   { source: "network", queueWait: 0.02, handlerSetup: 0.1, total: 161.3 }
+	 * </pre></blockquote>
+	 *
+	 * Retried request also contains the attempts information in the format given below:
+	 * <blockquote><pre>
+	 *   { ..., retries: 1, attempts: [ { attempt: 1, outcome: "503", time: 20.5, backoff: 180 }, { attempt: 2, outcome: "200", time: 35.1 } ] }
+	 * </pre></blockquote>
+	 *
+	 * @return the timing information.
+	 */
+	public Map<String, Object> toMap() {
+		Map<String, Object> info = new LinkedHashMap<>();
+		info.put("source", source);
+		putIfMeasured(info, "queueWait", queueWaitInNanos);
+		putIfMeasured(info, "handlerSetup", handlerSetupInNanos);
+		putIfMeasured(info, "total", totalInNanos);
+		synchronized (this) {
+			if (attempts != null && attempts.size() > 1) {
+				info.put("retries", attempts.size() - 1);
+				info.put("attempts", new ArrayList<>(attempts));
+			}
+		}
+		return info;
+	}
+
+	@Override
+	public String toString() {
+		return toMap().toString();
+	}
+
+	private static void putIfMeasured(Map<String, Object> info, String phase, long nanos) {
+		if (nanos >= 0) {
+			info.put(phase, toMillis(nanos));
+		}
+	}
+
+	private static double toMillis(long nanos) {
+		return nanos < 0 ? -1 : Math.round(nanos / 10000.0) / 100.0;
+	}
+
+	/**
+	 * Weak key of the HTTP response that is compared by identity.
+	 */
+	private static class ResponseKey extends WeakReference<HttpResponse> {
+		private final int hash;
+
+		private ResponseKey(HttpResponse httpResponse, ReferenceQueue<HttpResponse> queue) {
+			super(httpResponse, queue);
+			hash = System.identityHashCode(httpResponse);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this) {
+				return true;
+			}
+			if (!(obj instanceof ResponseKey)) {
+				return false;
+			}
+			HttpResponse httpResponse = get();
+			return httpResponse != null && httpResponse == ((ResponseKey) obj).get();
+		}
+	}
+}
@@ -0,0 +1,738 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Compiled JSON schema. Schema is compiled once into the tree of validators (regular expressions are compiled, $ref
+ * are resolved) and the compiled schema is read-only, so it can be used by many threads at the same time.
+ *
+ * Supported keywords (draft 4 to 2020-12) are given below, other keywords are ignored:
+ * <blockquote><pre>
+ *   any type   : type, enum, const, allOf, anyOf, oneOf, not, if / then / else, $ref
+ *   object     : properties, required, additionalProperties, patternProperties, propertyNames, minProperties, maxProperties
+ *   array      : items, prefixItems, additionalItems, contains, minItems, maxItems, uniqueItems
+ *   string     : minLength, maxLength, pattern, format (date-time, date, time, email, uuid, ipv4, uri)
+ *   number     : minimum, maximum, exclusiveMinimum, exclusiveMaximum, multipleOf
+ * </pre></blockquote>
+ *
+ * $ref can refer the same schema file (like "#/definitions/address" or "#/$defs/address") or the other schema file
+ * relative to this file (like "common.json#/$defs/address").
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartJsonSchema {
+	private static final Pattern EMAIL_PATTERN = Pattern.compile("^[^@\\s]+@[^@\\s]+$");
+	private static final Pattern UUID_PATTERN = Pattern
+			.compile("^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$");
+	private static final Pattern IPV4_PATTERN = Pattern
+			.compile("^((25[0-5]|2[0-4]\\d|1\\d\\d|[1-9]?\\d)\\.){3}(25[0-5]|2[0-4]\\d|1\\d\\d|[1-9]?\\d)$");
+
+	private Path file;
+	private Object schemaJson;
+	private Function<Path, SmartJsonSchema> schemaLoader;
+	private Map<String, Node> nodesByPointer = new HashMap<>();
+	private List<RefKeyword> localRefs = new LinkedList<>();
+	private Node root;
+
+	private SmartJsonSchema(Path file, Object schemaJson, Function<Path, SmartJsonSchema> schemaLoader) {
+		this.file = file;
+		this.schemaJson = schemaJson;
+		this.schemaLoader = schemaLoader;
+	}
+
+	/**
+	 * Compiles the JSON schema.
+	 *
+	 * @param file - the schema file, used to resolve the $ref of other schema files.
+	 * @param schemaJson - the parsed schema (Map or Boolean).
+	 * @param schemaLoader - returns the compiled schema of the other schema file.
+	 * @return the compiled schema.
+	 * @throws IllegalArgumentException if the schema is not valid.
+	 */
+	public static SmartJsonSchema compile(Path file, Object schemaJson, Function<Path, SmartJsonSchema> schemaLoader) {
+		SmartJsonSchema schema = new SmartJsonSchema(file, schemaJson, schemaLoader);
+		schema.root = schema.nodeAt("");
+		// definitions are compiled even if not used in this file, so that other schema files can refer them.
+		if (schemaJson instanceof Map) {
+			for (String definitionsKeyword : new String[] { "definitions", "$defs" }) {
+				Object definitions = ((Map<?, ?>) schemaJson).get(definitionsKeyword);
+				if (definitions instanceof Map) {
+					for (Object name : ((Map<?, ?>) definitions).keySet()) {
+						schema.nodeAt("/" + definitionsKeyword + "/" + escapePointerToken(name.toString()));
+					}
+				}
+			}
+		}
+		// resolving the references may compile more nodes (like definitions), which may have more references.
+		while (!schema.localRefs.isEmpty()) {
+			RefKeyword ref = schema.localRefs.remove(0);
+			ref.target = schema.nodeAt(ref.pointer);
+		}
+		schema.schemaJson = null;
+		return schema;
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * Validates the JSON document.
+	 *
+	 * @param document - the parsed JSON document (Map, List, String, Number, Boolean or null).
+	 * @param maxErrors - the maximum number of errors to report.
+	 * @return the validation errors in the format "JSON path: message", empty list if the document is valid.
+	 */
+	public List<String> validate(Object document, int maxErrors) {
+		Errors errors = new Errors(maxErrors);
+		root.validate(document, "$", errors);
+		return errors.messages;
+	}
+
+	private Node nodeAt(String pointer) {
+		Node node = nodesByPointer.get(pointer);
+		if (node != null) {
+			return node;
+		}
+
+		Object schemaValue = schemaJson;
+		if (!pointer.isEmpty()) {
+			for (String token : pointer.substring(1).split("/", -1)) {
+				token = URLDecoder.decode(token.replace("+", "%2B"), StandardCharsets.UTF_8).replace("~1", "/").replace("~0", "~");
+				if (schemaValue instanceof Map) {
+					schemaValue = ((Map<?, ?>) schemaValue).get(token);
+				} else if (schemaValue instanceof List && token.matches("\\d+") && Integer.parseInt(token) < ((List<?>) schemaValue).size()) {
+					schemaValue = ((List<?>) schemaValue).get(Integer.parseInt(token));
+				} else {
+					schemaValue = null;
+				}
+				if (schemaValue == null) {
+					throw new IllegalArgumentException("JSON pointer '#" + pointer + "' not found in '" + file + "' schema.");
+				}
+			}
+		}
+
+		node = new Node();
+		nodesByPointer.put(pointer, node);
+		compileNode(node, schemaValue, pointer);
+		return node;
+	}
+
+	private void compileNode(Node node, Object schemaValue, String pointer) {
+		if (schemaValue instanceof Boolean) {
+			if (!((Boolean) schemaValue)) {
+				node.keywords.add((value, path, errors) -> errors.add(path, "no value is allowed here (false schema)"));
+			}
+			return;
+		}
+		if (!(schemaValue instanceof Map)) {
+			throw new IllegalArgumentException("Schema at '#" + pointer + "' in '" + file + "' should be an object or boolean.");
+		}
+
+		Map<?, ?> schemaMap = (Map<?, ?>) schemaValue;
+		Object ref = schemaMap.get("$ref");
+		if (ref instanceof String) {
+			node.keywords.add(compileRef((String) ref));
+		}
+
+		compileTypeKeywords(node, schemaMap);
+		compileCombinatorKeywords(node, schemaMap, pointer);
+		compileObjectKeywords(node, schemaMap, pointer);
+		compileArrayKeywords(node, schemaMap, pointer);
+		compileStringKeywords(node, schemaMap, pointer);
+		compileNumberKeywords(node, schemaMap);
+	}
+
+	private RefKeyword compileRef(String ref) {
+		RefKeyword keyword = new RefKeyword();
+		int hashIndex = ref.indexOf('#');
+		String filePart = hashIndex < 0 ? ref : ref.substring(0, hashIndex);
+		keyword.pointer = hashIndex < 0 ? "" : ref.substring(hashIndex + 1);
+		if (!keyword.pointer.isEmpty() && !keyword.pointer.startsWith("/")) {
+			throw new IllegalArgumentException("Unsupported $ref '" + ref + "' in '" + file + "' schema. Only JSON pointer references are supported.");
+		}
+		if (filePart.isEmpty()) {
+			localRefs.add(keyword);
+		} else {
+			Path base = file.getParent();
+			keyword.refFile = base == null ? Path.of(URI.create(filePart).getPath()) : base.resolve(URI.create(filePart).getPath()).normalize();
+		}
+		return keyword;
+	}
+
+	private void compileTypeKeywords(Node node, Map<?, ?> schemaMap) {
+		Object type = schemaMap.get("type");
+		if (type != null) {
+			List<String> types = new ArrayList<>();
+			if (type instanceof List) {
+				for (Object t : (List<?>) type) {
+					types.add(String.valueOf(t));
+				}
+			} else {
+				types.add(String.valueOf(type));
+			}
+			node.keywords.add((value, path, errors) -> {
+				String valueType = typeOf(value);
+				for (String t : types) {
+					if (t.equals(valueType) || ("number".equals(t) && "integer".equals(valueType))
+							|| ("integer".equals(t) && "number".equals(valueType) && isInteger((Number) value))) {
+						return;
+					}
+				}
+				errors.add(path, "expected type " + (types.size() == 1 ? types.get(0) : types) + " but found " + valueType);
+			});
+		}
+
+		if (schemaMap.get("enum") instanceof List) {
+			List<?> allowedValues = (List<?>) schemaMap.get("enum");
+			node.keywords.add((value, path, errors) -> {
+				for (Object allowedValue : allowedValues) {
+					if (jsonEquals(value, allowedValue)) {
+						return;
+					}
+				}
+				errors.add(path, "value " + toText(value) + " is not one of " + toText(allowedValues));
+			});
+		}
+
+		if (schemaMap.containsKey("const")) {
+			Object constValue = schemaMap.get("const");
+			node.keywords.add((value, path, errors) -> {
+				if (!jsonEquals(value, constValue)) {
+					errors.add(path, "value " + toText(value) + " is not equal to " + toText(constValue));
+				}
+			});
+		}
+	}
+
+	private void compileCombinatorKeywords(Node node, Map<?, ?> schemaMap, String pointer) {
+		List<Node> allOf = compileNodeList(schemaMap, "allOf", pointer);
+		if (allOf != null) {
+			node.keywords.add((value, path, errors) -> {
+				for (Node subNode : allOf) {
+					subNode.validate(value, path, errors);
+				}
+			});
+		}
+
+		List<Node> anyOf = compileNodeList(schemaMap, "anyOf", pointer);
+		if (anyOf != null) {
+			node.keywords.add((value, path, errors) -> {
+				for (Node subNode : anyOf) {
+					if (subNode.isValid(value, path)) {
+						return;
+					}
+				}
+				errors.add(path, "value does not match any of the anyOf schemas");
+			});
+		}
+
+		List<Node> oneOf = compileNodeList(schemaMap, "oneOf", pointer);
+		if (oneOf != null) {
+			node.keywords.add((value, path, errors) -> {
+				int matchCount = 0;
+				for (Node subNode : oneOf) {
+					if (subNode.isValid(value, path) && ++matchCount > 1) {
+						break;
+					}
+				}
+				if (matchCount != 1) {
+					errors.add(path, "value matches " + (matchCount == 0 ? "none" : "more than one") + " of the oneOf schemas");
+				}
+			});
+		}
+
+		if (schemaMap.containsKey("not")) {
+			Node notNode = nodeAt(pointer + "/not");
+			node.keywords.add((value, path, errors) -> {
+				if (notNode.isValid(value, path)) {
+					errors.add(path, "value should not match the 'not' schema");
+				}
+			});
+		}
+
+		if (schemaMap.containsKey("if") && (schemaMap.containsKey("then") || schemaMap.containsKey("else"))) {
+			Node ifNode = nodeAt(pointer + "/if");
+			Node thenNode = schemaMap.containsKey("then") ? nodeAt(pointer + "/then") : null;
+			Node elseNode = schemaMap.containsKey("else") ? nodeAt(pointer + "/else") : null;
+			node.keywords.add((value, path, errors) -> {
+				Node branch = ifNode.isValid(value, path) ? thenNode : elseNode;
+				if (branch != null) {
+					branch.validate(value, path, errors);
+				}
+			});
+		}
+	}
+
+	private void compileObjectKeywords(Node node, Map<?, ?> schemaMap, String pointer) {
+		Map<String, Node> properties = new HashMap<>();
+		if (schemaMap.get("properties") instanceof Map) {
+			for (Object name : ((Map<?, ?>) schemaMap.get("properties")).keySet()) {
+				properties.put(name.toString(), nodeAt(pointer + "/properties/" + escapePointerToken(name.toString())));
+			}
+		}
+		Map<Pattern, Node> patternProperties = new HashMap<>();
+		if (schemaMap.get("patternProperties") instanceof Map) {
+			for (Object regex : ((Map<?, ?>) schemaMap.get("patternProperties")).keySet()) {
+				patternProperties.put(Pattern.compile(regex.toString()),
+						nodeAt(pointer + "/patternProperties/" + escapePointerToken(regex.toString())));
+			}
+		}
+		Node additionalProperties = schemaMap.containsKey("additionalProperties") ? nodeAt(pointer + "/additionalProperties") : null;
+		boolean noAdditionalProperties = Boolean.FALSE.equals(schemaMap.get("additionalProperties"));
+		Node propertyNames = schemaMap.containsKey("propertyNames") ? nodeAt(pointer + "/propertyNames") : null;
+
+		if (!properties.isEmpty() || !patternProperties.isEmpty() || additionalProperties != null || propertyNames != null) {
+			node.keywords.add((value, path, errors) -> {
+				if (!(value instanceof Map)) {
+					return;
+				}
+				for (Map.Entry<?, ?> property : ((Map<?, ?>) value).entrySet()) {
+					String name = String.valueOf(property.getKey());
+					String propertyPath = childPath(path, name);
+					if (propertyNames != null && !propertyNames.isValid(name, propertyPath)) {
+						errors.add(propertyPath, "property name '" + name + "' does not match the propertyNames schema");
+					}
+
+					boolean matched = false;
+					Node propertyNode = properties.get(name);
+					if (propertyNode != null) {
+						matched = true;
+						propertyNode.validate(property.getValue(), propertyPath, errors);
+					}
+					for (Map.Entry<Pattern, Node> patternProperty : patternProperties.entrySet()) {
+						if (patternProperty.getKey().matcher(name).find()) {
+							matched = true;
+							patternProperty.getValue().validate(property.getValue(), propertyPath, errors);
+						}
+					}
+					if (!matched && additionalProperties != null) {
+						if (noAdditionalProperties) {
+							errors.add(propertyPath, "additional property '" + name + "' is not allowed");
+						} else {
+							additionalProperties.validate(property.getValue(), propertyPath, errors);
+						}
+					}
+					if (errors.isFull()) {
+						return;
+					}
+				}
+			});
+		}
+
+		if (schemaMap.get("required") instanceof List) {
+			List<?> required = (List<?>) schemaMap.get("required");
+			node.keywords.add((value, path, errors) -> {
+				if (value instanceof Map) {
+					for (Object name : required) {
+						if (!((Map<?, ?>) value).containsKey(name)) {
+							errors.add(path, "required property '" + name + "' is missing");
+						}
+					}
+				}
+			});
+		}
+
+		Integer minProperties = toInteger(schemaMap.get("minProperties"));
+		Integer maxProperties = toInteger(schemaMap.get("maxProperties"));
+		if (minProperties != null || maxProperties != null) {
+			node.keywords.add((value, path, errors) -> {
+				if (value instanceof Map) {
+					int size = ((Map<?, ?>) value).size();
+					if (minProperties != null && size < minProperties) {
+						errors.add(path, "object has " + size + " properties, minimum is " + minProperties);
+					}
+					if (maxProperties != null && size > maxProperties) {
+						errors.add(path, "object has " + size + " properties, maximum is " + maxProperties);
+					}
+				}
+			});
+		}
+	}
+
+	private void compileArrayKeywords(Node node, Map<?, ?> schemaMap, String pointer) {
+		Object items = schemaMap.get("items");
+		List<Node> prefixItems = compileNodeList(schemaMap, "prefixItems", pointer);
+		Node itemsNode = null;
+		Node additionalItems = null;
+		if (items instanceof List) {
+			// draft 4 to 2019-09 tuple form.
+			prefixItems = compileNodeList(schemaMap, "items", pointer);
+			additionalItems = schemaMap.containsKey("additionalItems") ? nodeAt(pointer + "/additionalItems") : null;
+		} else if (items != null) {
+			itemsNode = nodeAt(pointer + "/items");
+		}
+		List<Node> tupleNodes = prefixItems == null ? List.of() : prefixItems;
+		Node restNode = itemsNode != null ? itemsNode : additionalItems;
+
+		if (!tupleNodes.isEmpty() || restNode != null) {
+			node.keywords.add((value, path, errors) -> {
+				if (!(value instanceof List)) {
+					return;
+				}
+				int index = 0;
+				for (Object item : (List<?>) value) {
+					Node itemNode = index < tupleNodes.size() ? tupleNodes.get(index) : restNode;
+					if (itemNode != null) {
+						itemNode.validate(item, path + "[" + index + "]", errors);
+						if (errors.isFull()) {
+							return;
+						}
+					}
+					index++;
+				}
+			});
+		}
+
+		if (schemaMap.containsKey("contains")) {
+			Node containsNode = nodeAt(pointer + "/contains");
+			node.keywords.add((value, path, errors) -> {
+				if (value instanceof List) {
+					int index = 0;
+					for (Object item : (List<?>) value) {
+						if (containsNode.isValid(item, path + "[" + index++ + "]")) {
+							return;
+						}
+					}
+					errors.add(path, "array does not contain any item matching the 'contains' schema");
+				}
+			});
+		}
+
+		Integer minItems = toInteger(schemaMap.get("minItems"));
+		Integer maxItems = toInteger(schemaMap.get("maxItems"));
+		boolean uniqueItems = Boolean.TRUE.equals(schemaMap.get("uniqueItems"));
+		if (minItems != null || maxItems != null || uniqueItems) {
+			node.keywords.add((value, path, errors) -> {
+				if (!(value instanceof List)) {
+					return;
+				}
+				List<?> list = (List<?>) value;
+				if (minItems != null && list.size() < minItems) {
+					errors.add(path, "array has " + list.size() + " items, minimum is " + minItems);
+				}
+				if (maxItems != null && list.size() > maxItems) {
+					errors.add(path, "array has " + list.size() + " items, maximum is " + maxItems);
+				}
+				if (uniqueItems) {
+					for (int i = 0; i < list.size(); i++) {
+						for (int j = i + 1; j < list.size(); j++) {
+							if (jsonEquals(list.get(i), list.get(j))) {
+								errors.add(path, "array items at index " + i + " and " + j + " are same, items should be unique");
+								return;
+							}
+						}
+					}
+				}
+			});
+		}
+	}
+
+	private void compileStringKeywords(Node node, Map<?, ?> schemaMap, String pointer) {
+		Integer minLength = toInteger(schemaMap.get("minLength"));
+		Integer maxLength = toInteger(schemaMap.get("maxLength"));
+		Pattern pattern = null;
+		if (schemaMap.get("pattern") instanceof String) {
+			try {
+				pattern = Pattern.compile((String) schemaMap.get("pattern"));
+			} catch (RuntimeException ex) {
+				throw new IllegalArgumentException("Invalid pattern at '#" + pointer + "' in '" + file + "' schema. Reason: " + ex.getMessage(), ex);
+			}
+		}
+		String format = schemaMap.get("format") instanceof String ? (String) schemaMap.get("format") : null;
+		if (minLength == null && maxLength == null && pattern == null && format == null) {
+			return;
+		}
+
+		Pattern compiledPattern = pattern;
+		node.keywords.add((value, path, errors) -> {
+			if (!(value instanceof String)) {
+				return;
+			}
+			String text = (String) value;
+			if (minLength != null || maxLength != null) {
+				int length = text.codePointCount(0, text.length());
+				if (minLength != null && length < minLength) {
+					errors.add(path, "string length " + length + " is less than minimum length " + minLength);
+				}
+				if (maxLength != null && length > maxLength) {
+					errors.add(path, "string length " + length + " is greater than maximum length " + maxLength);
+				}
+			}
+			if (compiledPattern != null && !compiledPattern.matcher(text).find()) {
+				errors.add(path, "string " + toText(text) + " does not match the pattern '" + compiledPattern.pattern() + "'");
+			}
+			if (format != null && !isValidFormat(format, text)) {
+				errors.add(path, "string " + toText(text) + " is not a valid " + format);
+			}
+		});
+	}
+
+	private void compileNumberKeywords(Node node, Map<?, ?> schemaMap) {
+		BigDecimal minimum = toBigDecimal(schemaMap.get("minimum"));
+		BigDecimal maximum = toBigDecimal(schemaMap.get("maximum"));
+		BigDecimal exclusiveMinimum = toBigDecimal(schemaMap.get("exclusiveMinimum"));
+		BigDecimal exclusiveMaximum = toBigDecimal(schemaMap.get("exclusiveMaximum"));
+		BigDecimal multipleOf = toBigDecimal(schemaMap.get("multipleOf"));
+		// draft 4 uses the boolean exclusiveMinimum / exclusiveMaximum along with minimum / maximum.
+		if (Boolean.TRUE.equals(schemaMap.get("exclusiveMinimum"))) {
+			exclusiveMinimum = minimum;
+			minimum = null;
+		}
+		if (Boolean.TRUE.equals(schemaMap.get("exclusiveMaximum"))) {
+			exclusiveMaximum = maximum;
+			maximum = null;
+		}
+		if (minimum == null && maximum == null && exclusiveMinimum == null && exclusiveMaximum == null && multipleOf == null) {
+			return;
+		}
+
+		BigDecimal min = minimum, max = maximum, exclusiveMin = exclusiveMinimum, exclusiveMax = exclusiveMaximum;
+		node.keywords.add((value, path, errors) -> {
+			if (!(value instanceof Number)) {
+				return;
+			}
+			BigDecimal number = toBigDecimal(value);
+			if (min != null && number.compareTo(min) < 0) {
+				errors.add(path, "value " + value + " is less than minimum " + min);
+			}
+			if (max != null && number.compareTo(max) > 0) {
+				errors.add(path, "value " + value + " is greater than maximum " + max);
+			}
+			if (exclusiveMin != null && number.compareTo(exclusiveMin) <= 0) {
+				errors.add(path, "value " + value + " should be greater than " + exclusiveMin);
+			}
+			if (exclusiveMax != null && number.compareTo(exclusiveMax) >= 0) {
+				errors.add(path, "value " + value + " should be less than " + exclusiveMax);
+			}
+			if (multipleOf != null && multipleOf.signum() != 0 && number.remainder(multipleOf).signum() != 0) {
+				errors.add(path, "value " + value + " is not a multiple of " + multipleOf);
+			}
+		});
+	}
+
+	private List<Node> compileNodeList(Map<?, ?> schemaMap, String keyword, String pointer) {
+		if (!(schemaMap.get(keyword) instanceof List)) {
+			return null;
+		}
+		List<Node> nodes = new ArrayList<>();
+		for (int i = 0; i < ((List<?>) schemaMap.get(keyword)).size(); i++) {
+			nodes.add(nodeAt(pointer + "/" + keyword + "/" + i));
+		}
+		return nodes;
+	}
+
+	private static boolean isValidFormat(String format, String text) {
+		try {
+			switch (format) {
+			case "date-time":
+				OffsetDateTime.parse(text.replace('t', 'T').replace('z', 'Z'));
+				return true;
+			case "date":
+				LocalDate.parse(text);
+				return true;
+			case "time":
+				OffsetTime.parse(text.replace('z', 'Z'));
+				return true;
+			case "email":
+				return EMAIL_PATTERN.matcher(text).matches();
+			case "uuid":
+				return UUID_PATTERN.matcher(text).matches();
+			case "ipv4":
+				return IPV4_PATTERN.matcher(text).matches();
+			case "uri":
+				return URI.create(text).isAbsolute();
+			default:
+				// unknown formats are not validated.
+				return true;
+			}
+		} catch (DateTimeParseException | IllegalArgumentException ex) {
+			return false;
+		}
+	}
+
+	private static String typeOf(Object value) {
+		if (value == null) {
+			return "null";
+		} else if (value instanceof Map) {
+			return "object";
+		} else if (value instanceof List) {
+			return "array";
+		} else if (value instanceof String) {
+			return "string";
+		} else if (value instanceof Boolean) {
+			return "boolean";
+		} else if (value instanceof Number) {
+			return value instanceof Integer || value instanceof Long || value instanceof BigInteger || value instanceof Short
+					|| value instanceof Byte ? "integer" : "number";
+		}
+		return value.getClass().getSimpleName();
+	}
+
+	private static boolean isInteger(Number value) {
+		return toBigDecimal(value).stripTrailingZeros().scale() <= 0;
+	}
+
+	private static BigDecimal toBigDecimal(Object value) {
+		if (!(value instanceof Number)) {
+			return null;
+		} else if (value instanceof BigDecimal) {
+			return (BigDecimal) value;
+		} else if (value instanceof BigInteger) {
+			return new BigDecimal((BigInteger) value);
+		} else if (value instanceof Double || value instanceof Float) {
+			return BigDecimal.valueOf(((Number) value).doubleValue());
+		}
+		return BigDecimal.valueOf(((Number) value).longValue());
+	}
+
+	private static Integer toInteger(Object value) {
+		return value instanceof Number ? ((Number) value).intValue() : null;
+	}
+
+	private static boolean jsonEquals(Object value1, Object value2) {
+		if (value1 instanceof Number && value2 instanceof Number) {
+			return toBigDecimal(value1).compareTo(toBigDecimal(value2)) == 0;
+		} else if (value1 instanceof Map && value2 instanceof Map) {
+			Map<?, ?> map1 = (Map<?, ?>) value1;
+			Map<?, ?> map2 = (Map<?, ?>) value2;
+			if (map1.size() != map2.size()) {
+				return false;
+			}
+			for (Map.Entry<?, ?> entry : map1.entrySet()) {
+				if (!map2.containsKey(entry.getKey()) || !jsonEquals(entry.getValue(), map2.get(entry.getKey()))) {
+					return false;
+				}
+			}
+			return true;
+		} else if (value1 instanceof List && value2 instanceof List) {
+			List<?> list1 = (List<?>) value1;
+			List<?> list2 = (List<?>) value2;
+			if (list1.size() != list2.size()) {
+				return false;
+			}
+			for (int i = 0; i < list1.size(); i++) {
+				if (!jsonEquals(list1.get(i), list2.get(i))) {
+					return false;
+				}
+			}
+			return true;
+		}
+		return value1 == null ? value2 == null : value1.equals(value2);
+	}
+
+	private static String toText(Object value) {
+		String text = value instanceof String ? "\"" + value + "\"" : String.valueOf(value);
+		return text.length() > 100 ? text.substring(0, 100) + "..." : text;
+	}
+
+	private static String childPath(String path, String name) {
+		return name.matches("[A-Za-z_$][A-Za-z0-9_$]*") ? path + "." + name : path + "['" + name.replace("'", "\\'") + "']";
+	}
+
+	private static String escapePointerToken(String token) {
+		return token.replace("~", "~0").replace("/", "~1").replace("%", "%25");
+	}
+
+	private interface Keyword {
+		void validate(Object value, String path, Errors errors);
+	}
+
+	private static class Node {
+		private List<Keyword> keywords = new ArrayList<>();
+
+		private void validate(Object value, String path, Errors errors) {
+			for (Keyword keyword : keywords) {
+				keyword.validate(value, path, errors);
+				if (errors.isFull()) {
+					return;
+				}
+			}
+		}
+
+		private boolean isValid(Object value, String path) {
+			Errors errors = new Errors(1);
+			validate(value, path, errors);
+			return errors.messages.isEmpty();
+		}
+	}
+
+	private class RefKeyword implements Keyword {
+		private String pointer;
+		private Path refFile;
+		private volatile Node target;
+
+		@Override
+		public void validate(Object value, String path, Errors errors) {
+			Node node = target;
+			if (node == null) {
+				// schema of the other file is loaded on first use, so that the files can refer each other.
+				node = schemaLoader.apply(refFile).getNode(pointer);
+				target = node;
+			}
+			node.validate(value, path, errors);
+		}
+	}
+
+	private synchronized Node getNode(String pointer) {
+		Node node = nodesByPointer.get(pointer);
+		if (node == null) {
+			throw new IllegalArgumentException("JSON pointer '#" + pointer + "' is not a schema in '" + file
+					+ "'. Only the root schema, definitions and the schemas used within the file can be referred from other files.");
+		}
+		return node;
+	}
+
+	private static class Errors {
+		private int maxErrors;
+		private List<String> messages = new ArrayList<>();
+
+		private Errors(int maxErrors) {
+			this.maxErrors = Math.max(1, maxErrors);
+		}
+
+		private void add(String path, String message) {
+			if (messages.size() < maxErrors) {
+				messages.add(path + ": " + message);
+			}
+		}
+
+		private boolean isFull() {
+			return messages.size() >= maxErrors;
+		}
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.jayway.jsonpath.JsonPath;
+
+/**
+ * Caches the compiled JSON schema files, so that the schema file is read and compiled only once even if it is used
+ * by many scenarios. Compiled schema is read-only and it is shared by all the scenarios and threads. Cached schema
+ * is compiled again when the last modified time or the size of the file is changed.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartJsonSchemaCache {
+	private static final int MAX_SCHEMAS = 256;
+	private static final SmartJsonSchemaCache instance = new SmartJsonSchemaCache();
+
+	private Map<Path, CachedSchema> schemas;
+	private long hitCount;
+	private long compileCount;
+
+	private SmartJsonSchemaCache() {
+		schemas = new LinkedHashMap<Path, CachedSchema>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Path, CachedSchema> eldest) {
+				return size() > MAX_SCHEMAS;
+			}
+		};
+	}
+
+	public static SmartJsonSchemaCache getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Returns the compiled schema. The schema file is compiled again if it is modified after the last compilation.
+	 *
+	 * @param schemaFile - the JSON schema file.
+	 * @return the compiled schema.
+	 * @throws IOException if an I/O error occurs while reading the schema file.
+	 * @throws IllegalArgumentException if the schema is not valid.
+	 */
+	public SmartJsonSchema getSchema(Path schemaFile) throws IOException {
+		Path path = schemaFile.toAbsolutePath().normalize();
+		long lastModifiedTime = Files.getLastModifiedTime(path).toMillis();
+		long size = Files.size(path);
+
+		synchronized (schemas) {
+			CachedSchema cachedSchema = schemas.get(path);
+			if (cachedSchema != null && cachedSchema.lastModifiedTime == lastModifiedTime && cachedSchema.fileSize == size) {
+				hitCount++;
+				return cachedSchema.schema;
+			}
+		}
+
+		Object schemaJson = JsonPath.parse(new String(Files.readAllBytes(path), StandardCharsets.UTF_8)).json();
+		SmartJsonSchema schema = SmartJsonSchema.compile(path, schemaJson, this::getReferredSchema);
+		synchronized (schemas) {
+			compileCount++;
+			schemas.put(path, new CachedSchema(schema, lastModifiedTime, size));
+		}
+		return schema;
+	}
+
+	private SmartJsonSchema getReferredSchema(Path schemaFile) {
+		try {
+			return getSchema(schemaFile);
+		} catch (IOException ex) {
+			throw new UncheckedIOException("Failed to read '" + schemaFile + "' referred JSON schema file.", ex);
+		}
+	}
+
+	public void clear() {
+		synchronized (schemas) {
+			schemas.clear();
+		}
+	}
+
+	/**
+	 * Returns the statistics in the format given below:
+	 * <blockquote><pre>
+	 *   { cachedSchemas: 40, hitCount: 12000, compileCount: 40 }
+	 * </pre></blockquote>
+	 *
+	 * @return the statistics.
+	 */
+	public Map<String, Object> getStatistics() {
+		Map<String, Object> stats = new LinkedHashMap<>();
+		synchronized (schemas) {
+			stats.put("cachedSchemas", schemas.size());
+			stats.put("hitCount", hitCount);
+			stats.put("compileCount", compileCount);
+		}
+		return stats;
+	}
+
+	private static class CachedSchema {
+		private SmartJsonSchema schema;
+		private long lastModifiedTime;
+		private long fileSize;
+
+		private CachedSchema(SmartJsonSchema schema, long lastModifiedTime, long fileSize) {
+			this.schema = schema;
+			this.lastModifiedTime = lastModifiedTime;
+			this.fileSize = fileSize;
+		}
+	}
+}
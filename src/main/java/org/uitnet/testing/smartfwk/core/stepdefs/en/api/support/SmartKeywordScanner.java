@@ -0,0 +1,283 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Scans the text contents for the keywords in one pass using the keyword automaton (Aho-Corasick), so the time
+ * taken depends on the length of the contents and not on the number of keywords. The contents are read chunk by
+ * chunk, so that large files can be scanned without loading them into memory.
+ *
+ * The automaton is compiled once for the keywords using {@link #compile(List)} and it can be used to scan any
+ * number of contents.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartKeywordScanner {
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int ASCII_SIZE = 128;
+
+	private List<String> keywords;
+	// distinct non-empty keywords, index is the pattern id.
+	private List<String> patterns;
+	// pattern id of each keyword, -1 for empty keyword.
+	private int[] keywordPatternIds;
+
+	// children of the node n are at [childStart[n], childStart[n + 1]) sorted by the character.
+	private int[] childStart;
+	private char[] childChars;
+	private int[] childNodes;
+	private int[] rootAsciiChildren;
+	private int[] failureLinks;
+	// pattern id that ends at the node, -1 if none.
+	private int[] nodePatternIds;
+	// nearest node in the failure chain that has the pattern, -1 if none.
+	private int[] outputLinks;
+
+	private SmartKeywordScanner(List<String> keywords) {
+		this.keywords = new ArrayList<>(keywords);
+		build();
+	}
+
+	/**
+	 * Compiles the keywords into the automaton.
+	 *
+	 * @param keywords - the keywords to find.
+	 * @return the compiled scanner.
+	 */
+	public static SmartKeywordScanner compile(List<String> keywords) {
+		return new SmartKeywordScanner(keywords);
+	}
+
+	/**
+	 * Scans the file (UTF-8 text) and returns the keywords that are not found in the file.
+	 *
+	 * @param file - the file to scan.
+	 * @param inOrder - true if the keywords should appear in the same order.
+	 * @return the keywords that are not found, empty list if all are found.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public List<String> findMissingKeywords(File file, boolean inOrder) throws IOException {
+		try (Reader reader = new InputStreamReader(Files.newInputStream(file.toPath()), StandardCharsets.UTF_8)) {
+			return findMissingKeywords(reader, inOrder);
+		}
+	}
+
+	/**
+	 * Scans the contents of the reader and returns the keywords that are not found in the contents. Reading is
+	 * stopped as soon as all the keywords are found.
+	 *
+	 * @param reader - the reader of the contents.
+	 * @param inOrder - true if the keywords should appear in the same order (one after the other without overlap),
+	 *                in this case the first keyword not found in order and all the keywords after it are returned.
+	 * @return the keywords that are not found, empty list if all are found.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public List<String> findMissingKeywords(Reader reader, boolean inOrder) throws IOException {
+		return inOrder ? findMissingKeywordsInOrder(reader) : findMissingKeywordsInAnyOrder(reader);
+	}
+
+	private List<String> findMissingKeywordsInAnyOrder(Reader reader) throws IOException {
+		boolean[] found = new boolean[patterns.size()];
+		int remaining = patterns.size();
+
+		char[] buffer = new char[BUFFER_SIZE];
+		int node = 0;
+		int count;
+		while (remaining > 0 && (count = reader.read(buffer)) != -1) {
+			for (int i = 0; i < count; i++) {
+				node = next(node, buffer[i]);
+				for (int n = nodePatternIds[node] >= 0 ? node : outputLinks[node]; n >= 0; n = outputLinks[n]) {
+					int patternId = nodePatternIds[n];
+					if (!found[patternId]) {
+						found[patternId] = true;
+						remaining--;
+					}
+				}
+				if (remaining == 0) {
+					break;
+				}
+			}
+		}
+
+		LinkedList<String> missingKeywords = new LinkedList<>();
+		for (int i = 0; i < keywords.size(); i++) {
+			int patternId = keywordPatternIds[i];
+			if (patternId >= 0 && !found[patternId]) {
+				found[patternId] = true;
+				missingKeywords.add(keywords.get(i));
+			}
+		}
+		return missingKeywords;
+	}
+
+	private List<String> findMissingKeywordsInOrder(Reader reader) throws IOException {
+		int nextKeywordIndex = skipEmptyKeywords(0);
+		// position of the character after the last keyword found.
+		long searchFrom = 0;
+		long position = 0;
+
+		char[] buffer = new char[BUFFER_SIZE];
+		int node = 0;
+		int count;
+		while (nextKeywordIndex < keywords.size() && (count = reader.read(buffer)) != -1) {
+			for (int i = 0; i < count; i++, position++) {
+				node = next(node, buffer[i]);
+				int expectedPatternId = keywordPatternIds[nextKeywordIndex];
+				for (int n = nodePatternIds[node] >= 0 ? node : outputLinks[node]; n >= 0; n = outputLinks[n]) {
+					if (nodePatternIds[n] == expectedPatternId) {
+						if (position - keywords.get(nextKeywordIndex).length() + 1 >= searchFrom) {
+							searchFrom = position + 1;
+							nextKeywordIndex = skipEmptyKeywords(nextKeywordIndex + 1);
+						}
+						break;
+					}
+				}
+				if (nextKeywordIndex >= keywords.size()) {
+					break;
+				}
+			}
+		}
+		return new LinkedList<>(keywords.subList(nextKeywordIndex, keywords.size()));
+	}
+
+	private int skipEmptyKeywords(int keywordIndex) {
+		while (keywordIndex < keywords.size() && keywordPatternIds[keywordIndex] < 0) {
+			keywordIndex++;
+		}
+		return keywordIndex;
+	}
+
+	private int next(int node, char ch) {
+		while (true) {
+			int child = child(node, ch);
+			if (child >= 0) {
+				return child;
+			}
+			if (node == 0) {
+				return 0;
+			}
+			node = failureLinks[node];
+		}
+	}
+
+	private int child(int node, char ch) {
+		if (node == 0 && ch < ASCII_SIZE) {
+			return rootAsciiChildren[ch];
+		}
+		int index = Arrays.binarySearch(childChars, childStart[node], childStart[node + 1], ch);
+		return index >= 0 ? childNodes[index] : -1;
+	}
+
+	private void build() {
+		Map<String, Integer> patternIds = new LinkedHashMap<>();
+		keywordPatternIds = new int[keywords.size()];
+		for (int i = 0; i < keywords.size(); i++) {
+			String keyword = keywords.get(i);
+			if (keyword == null || keyword.isEmpty()) {
+				keywordPatternIds[i] = -1;
+			} else {
+				keywordPatternIds[i] = patternIds.computeIfAbsent(keyword, k -> patternIds.size());
+			}
+		}
+		patterns = new ArrayList<>(patternIds.keySet());
+
+		// keyword tree.
+		List<TreeMap<Character, Integer>> tree = new ArrayList<>();
+		List<Integer> treePatternIds = new ArrayList<>();
+		tree.add(new TreeMap<>());
+		treePatternIds.add(-1);
+		for (int patternId = 0; patternId < patterns.size(); patternId++) {
+			String pattern = patterns.get(patternId);
+			int node = 0;
+			for (int i = 0; i < pattern.length(); i++) {
+				Integer child = tree.get(node).get(pattern.charAt(i));
+				if (child == null) {
+					child = tree.size();
+					tree.add(new TreeMap<>());
+					treePatternIds.add(-1);
+					tree.get(node).put(pattern.charAt(i), child);
+				}
+				node = child;
+			}
+			treePatternIds.set(node, patternId);
+		}
+
+		int nodeCount = tree.size();
+		childStart = new int[nodeCount + 1];
+		childChars = new char[nodeCount - 1];
+		childNodes = new int[nodeCount - 1];
+		nodePatternIds = new int[nodeCount];
+		int index = 0;
+		for (int node = 0; node < nodeCount; node++) {
+			childStart[node] = index;
+			nodePatternIds[node] = treePatternIds.get(node);
+			for (Map.Entry<Character, Integer> child : tree.get(node).entrySet()) {
+				childChars[index] = child.getKey();
+				childNodes[index] = child.getValue();
+				index++;
+			}
+		}
+		childStart[nodeCount] = index;
+
+		rootAsciiChildren = new int[ASCII_SIZE];
+		Arrays.fill(rootAsciiChildren, -1);
+		for (Map.Entry<Character, Integer> child : tree.get(0).entrySet()) {
+			if (child.getKey() < ASCII_SIZE) {
+				rootAsciiChildren[child.getKey()] = child.getValue();
+			}
+		}
+
+		// failure and output links, breadth first so that the links of the shorter prefixes are ready.
+		failureLinks = new int[nodeCount];
+		outputLinks = new int[nodeCount];
+		outputLinks[0] = -1;
+		int[] queue = new int[nodeCount];
+		int head = 0;
+		int tail = 0;
+		for (int i = childStart[0]; i < childStart[1]; i++) {
+			failureLinks[childNodes[i]] = 0;
+			outputLinks[childNodes[i]] = -1;
+			queue[tail++] = childNodes[i];
+		}
+		while (head < tail) {
+			int node = queue[head++];
+			for (int i = childStart[node]; i < childStart[node + 1]; i++) {
+				int child = childNodes[i];
+				int failure = next(failureLinks[node], childChars[i]);
+				failureLinks[child] = failure;
+				outputLinks[child] = nodePatternIds[failure] >= 0 ? failure : outputLinks[failure];
+				queue[tail++] = child;
+			}
+		}
+	}
+}
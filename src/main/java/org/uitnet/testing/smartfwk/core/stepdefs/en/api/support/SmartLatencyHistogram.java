@@ -0,0 +1,142 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+/**
+ * Latency histogram with log-linear buckets (64 sub buckets per power of 2) so that the recorded values are kept with
+ * the precision of around 1.5%. The histogram uses fixed memory irrespective of the number of recorded values and
+ * histograms recorded by different threads can be merged into one.
+ *
+ * Values are recorded in microseconds. This class is not thread safe, each thread should record into its own
+ * histogram and merge it later.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartLatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 6;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int LINEAR_LIMIT = SUB_BUCKET_COUNT << 1;
+	private static final int BUCKET_COUNT = LINEAR_LIMIT + (63 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+	private long[] counts;
+	private long totalCount;
+	private long minValue;
+	private long maxValue;
+	private double sum;
+
+	public SmartLatencyHistogram() {
+		counts = new long[BUCKET_COUNT];
+		reset();
+	}
+
+	/**
+	 * Records the latency value.
+	 *
+	 * @param valueInMicros - the latency in microseconds. Negative values are recorded as 0.
+	 */
+	public void recordValue(long valueInMicros) {
+		long value = Math.max(0, valueInMicros);
+		counts[indexOf(value)]++;
+		totalCount++;
+		sum += value;
+		minValue = Math.min(minValue, value);
+		maxValue = Math.max(maxValue, value);
+	}
+
+	/**
+	 * Adds the recorded values of other histogram into this histogram.
+	 *
+	 * @param other - the other histogram.
+	 */
+	public void add(SmartLatencyHistogram other) {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			counts[i] += other.counts[i];
+		}
+		totalCount += other.totalCount;
+		sum += other.sum;
+		minValue = Math.min(minValue, other.minValue);
+		maxValue = Math.max(maxValue, other.maxValue);
+	}
+
+	/**
+	 * Returns the value at the specified percentile. Returned value is the highest value that is equivalent
+	 * to the bucket where the percentile falls, but never greater than the max recorded value.
+	 *
+	 * @param percentile - the percentile (0 - 100).
+	 * @return the value in microseconds, 0 if nothing is recorded.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (totalCount == 0) {
+			return 0;
+		}
+
+		double p = Math.min(Math.max(percentile, 0.0), 100.0);
+		long countAtPercentile = Math.max(1, (long) Math.ceil((p / 100.0) * totalCount));
+		long runningCount = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			runningCount += counts[i];
+			if (runningCount >= countAtPercentile) {
+				return Math.min(highestEquivalentValue(i), maxValue);
+			}
+		}
+		return maxValue;
+	}
+
+	public long getTotalCount() {
+		return totalCount;
+	}
+
+	public long getMinValue() {
+		return totalCount == 0 ? 0 : minValue;
+	}
+
+	public long getMaxValue() {
+		return totalCount == 0 ? 0 : maxValue;
+	}
+
+	public double getMean() {
+		return totalCount == 0 ? 0 : sum / totalCount;
+	}
+
+	public void reset() {
+		java.util.Arrays.fill(counts, 0);
+		totalCount = 0;
+		sum = 0;
+		minValue = Long.MAX_VALUE;
+		maxValue = 0;
+	}
+
+	private static int indexOf(long value) {
+		if (value < LINEAR_LIMIT) {
+			return (int) value;
+		}
+		int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+		int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+		return LINEAR_LIMIT + (shift - 1) * SUB_BUCKET_COUNT + subBucket;
+	}
+
+	private static long highestEquivalentValue(int index) {
+		if (index < LINEAR_LIMIT) {
+			return index;
+		}
+		int shift = (index - LINEAR_LIMIT) / SUB_BUCKET_COUNT + 1;
+		long subBucket = (index - LINEAR_LIMIT) % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+		return ((subBucket + 1) << shift) - 1;
+	}
+}
@@ -0,0 +1,139 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Describes the body of the multipart request (upload files / multipart form data), it is used in place of the
+ * request body to prepare the record / replay key of the request, please refer {@link SmartHttpRecordReplayStore}.
+ * The key contains the name, type and content type of each part and the SHA-256 hash of its contents.
+ *
+ * The parts are only remembered when they are added, the contents are hashed when the key is needed for the first
+ * time, so nothing is read or hashed if the record / replay mode is off.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartMultipartBodyKey {
+	private List<Part> parts = new ArrayList<>();
+	private String key;
+
+	/**
+	 * Adds the part whose contents are in memory.
+	 *
+	 * @param partName - the name of the part.
+	 * @param fileNameOrPartType - the file name or the part type.
+	 * @param contentType - the content type of the part.
+	 * @param contents - the contents of the part, may be null.
+	 * @return this object.
+	 */
+	public SmartMultipartBodyKey addPart(String partName, String fileNameOrPartType, String contentType, byte[] contents) {
+		parts.add(new Part(partName, fileNameOrPartType, contentType, contents, null));
+		key = null;
+		return this;
+	}
+
+	/**
+	 * Adds the part whose contents are uploaded from the file.
+	 *
+	 * @param partName - the name of the part.
+	 * @param fileName - the file name.
+	 * @param contentType - the content type of the part.
+	 * @param file - the file that is uploaded.
+	 * @return this object.
+	 */
+	public SmartMultipartBodyKey addFilePart(String partName, String fileName, String contentType, Path file) {
+		parts.add(new Part(partName, fileName, contentType, null, file));
+		key = null;
+		return this;
+	}
+
+	/**
+	 * Returns the key of the multipart body.
+	 *
+	 * @return the key.
+	 * @throws UncheckedIOException if an I/O error occurs while reading the file of the part.
+	 */
+	public String getKey() {
+		if (key == null) {
+			StringBuilder text = new StringBuilder();
+			for (Part part : parts) {
+				text.append(part.name).append('\n').append(part.type).append('\n').append(part.contentType).append('\n')
+						.append(part.getContentsHash()).append('\n');
+			}
+			key = text.toString();
+		}
+		return key;
+	}
+
+	private static class Part {
+		private String name;
+		private String type;
+		private String contentType;
+		private byte[] contents;
+		private Path file;
+
+		private Part(String name, String type, String contentType, byte[] contents, Path file) {
+			this.name = name;
+			this.type = type;
+			this.contentType = contentType;
+			this.contents = contents;
+			this.file = file;
+		}
+
+		private String getContentsHash() {
+			MessageDigest digest;
+			try {
+				digest = MessageDigest.getInstance("SHA-256");
+			} catch (NoSuchAlgorithmException ex) {
+				throw new IllegalStateException("SHA-256 algorithm not found.", ex);
+			}
+
+			if (file != null) {
+				try (InputStream in = Files.newInputStream(file)) {
+					byte[] buffer = new byte[64 * 1024];
+					int count;
+					while ((count = in.read(buffer)) != -1) {
+						digest.update(buffer, 0, count);
+					}
+				} catch (IOException ex) {
+					throw new UncheckedIOException("Failed to read '" + file + "' file.", ex);
+				}
+			} else if (contents != null) {
+				digest.update(contents);
+			} else {
+				return "null";
+			}
+
+			StringBuilder hex = new StringBuilder();
+			for (byte b : digest.digest()) {
+				hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return hex.toString();
+		}
+	}
+}
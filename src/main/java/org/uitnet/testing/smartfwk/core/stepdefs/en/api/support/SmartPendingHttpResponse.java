@@ -0,0 +1,85 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.uitnet.testing.smartfwk.api.core.support.HttpResponse;
+
+/**
+ * HTTP request that is being executed in background. It is stored into the variable by the asynchronous
+ * HTTP request steps and the response is retrieved later using the await step.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartPendingHttpResponse {
+	private String method;
+	private String targetURL;
+	private long startTime;
+	private Future<HttpResponse> future;
+
+	public SmartPendingHttpResponse(String method, String targetURL, Future<HttpResponse> future) {
+		this.method = method;
+		this.targetURL = targetURL;
+		this.future = future;
+		this.startTime = System.currentTimeMillis();
+	}
+
+	public String getMethod() {
+		return method;
+	}
+
+	public String getTargetURL() {
+		return targetURL;
+	}
+
+	/**
+	 * Returns the time (in milliseconds) elapsed since the request is submitted.
+	 *
+	 * @return the elapsed time in milliseconds.
+	 */
+	public long getElapsedTimeInMillis() {
+		return System.currentTimeMillis() - startTime;
+	}
+
+	public boolean isDone() {
+		return future.isDone();
+	}
+
+	public boolean cancel() {
+		return future.cancel(true);
+	}
+
+	/**
+	 * Waits for the completion of the request and returns the response.
+	 *
+	 * @param maxTimeToWaitInSeconds - the maximum time to wait.
+	 * @return the HTTP response.
+	 * @throws InterruptedException if the current thread is interrupted while waiting.
+	 * @throws ExecutionException if the request is failed.
+	 * @throws TimeoutException if the request is not completed within the specified time.
+	 */
+	public HttpResponse await(int maxTimeToWaitInSeconds)
+			throws InterruptedException, ExecutionException, TimeoutException {
+		return future.get(maxTimeToWaitInSeconds, TimeUnit.SECONDS);
+	}
+}
@@ -0,0 +1,190 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Caches the contents of the request template files, so that the template file is read only once even if it is
+ * used by many scenarios. Cached contents are read again when the last modified time or the size of the file is
+ * changed.
+ *
+ * Only the file read is cached. Variables are applied on the whole contents of the template every time it is
+ * rendered, so the result is same as applying the variables on the contents read from the file.
+ *
+ * The cache keeps the render time statistics of each template.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartRequestTemplateCache {
+	private static final int MAX_TEMPLATES = 256;
+	private static final SmartRequestTemplateCache instance = new SmartRequestTemplateCache();
+
+	private Map<Path, CachedTemplate> templates;
+
+	private SmartRequestTemplateCache() {
+		templates = new LinkedHashMap<Path, CachedTemplate>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Path, CachedTemplate> eldest) {
+				return size() > MAX_TEMPLATES;
+			}
+		};
+	}
+
+	public static SmartRequestTemplateCache getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Applies the variables on the contents of the template file and returns the result.
+	 *
+	 * @param templateFile - the template file.
+	 * @param variablesResolver - applies the variables on the whole contents of the template, like
+	 *            scenarioContext::applyParamsValueOnText.
+	 * @return the contents of the template after applying the variables.
+	 * @throws IOException if an I/O error occurs while reading the template file.
+	 */
+	public String render(Path templateFile, UnaryOperator<String> variablesResolver) throws IOException {
+		return getTemplate(templateFile).render(variablesResolver);
+	}
+
+	/**
+	 * Returns the cached template. The template file is read again if it is modified after the last read.
+	 *
+	 * @param templateFile - the template file.
+	 * @return the cached template.
+	 * @throws IOException if an I/O error occurs while reading the template file.
+	 */
+	public CachedTemplate getTemplate(Path templateFile) throws IOException {
+		Path path = templateFile.toAbsolutePath().normalize();
+		long lastModifiedTime = Files.getLastModifiedTime(path).toMillis();
+		long size = Files.size(path);
+
+		CachedTemplate template;
+		synchronized (templates) {
+			template = templates.get(path);
+		}
+		if (template != null && template.lastModifiedTime == lastModifiedTime && template.fileSize == size) {
+			return template;
+		}
+
+		CachedTemplate newTemplate = new CachedTemplate(path, lastModifiedTime, size, Files.readString(path));
+		synchronized (templates) {
+			if (template != null) {
+				newTemplate.readCount = template.readCount + 1;
+			}
+			templates.put(path, newTemplate);
+		}
+		return newTemplate;
+	}
+
+	public void clear() {
+		synchronized (templates) {
+			templates.clear();
+		}
+	}
+
+	/**
+	 * Returns the statistics of the cached templates in the format given below (time is in milliseconds):
+	 * <blockquote><pre>
+	 * {
+	 *   "/project/test-data/create-user.json": {
+	 *     length: 512, readCount: 1, renderCount: 200,
+	 *     renderTime: { min: 0.01, mean: 0.02, max: 0.4, p50: 0.02, p90: 0.03, p95: 0.03, p99: 0.1, p999: 0.4 }
+	 *   }
+	 * }
+	 * </pre></blockquote>
+	 *
+	 * @return the statistics.
+	 */
+	public Map<String, Object> getStatistics() {
+		List<CachedTemplate> cachedTemplates;
+		synchronized (templates) {
+			cachedTemplates = new ArrayList<>(templates.values());
+		}
+
+		Map<String, Object> stats = new LinkedHashMap<>();
+		for (CachedTemplate template : cachedTemplates) {
+			stats.put(template.path.toString(), template.getStatistics());
+		}
+		return stats;
+	}
+
+	/**
+	 * Contents of the template file read at the specified last modified time.
+	 */
+	public static class CachedTemplate {
+		private Path path;
+		private long lastModifiedTime;
+		private long fileSize;
+		private String contents;
+		private int readCount = 1;
+		private SmartLatencyHistogram renderTimeHistogram = new SmartLatencyHistogram();
+
+		private CachedTemplate(Path path, long lastModifiedTime, long fileSize, String contents) {
+			this.path = path;
+			this.lastModifiedTime = lastModifiedTime;
+			this.fileSize = fileSize;
+			this.contents = contents;
+		}
+
+		/**
+		 * Applies the variables on the whole contents of the template and returns the result.
+		 *
+		 * @param variablesResolver - applies the variables on the contents.
+		 * @return the result.
+		 */
+		public String render(UnaryOperator<String> variablesResolver) {
+			long startTime = System.nanoTime();
+			String result = variablesResolver.apply(contents);
+
+			long elapsedMicros = (System.nanoTime() - startTime) / 1000;
+			synchronized (this) {
+				renderTimeHistogram.recordValue(elapsedMicros);
+			}
+			return result;
+		}
+
+		public Path getPath() {
+			return path;
+		}
+
+		public String getContents() {
+			return contents;
+		}
+
+		public synchronized Map<String, Object> getStatistics() {
+			Map<String, Object> stats = new LinkedHashMap<>();
+			stats.put("length", contents.length());
+			stats.put("readCount", readCount);
+			stats.put("renderCount", renderTimeHistogram.getTotalCount());
+			stats.put("renderTime", SmartHttpLoadGenerator.toLatencyInfo(renderTimeHistogram));
+			return stats;
+		}
+	}
+}
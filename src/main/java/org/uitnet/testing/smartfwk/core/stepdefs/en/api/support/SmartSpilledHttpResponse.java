@@ -0,0 +1,225 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.uitnet.testing.smartfwk.api.core.support.HttpResponse;
+
+/**
+ * HTTP response whose payload is spilled into a temporary file, so that the large payload is not referenced by the
+ * response variable till the end of the scenario. The temporary file is deleted after the execution of the scenario.
+ *
+ * Limitations:
+ * <blockquote><pre>
+ *   - The API action handler returns the payload as string, so the whole payload is on the heap till the original
+ *     response is released (after the step). The payload is written into the file using the streaming encoder, so
+ *     spilling does not create another full copy of the payload.
+ *   - {@link #getPayload()} decodes the whole file back into string (softly cached, so it is released under memory
+ *     pressure). The API steps do not call it: keywords, JSON path and XML path verification read the payload using
+ *     {@link #openPayloadReader()}, and the JSON / XML documents are parsed from the file
+ *     (please refer {@link SmartHttpResponseDocumentCache}). Framework validators that read the payload (like
+ *     HttpResponse.getValidator().validateBodyContainsKeywords()) still load it into memory.
+ * </pre></blockquote>
+ *
+ * Spilling is disabled by default and it is enabled for the target server in the apiStepDefs section of
+ * ApiConfig.yaml file in the format given below:
+ * <blockquote><pre>
+ * apiStepDefs:
+ *   targetServers:
+ *     MyServer:
+ *       responseSpill:
+ *         thresholdInBytes: 1048576    # payload larger than 1 MB is spilled into temporary file
+ * </pre></blockquote>
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartSpilledHttpResponse extends HttpResponse {
+	private static final int WRITE_CHUNK_SIZE = 64 * 1024;
+
+	private Path payloadFile;
+	private long payloadSizeInBytes;
+	private SoftReference<String> payloadRef;
+	private boolean spilled;
+
+	public SmartSpilledHttpResponse() {
+		super();
+	}
+
+	/**
+	 * Returns the spill threshold of the specified target server.
+	 *
+	 * @param appName - the configured application name.
+	 * @param targetServer - the API target server name that is configured in ApiConfig.yaml file.
+	 * @return the threshold in bytes, -1 if spilling is disabled.
+	 */
+	public static long getThresholdInBytes(String appName, String targetServer) {
+		return SmartApiTargetServerConfig.getInstance(appName, targetServer)
+				.getValue("responseSpill.thresholdInBytes", Number.class, -1).longValue();
+	}
+
+	/**
+	 * Spills the payload of the HTTP response into temporary file if the payload is larger than the threshold. The
+	 * timing of the response (if any) is attached to the spilled response.
+	 *
+	 * @param httpResponse - the HTTP response.
+	 * @param thresholdInBytes - the threshold, -1 to disable spilling.
+	 * @param resources - the resources of the scenario that delete the temporary file after the scenario.
+	 * @return the spilled response, the same response if it is not spilled.
+	 * @throws IOException if an I/O error occurs while writing the temporary file.
+	 */
+	public static HttpResponse spillIfLarge(HttpResponse httpResponse, long thresholdInBytes,
+			SmartApiScenarioResources resources) throws IOException {
+		if (thresholdInBytes < 0 || httpResponse == null || httpResponse instanceof SmartSpilledHttpResponse) {
+			return httpResponse;
+		}
+
+		// UTF-8 payload is at most three times the number of characters, so the size of the small payload is not counted.
+		String payload = httpResponse.getPayload();
+		if (payload == null || payload.length() <= thresholdInBytes / 3 || getUtf8Length(payload) <= thresholdInBytes) {
+			return httpResponse;
+		}
+
+		Path payloadFile = Files.createTempFile("smart-http-response-", ".payload");
+		resources.addTempFile(payloadFile);
+		// encoded chunk by chunk, malformed characters are replaced same as String.getBytes(UTF_8).
+		try (BufferedWriter writer = new BufferedWriter(
+				new OutputStreamWriter(Files.newOutputStream(payloadFile), StandardCharsets.UTF_8), WRITE_CHUNK_SIZE)) {
+			for (int offset = 0; offset < payload.length(); offset += WRITE_CHUNK_SIZE) {
+				writer.write(payload, offset, Math.min(WRITE_CHUNK_SIZE, payload.length() - offset));
+			}
+		}
+
+		SmartSpilledHttpResponse spilledResponse = new SmartSpilledHttpResponse();
+		spilledResponse.setCode(httpResponse.getCode());
+		spilledResponse.setMessage(httpResponse.getMessage());
+		spilledResponse.setHeaders(httpResponse.getHeaders());
+		spilledResponse.setPayloadType(httpResponse.getPayloadType());
+		spilledResponse.payloadFile = payloadFile;
+		spilledResponse.payloadSizeInBytes = Files.size(payloadFile);
+		spilledResponse.spilled = true;
+
+		SmartHttpTiming timing = SmartHttpTiming.of(httpResponse);
+		if (timing != null) {
+			SmartHttpTiming.attach(spilledResponse, timing);
+		}
+		return spilledResponse;
+	}
+
+	public boolean isSpilled() {
+		return spilled;
+	}
+
+	public Path getPayloadFile() {
+		return payloadFile;
+	}
+
+	public long getPayloadSizeInBytes() {
+		return payloadSizeInBytes;
+	}
+
+	/**
+	 * Returns the payload. The spilled payload is decoded as a whole from the memory-mapped view of the temporary file,
+	 * so it is loaded into memory again; the same payload object is returned till it is released by the garbage
+	 * collector. Use {@link #openPayloadReader()} to read the payload without loading it.
+	 *
+	 * @return the payload.
+	 */
+	@Override
+	public synchronized String getPayload() {
+		if (!spilled) {
+			return super.getPayload();
+		}
+
+		String payload = payloadRef == null ? null : payloadRef.get();
+		if (payload == null) {
+			payload = readPayload();
+			payloadRef = new SoftReference<>(payload);
+		}
+		return payload;
+	}
+
+	@Override
+	public synchronized void setPayload(String payload) {
+		super.setPayload(payload);
+		spilled = false;
+		payloadRef = null;
+	}
+
+	/**
+	 * Returns the reader of the payload. The spilled payload is decoded while it is read, so it is never loaded into
+	 * memory as a whole. The caller must close the reader.
+	 *
+	 * @return the reader of the payload.
+	 * @throws IOException if an I/O error occurs while opening the temporary file.
+	 */
+	public synchronized Reader openPayloadReader() throws IOException {
+		String payload = spilled ? (payloadRef == null ? null : payloadRef.get()) : super.getPayload();
+		if (payload != null || !spilled) {
+			return new StringReader(payload == null ? "" : payload);
+		}
+		return Channels.newReader(FileChannel.open(payloadFile, StandardOpenOption.READ), StandardCharsets.UTF_8.newDecoder(), -1);
+	}
+
+	private static long getUtf8Length(String text) {
+		long length = 0;
+		for (int i = 0; i < text.length(); i++) {
+			char ch = text.charAt(i);
+			if (ch < 0x80) {
+				length++;
+			} else if (ch < 0x800) {
+				length += 2;
+			} else if (Character.isHighSurrogate(ch) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+				length += 4;
+				i++;
+			} else if (Character.isSurrogate(ch)) {
+				// malformed character is replaced by '?'.
+				length++;
+			} else {
+				length += 3;
+			}
+		}
+		return length;
+	}
+
+	private String readPayload() {
+		if (payloadSizeInBytes > Integer.MAX_VALUE) {
+			throw new IllegalStateException("Spilled payload of " + payloadSizeInBytes + " bytes is too large to read as string.");
+		}
+		try (FileChannel channel = FileChannel.open(payloadFile, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, payloadSizeInBytes);
+			return StandardCharsets.UTF_8.decode(buffer).toString();
+		} catch (IOException ex) {
+			throw new UncheckedIOException("Failed to read the spilled payload from '" + payloadFile + "' file.", ex);
+		}
+	}
+}
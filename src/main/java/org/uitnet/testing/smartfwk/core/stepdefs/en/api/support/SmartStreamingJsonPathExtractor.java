@@ -0,0 +1,569 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.uitnet.testing.smartfwk.core.stepdefs.en.common.data.support.SmartJsonPathSegment;
+
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.spi.json.JsonProvider;
+
+/**
+ * Extracts the value of the JSON path from the JSON text without parsing the whole document into memory. The JSON
+ * text is read token by token, the values that are not on the path are skipped without creating any object and
+ * only the matched values are materialized. Matched values are created using the JSON provider of the specified
+ * configuration (like json-smart JSONObject / JSONArray), so they are same as the values read from the parsed document.
+ *
+ * Reading is stopped as soon as no more value can match the path: after the matched value for the path without wildcard
+ * (like $.a.b[3].c), after the container of the first wildcard for the path with wildcard (like the items array for
+ * $.items[*].id). So the JSON text after it is not read and it is not checked. If the remainder needs to be checked
+ * then use {@link #extract(Reader, Configuration, boolean)}: the whole JSON text is read and its syntax is checked, so
+ * the JSON text that is truncated or invalid after the matched value is reported as invalid (same as the parsed
+ * document), and the objects on the path that contain duplicate member names are reported as invalid also (the
+ * parsed document keeps the last duplicate member while the extraction that stops early matches the first one).
+ *
+ * Supported path syntax is the syntax of {@link SmartJsonPathSegment} except negative array index (that needs
+ * the size of array in advance). For other paths {@link #compile(String)} returns null and the caller should use
+ * the JSON path library on the parsed document.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartStreamingJsonPathExtractor {
+	private static final int BUFFER_SIZE = 8192;
+
+	private String jsonPath;
+	private List<SmartJsonPathSegment> segments;
+	private boolean indefinite;
+	// segments before the first wildcard match at most one value, so reading can stop once their value is matched.
+	private int firstWildcardIndex;
+
+	private SmartStreamingJsonPathExtractor(String jsonPath, List<SmartJsonPathSegment> segments) {
+		this.jsonPath = jsonPath;
+		this.segments = segments;
+		this.indefinite = SmartJsonPathSegment.isIndefinite(segments);
+		firstWildcardIndex = segments.size();
+		for (int i = 0; i < segments.size(); i++) {
+			if (segments.get(i).getType() == SmartJsonPathSegment.Type.wildcard) {
+				firstWildcardIndex = i;
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Compiles the JSON path for streaming extraction.
+	 *
+	 * @param jsonPath - the JSON path like $.a.b[3].c or $.items[*].id
+	 * @return the extractor, null if the JSON path can not be evaluated in streaming mode.
+	 */
+	public static SmartStreamingJsonPathExtractor compile(String jsonPath) {
+		List<SmartJsonPathSegment> segments = SmartJsonPathSegment.parse(jsonPath == null ? null : jsonPath.trim());
+		if (segments == null || segments.isEmpty()) {
+			return null;
+		}
+		for (SmartJsonPathSegment segment : segments) {
+			if (segment.getType() == SmartJsonPathSegment.Type.index && segment.getIndex() < 0) {
+				return null;
+			}
+		}
+		return new SmartStreamingJsonPathExtractor(jsonPath, segments);
+	}
+
+	public String getJsonPath() {
+		return jsonPath;
+	}
+
+	/**
+	 * Returns true if the path has wildcard, in that case the extracted value is always a list.
+	 *
+	 * @return true if the path is indefinite.
+	 */
+	public boolean isIndefinite() {
+		return indefinite;
+	}
+
+	/**
+	 * Reads the JSON text till no more value can match the path and extracts the value of the path. The JSON text after
+	 * it is not read. Reader is not closed.
+	 *
+	 * @param reader - the reader of JSON text.
+	 * @param configuration - the configuration whose JSON provider is used to create the matched values.
+	 * @return the result of extraction.
+	 * @throws IOException if an I/O error occurs or the JSON text that is read is not valid.
+	 */
+	public Result extract(Reader reader, Configuration configuration) throws IOException {
+		return extract(reader, configuration, false);
+	}
+
+	/**
+	 * Reads the JSON text and extracts the value of the path. Reader is not closed.
+	 *
+	 * @param reader - the reader of JSON text.
+	 * @param configuration - the configuration whose JSON provider is used to create the matched values.
+	 * @param validateRemainder - true to read the whole JSON text and check its syntax after the value is matched, false
+	 *                          to stop reading once no more value can match the path.
+	 * @return the result of extraction.
+	 * @throws IOException if an I/O error occurs or JSON text is not valid.
+	 */
+	public Result extract(Reader reader, Configuration configuration, boolean validateRemainder) throws IOException {
+		JsonProvider provider = configuration.jsonProvider();
+		Result result = new Result(indefinite, provider);
+		JsonTokenReader in = new JsonTokenReader(reader, provider);
+		if (!new Matcher(in, result, validateRemainder).match(0)) {
+			in.consumeEnd();
+		}
+		return result;
+	}
+
+	/**
+	 * Result of the extraction.
+	 */
+	public static class Result {
+		private JsonProvider provider;
+		private boolean found;
+		private Object value;
+		private Object values;
+		private int valueCount;
+
+		private Result(boolean indefinite, JsonProvider provider) {
+			this.provider = provider;
+			if (indefinite) {
+				values = provider.createArray();
+				// indefinite path always results into the array, even if no value is matched.
+				found = true;
+				value = values;
+			}
+		}
+
+		private void add(Object matchedValue) {
+			if (values != null) {
+				provider.setArrayIndex(values, valueCount++, matchedValue);
+			} else {
+				found = true;
+				value = matchedValue;
+			}
+		}
+
+		/**
+		 * Returns true if the path is found. Always true for indefinite path.
+		 *
+		 * @return true if the path is found.
+		 */
+		public boolean isFound() {
+			return found;
+		}
+
+		/**
+		 * Returns the extracted value. Objects, arrays and numbers are created by the JSON provider.
+		 *
+		 * @return the extracted value, the array of matched values for indefinite path.
+		 */
+		public Object getValue() {
+			return value;
+		}
+	}
+
+	private class Matcher {
+		private JsonTokenReader in;
+		private Result result;
+		private boolean validateRemainder;
+
+		private Matcher(JsonTokenReader in, Result result, boolean validateRemainder) {
+			this.in = in;
+			this.result = result;
+			this.validateRemainder = validateRemainder;
+		}
+
+		/**
+		 * Matches the value at the current position with the path starting from the specified segment. The value is
+		 * read completely unless the extraction is completed.
+		 *
+		 * @param segmentIndex - the segment to match.
+		 * @return true if the extraction is completed and reading should be stopped.
+		 */
+		private boolean match(int segmentIndex) throws IOException {
+			if (segmentIndex == segments.size()) {
+				result.add(in.readValue());
+				return false;
+			}
+			boolean stopAfterMatch = !validateRemainder && segmentIndex < firstWildcardIndex;
+
+			SmartJsonPathSegment segment = segments.get(segmentIndex);
+			int c = in.peek();
+			if (c == '{' && segment.getType() != SmartJsonPathSegment.Type.index) {
+				in.consume('{');
+				boolean wildcard = segment.getType() == SmartJsonPathSegment.Type.wildcard;
+				Set<String> names = wildcard ? new HashSet<>() : null;
+				boolean matched = false;
+				while (in.nextMember('}')) {
+					String name = in.readString();
+					in.consume(':');
+					if (wildcard) {
+						if (!names.add(name)) {
+							throw in.syntaxError("duplicate member '" + name + "'");
+						}
+						match(segmentIndex + 1);
+					} else if (name.equals(segment.getName())) {
+						// parsed document keeps the last duplicate member, so it is not matched while streaming.
+						if (matched) {
+							throw in.syntaxError("duplicate member '" + name + "'");
+						}
+						if (match(segmentIndex + 1) || stopAfterMatch) {
+							return true;
+						}
+						matched = true;
+					} else {
+						in.skipValue();
+					}
+				}
+			} else if (c == '[' && segment.getType() != SmartJsonPathSegment.Type.property) {
+				in.consume('[');
+				boolean wildcard = segment.getType() == SmartJsonPathSegment.Type.wildcard;
+				int index = 0;
+				while (in.nextMember(']')) {
+					if (wildcard) {
+						match(segmentIndex + 1);
+					} else if (index == segment.getIndex()) {
+						if (match(segmentIndex + 1) || stopAfterMatch) {
+							return true;
+						}
+					} else {
+						in.skipValue();
+					}
+					index++;
+				}
+			} else {
+				in.skipValue();
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Minimal pull reader of JSON tokens.
+	 */
+	private static class JsonTokenReader {
+		private Reader reader;
+		private JsonProvider provider;
+		private char[] buffer = new char[BUFFER_SIZE];
+		private int pos;
+		private int limit;
+		private long offset;
+		// first member of the container does not have the comma before it.
+		private boolean firstMember;
+
+		private JsonTokenReader(Reader reader, JsonProvider provider) {
+			this.reader = reader;
+			this.provider = provider;
+		}
+
+		private int read() throws IOException {
+			if (pos == limit && !fill()) {
+				return -1;
+			}
+			return buffer[pos++];
+		}
+
+		private boolean fill() throws IOException {
+			offset += limit;
+			pos = 0;
+			limit = 0;
+			int n;
+			while ((n = reader.read(buffer, 0, buffer.length)) == 0) {
+				// retry
+			}
+			if (n < 0) {
+				return false;
+			}
+			limit = n;
+			return true;
+		}
+
+		/**
+		 * Returns the next non-whitespace character without consuming it, -1 at the end of stream.
+		 */
+		private int peek() throws IOException {
+			while (true) {
+				if (pos == limit && !fill()) {
+					return -1;
+				}
+				char c = buffer[pos];
+				if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+					pos++;
+				} else {
+					return c;
+				}
+			}
+		}
+
+		private void consume(char expected) throws IOException {
+			int c = peek();
+			if (c != expected) {
+				throw syntaxError("'" + expected + "' expected but found " + describe(c));
+			}
+			pos++;
+			if (expected == '{' || expected == '[') {
+				firstMember = true;
+			}
+		}
+
+		/**
+		 * Moves to the next member of the object / array.
+		 *
+		 * @param end - the closing character of the container.
+		 * @return true if there is next member, false if the container is closed.
+		 */
+		private boolean nextMember(char end) throws IOException {
+			int c = peek();
+			if (c == end) {
+				pos++;
+				firstMember = false;
+				return false;
+			}
+			if (firstMember) {
+				firstMember = false;
+				return true;
+			}
+			if (c != ',') {
+				throw syntaxError("',' or '" + end + "' expected but found " + describe(c));
+			}
+			pos++;
+			return true;
+		}
+
+		private String readString() throws IOException {
+			consume('"');
+			StringBuilder text = new StringBuilder();
+			while (true) {
+				int start = pos;
+				while (pos < limit && buffer[pos] != '"' && buffer[pos] != '\\') {
+					pos++;
+				}
+				text.append(buffer, start, pos - start);
+				int c = read();
+				if (c == '"') {
+					return text.toString();
+				} else if (c == '\\') {
+					text.append(readEscapedChar());
+				} else if (c < 0) {
+					throw syntaxError("unterminated string");
+				} else {
+					// buffer was refilled.
+					text.append((char) c);
+				}
+			}
+		}
+
+		private char readEscapedChar() throws IOException {
+			int c = read();
+			switch (c) {
+			case '"':
+			case '\\':
+			case '/':
+				return (char) c;
+			case 'b':
+				return '\b';
+			case 'f':
+				return '\f';
+			case 'n':
+				return '\n';
+			case 'r':
+				return '\r';
+			case 't':
+				return '\t';
+			case 'u':
+				int code = 0;
+				for (int i = 0; i < 4; i++) {
+					int digit = Character.digit(read(), 16);
+					if (digit < 0) {
+						throw syntaxError("invalid unicode escape sequence");
+					}
+					code = (code << 4) | digit;
+				}
+				return (char) code;
+			default:
+				throw syntaxError("invalid escape sequence");
+			}
+		}
+
+		private String readLiteral() throws IOException {
+			StringBuilder text = new StringBuilder();
+			while (true) {
+				if (pos == limit && !fill()) {
+					break;
+				}
+				char c = buffer[pos];
+				if (c == ',' || c == '}' || c == ']' || c == ':' || c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+					break;
+				}
+				text.append(c);
+				pos++;
+			}
+			if (text.length() == 0) {
+				throw syntaxError("value expected but found " + describe(peek()));
+			}
+			return text.toString();
+		}
+
+		private Object readValue() throws IOException {
+			int c = peek();
+			if (c == '{') {
+				consume('{');
+				Object map = provider.createMap();
+				while (nextMember('}')) {
+					String name = readString();
+					consume(':');
+					provider.setProperty(map, name, readValue());
+				}
+				return map;
+			} else if (c == '[') {
+				consume('[');
+				Object array = provider.createArray();
+				int index = 0;
+				while (nextMember(']')) {
+					provider.setArrayIndex(array, index++, readValue());
+				}
+				return array;
+			} else if (c == '"') {
+				return readString();
+			}
+
+			String literal = readLiteral();
+			if ("true".equals(literal)) {
+				return Boolean.TRUE;
+			} else if ("false".equals(literal)) {
+				return Boolean.FALSE;
+			} else if ("null".equals(literal)) {
+				return null;
+			}
+			checkNumber(literal);
+			try {
+				// number is created by the provider, so its type (like Integer, Long or Double) is same as in parsed document.
+				return provider.parse(literal);
+			} catch (RuntimeException ex) {
+				throw syntaxError("invalid value '" + literal + "'");
+			}
+		}
+
+		/**
+		 * Skips the value at the current position without creating any object. Syntax of the value is checked.
+		 */
+		private void skipValue() throws IOException {
+			int c = peek();
+			if (c == '{') {
+				consume('{');
+				while (nextMember('}')) {
+					consume('"');
+					skipStringContent();
+					consume(':');
+					skipValue();
+				}
+			} else if (c == '[') {
+				consume('[');
+				while (nextMember(']')) {
+					skipValue();
+				}
+			} else if (c == '"') {
+				pos++;
+				skipStringContent();
+			} else {
+				String literal = readLiteral();
+				if (!"true".equals(literal) && !"false".equals(literal) && !"null".equals(literal)) {
+					checkNumber(literal);
+				}
+			}
+		}
+
+		/**
+		 * Checks the literal is the JSON number: -?(0|[1-9][0-9]*)(.[0-9]+)?([eE][+-]?[0-9]+)?
+		 */
+		private void checkNumber(String literal) throws IOException {
+			int i = 0, len = literal.length();
+			if (i < len && literal.charAt(i) == '-') {
+				i++;
+			}
+			int start = i;
+			i = skipDigits(literal, i);
+			boolean valid = i > start && (literal.charAt(start) != '0' || i == start + 1);
+			if (valid && i < len && literal.charAt(i) == '.') {
+				start = ++i;
+				i = skipDigits(literal, i);
+				valid = i > start;
+			}
+			if (valid && i < len && (literal.charAt(i) == 'e' || literal.charAt(i) == 'E')) {
+				i++;
+				if (i < len && (literal.charAt(i) == '+' || literal.charAt(i) == '-')) {
+					i++;
+				}
+				start = i;
+				i = skipDigits(literal, i);
+				valid = i > start;
+			}
+			if (!valid || i != len) {
+				throw syntaxError("invalid value '" + literal + "'");
+			}
+		}
+
+		private static int skipDigits(String text, int i) {
+			while (i < text.length() && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+				i++;
+			}
+			return i;
+		}
+
+		/**
+		 * Checks there is nothing except the whitespaces after the JSON value.
+		 */
+		private void consumeEnd() throws IOException {
+			int c = peek();
+			if (c >= 0) {
+				throw syntaxError("end of JSON text expected but found " + describe(c));
+			}
+		}
+
+		private void skipStringContent() throws IOException {
+			while (true) {
+				if (pos == limit && !fill()) {
+					throw syntaxError("unterminated string");
+				}
+				char ch = buffer[pos++];
+				if (ch == '"') {
+					return;
+				} else if (ch == '\\') {
+					if (read() < 0) {
+						throw syntaxError("unterminated string");
+					}
+				}
+			}
+		}
+
+		private String describe(int c) {
+			return c < 0 ? "end of JSON text" : "'" + (char) c + "'";
+		}
+
+		private IOException syntaxError(String message) {
+			return new IOException("Invalid JSON text at position " + (offset + pos) + ": " + message + ".");
+		}
+	}
+}
@@ -25,10 +25,10 @@ import java.util.List;
 import org.testng.Assert;
 import org.uitnet.testing.smartfwk.SmartCucumberScenarioContext;
 import org.uitnet.testing.smartfwk.api.core.reader.JsonDocumentReader;
+import org.uitnet.testing.smartfwk.core.stepdefs.en.common.data.support.SmartJsonMultiPathVerifier;
 import org.uitnet.testing.smartfwk.core.validator.ExpectedInfo;
 import org.uitnet.testing.smartfwk.core.validator.ParamPath;
 import org.uitnet.testing.smartfwk.core.validator.ParamValueType;
-import org.uitnet.testing.smartfwk.core.validator.SmartDataValidator;
 import org.uitnet.testing.smartfwk.core.validator.ValueMatchOperator;
 import org.uitnet.testing.smartfwk.ui.core.commons.Locations;
 import org.uitnet.testing.smartfwk.ui.core.utils.JsonYamlUtil;
@@ -256,6 +256,8 @@ public class SmartJsonDataManagementStepDefs {
 		
 		DocumentContext jsonObj = (DocumentContext) jsonObjContext;
 		
+		// all the rows are verified using single walk over the JSON document.
+		SmartJsonMultiPathVerifier verifier = new SmartJsonMultiPathVerifier(jsonObj);
 		List<List<String>> rows = jsonParamInfo.asLists();
 		List<String> row;
 		String jsonPath, oper, expectedInfo;
@@ -268,9 +270,11 @@ public class SmartJsonDataManagementStepDefs {
 			jsonPath = scenarioContext.applyParamsValueOnText(jsonPath);
 			expectedInfo = scenarioContext.applyParamsValueOnText(expectedInfo);
 			
-			// verify the actual value against the expected value.
-			SmartDataValidator.validateJsonOrYamlData(jsonObj, jsonPath, oper, expectedInfo);
+			verifier.addRow(jsonPath, oper, expectedInfo);
 		}
+		
+		// verify the actual values against the expected values.
+		verifier.verify();
 	}
 	
 	/**
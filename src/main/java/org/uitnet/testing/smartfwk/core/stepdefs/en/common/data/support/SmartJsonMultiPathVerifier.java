@@ -0,0 +1,239 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.common.data.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.uitnet.testing.smartfwk.core.validator.SmartDataValidator;
+
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.spi.json.JsonProvider;
+
+/**
+ * Verifies many JSON paths of the same JSON document using a single walk over the document. Paths of all the rows
+ * are compiled into a shared traversal plan (a tree of path segments), so the common prefix of the paths is walked
+ * only once and only the branches referred by the paths are visited. The operator and expected information of each
+ * row are then verified using {@link SmartDataValidator} on the collected value: the value is placed into the small
+ * document at the same path, so that the original path of the row is verified and it is reported in the failure
+ * message.
+ *
+ * Only the paths supported by {@link SmartJsonPathSegment} are planned. Rows whose path uses any other syntax (like
+ * deep scan, filter, slice, union or function) are verified directly on the document.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartJsonMultiPathVerifier {
+	private DocumentContext document;
+	private List<Row> rows;
+
+	public SmartJsonMultiPathVerifier(DocumentContext document) {
+		this.document = document;
+		this.rows = new LinkedList<>();
+	}
+
+	/**
+	 * Adds the row to verify. Variables must be applied already.
+	 *
+	 * @param paramPath - the JSON path or the parameter path in JSON format like {path: "$.myParam", valueType: "string"}.
+	 * @param operator - the operator.
+	 * @param expectedInfo - the expected information.
+	 */
+	public void addRow(String paramPath, String operator, String expectedInfo) {
+		rows.add(new Row(paramPath, operator, expectedInfo));
+	}
+
+	/**
+	 * Walks the document once to collect the values of all the rows and then verifies the rows in the same order they
+	 * are added. Verification stops at the first failed row.
+	 */
+	public void verify() {
+		Object root = document.json();
+		boolean walkable = (root instanceof Map || root instanceof List);
+
+		PlanNode plan = new PlanNode();
+		for (Row row : rows) {
+			row.compile();
+			if (walkable && row.segments != null) {
+				plan.add(row, 0);
+			}
+		}
+
+		if (walkable) {
+			plan.walk(root);
+		}
+
+		for (Row row : rows) {
+			row.verify(document);
+		}
+	}
+
+	private static class Row {
+		private String paramPath;
+		private String operator;
+		private String expectedInfo;
+		private String path;
+		private List<SmartJsonPathSegment> segments;
+		private boolean definite = true;
+		private boolean found;
+		private Object value;
+		private List<Object> values;
+
+		private Row(String paramPath, String operator, String expectedInfo) {
+			this.paramPath = paramPath;
+			this.operator = operator;
+			this.expectedInfo = expectedInfo;
+		}
+
+		private void compile() {
+			String text = paramPath == null ? "" : paramPath.trim();
+			if (text.startsWith("{")) {
+				DocumentContext paramPathJson = JsonPath.parse(text);
+				Object p = paramPathJson.read("$.path");
+				path = p == null ? null : p.toString().trim();
+			} else {
+				path = text;
+			}
+
+			segments = SmartJsonPathSegment.parse(path);
+			if (segments != null && SmartJsonPathSegment.isIndefinite(segments)) {
+				definite = false;
+				values = new ArrayList<>();
+			}
+		}
+
+		private void collect(Object nodeValue) {
+			if (definite) {
+				found = true;
+				value = nodeValue;
+			} else {
+				values.add(nodeValue);
+			}
+		}
+
+		private void verify(DocumentContext document) {
+			// path that did not match is verified on the document, so that it is reported same as the JSON path library does.
+			if (segments == null || (definite ? !found : values.isEmpty())) {
+				SmartDataValidator.validateJsonOrYamlData(document, paramPath, operator, expectedInfo);
+				return;
+			}
+
+			// the collected values are placed at the same path into the small document, so that the original path is verified.
+			JsonProvider provider = document.configuration().jsonProvider();
+			Object valueRoot = newNode(provider, 0, definite ? Collections.singletonList(value) : values);
+			DocumentContext valueDocument = JsonPath.using(document.configuration()).parse(valueRoot);
+			SmartDataValidator.validateJsonOrYamlData(valueDocument, paramPath, operator, expectedInfo);
+		}
+
+		/**
+		 * Creates the node of the segment that contains the values at the remaining path. The wildcard node contains one
+		 * item per value, so the path results into the same values in the same order.
+		 */
+		private Object newNode(JsonProvider provider, int segmentIndex, List<Object> nodeValues) {
+			if (segmentIndex == segments.size()) {
+				return nodeValues.get(0);
+			}
+
+			SmartJsonPathSegment segment = segments.get(segmentIndex);
+			if (segment.getType() == SmartJsonPathSegment.Type.property) {
+				Object map = provider.createMap();
+				provider.setProperty(map, segment.getName(), newNode(provider, segmentIndex + 1, nodeValues));
+				return map;
+			}
+
+			Object array = provider.createArray();
+			if (segment.getType() == SmartJsonPathSegment.Type.index) {
+				// negative index is counted from the end, so the node is the first item of the array of that size.
+				int index = segment.getIndex() < 0 ? 0 : segment.getIndex();
+				int size = segment.getIndex() < 0 ? -segment.getIndex() : segment.getIndex() + 1;
+				for (int i = 0; i < size; i++) {
+					provider.setArrayIndex(array, i, i == index ? newNode(provider, segmentIndex + 1, nodeValues) : null);
+				}
+			} else {
+				int i = 0;
+				for (Object nodeValue : nodeValues) {
+					provider.setArrayIndex(array, i++, newNode(provider, segmentIndex + 1, Collections.singletonList(nodeValue)));
+				}
+			}
+			return array;
+		}
+	}
+
+	private static class PlanNode {
+		private Map<String, PlanNode> children = new LinkedHashMap<>();
+		private SmartJsonPathSegment segment;
+		private List<Row> rows = new LinkedList<>();
+
+		private void add(Row row, int segmentIndex) {
+			if (segmentIndex == row.segments.size()) {
+				rows.add(row);
+				return;
+			}
+
+			SmartJsonPathSegment nextSegment = row.segments.get(segmentIndex);
+			PlanNode child = children.get(nextSegment.getKey());
+			if (child == null) {
+				child = new PlanNode();
+				child.segment = nextSegment;
+				children.put(nextSegment.getKey(), child);
+			}
+			child.add(row, segmentIndex + 1);
+		}
+
+		@SuppressWarnings("unchecked")
+		private void walk(Object nodeValue) {
+			for (Row row : rows) {
+				row.collect(nodeValue);
+			}
+
+			for (PlanNode child : children.values()) {
+				SmartJsonPathSegment segment = child.segment;
+				if (nodeValue instanceof Map) {
+					Map<String, Object> map = (Map<String, Object>) nodeValue;
+					if (segment.getType() == SmartJsonPathSegment.Type.property) {
+						if (map.containsKey(segment.getName())) {
+							child.walk(map.get(segment.getName()));
+						}
+					} else if (segment.getType() == SmartJsonPathSegment.Type.wildcard) {
+						for (Object item : map.values()) {
+							child.walk(item);
+						}
+					}
+				} else if (nodeValue instanceof List) {
+					List<Object> list = (List<Object>) nodeValue;
+					if (segment.getType() == SmartJsonPathSegment.Type.index) {
+						int index = segment.getIndex() < 0 ? list.size() + segment.getIndex() : segment.getIndex();
+						if (index >= 0 && index < list.size()) {
+							child.walk(list.get(index));
+						}
+					} else if (segment.getType() == SmartJsonPathSegment.Type.wildcard) {
+						for (Object item : list) {
+							child.walk(item);
+						}
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.common.data.support;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Segment of the simple JSON path. The simple JSON path supports only the following syntax: $, .name, ['name'],
+ * ["name"], [index] (negative index is counted from the end), .* and [*]. Paths using any other syntax (like deep
+ * scan, filter, slice, union or function) are not parsed and must be evaluated using JSON path library.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartJsonPathSegment {
+	public enum Type {
+		property, index, wildcard
+	}
+
+	private Type type;
+	private String name;
+	private int index;
+
+	private SmartJsonPathSegment(Type type, String name, int index) {
+		this.type = type;
+		this.name = name;
+		this.index = index;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the property name of the property segment.
+	 *
+	 * @return the property name.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns the array index of the index segment.
+	 *
+	 * @return the array index.
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * Returns the key that is same for the segments referring to the same child.
+	 *
+	 * @return the key.
+	 */
+	public String getKey() {
+		return type == Type.property ? "p:" + name : (type == Type.index ? "i:" + index : "*");
+	}
+
+	/**
+	 * Returns true if any of the segments is wildcard.
+	 *
+	 * @param segments - the segments of the path.
+	 * @return true if the path is indefinite.
+	 */
+	public static boolean isIndefinite(List<SmartJsonPathSegment> segments) {
+		for (SmartJsonPathSegment segment : segments) {
+			if (segment.type == Type.wildcard) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Parses the JSON path into segments.
+	 *
+	 * @param path - the JSON path.
+	 * @return the segments, null if the path uses the syntax that is not supported by the simple JSON path.
+	 */
+	public static List<SmartJsonPathSegment> parse(String path) {
+		if (path == null || !path.startsWith("$")) {
+			return null;
+		}
+
+		List<SmartJsonPathSegment> segments = new ArrayList<>();
+		int i = 1, len = path.length();
+		while (i < len) {
+			char c = path.charAt(i);
+			if (c == '.') {
+				if (i + 1 >= len || path.charAt(i + 1) == '.') {
+					return null;
+				}
+				if (path.charAt(i + 1) == '*') {
+					segments.add(new SmartJsonPathSegment(Type.wildcard, null, 0));
+					i += 2;
+					continue;
+				}
+				int end = i + 1;
+				while (end < len && path.charAt(end) != '.' && path.charAt(end) != '[') {
+					end++;
+				}
+				String name = path.substring(i + 1, end);
+				if (name.isEmpty() || name.contains("(") || name.contains(" ")) {
+					return null;
+				}
+				segments.add(new SmartJsonPathSegment(Type.property, name, 0));
+				i = end;
+			} else if (c == '[') {
+				int end = path.indexOf(']', i);
+				if (end < 0) {
+					return null;
+				}
+				if (i + 1 < len && (path.charAt(i + 1) == '\'' || path.charAt(i + 1) == '"')) {
+					char quote = path.charAt(i + 1);
+					StringBuilder name = new StringBuilder();
+					int j = i + 2;
+					while (j < len && path.charAt(j) != quote) {
+						if (path.charAt(j) == '\\' && j + 1 < len) {
+							j++;
+						}
+						name.append(path.charAt(j));
+						j++;
+					}
+					if (j + 1 >= len || path.charAt(j + 1) != ']') {
+						// unterminated or union of names.
+						return null;
+					}
+					segments.add(new SmartJsonPathSegment(Type.property, name.toString(), 0));
+					i = j + 2;
+					continue;
+				}
+
+				String content = path.substring(i + 1, end).trim();
+				if ("*".equals(content)) {
+					segments.add(new SmartJsonPathSegment(Type.wildcard, null, 0));
+				} else if (content.matches("-?\\d{1,9}")) {
+					segments.add(new SmartJsonPathSegment(Type.index, null, Integer.parseInt(content)));
+				} else {
+					return null;
+				}
+				i = end + 1;
+			} else {
+				return null;
+			}
+		}
+		return segments;
+	}
+}
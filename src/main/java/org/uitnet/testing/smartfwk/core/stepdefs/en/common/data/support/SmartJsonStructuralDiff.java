@@ -0,0 +1,373 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.common.data.support;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares two parsed JSON documents (maps, lists and values) structurally. Hash of each object / array is computed
+ * bottom-up (like Merkle tree) from the hashes of its children, so the identical subtrees are compared in O(1) using
+ * their hashes and only the subtrees whose hashes differ are descended into to find the paths of the differences.
+ * Order of the object properties is ignored, order of the array elements is not. Numbers are compared by value
+ * (1 equals 1.0).
+ *
+ * Subtrees can be ignored using the paths given below. Ignored subtrees are excluded from the hash of their parent:
+ * <blockquote><pre>
+ *   $.meta.timestamp       - simple JSON path, please refer {@link SmartJsonPathSegment} class.
+ *   $.items[*].id          - wildcard matches any property or array element.
+ *   $..updatedAt           - deep scan, matches the path at any depth.
+ * </pre></blockquote>
+ *
+ * NOTE: Subtrees with equal 64-bit hashes are treated as equal, the chance of a false match is negligible.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartJsonStructuralDiff {
+	private static final long NULL_HASH = 0x6A09E667F3BCC908L;
+
+	private List<IgnoredPath> ignoredPaths;
+	private int maxDifferences;
+
+	/**
+	 * Creates the comparator.
+	 *
+	 * @param ignoredPaths - the paths of the subtrees to ignore, may be null.
+	 * @param maxDifferences - the maximum number of differences to report.
+	 * @throws IllegalArgumentException if the ignored path is not supported.
+	 */
+	public SmartJsonStructuralDiff(List<String> ignoredPaths, int maxDifferences) {
+		this.ignoredPaths = new ArrayList<>();
+		this.maxDifferences = Math.max(1, maxDifferences);
+		if (ignoredPaths != null) {
+			for (String path : ignoredPaths) {
+				if (path != null && !path.trim().isEmpty()) {
+					this.ignoredPaths.add(new IgnoredPath(path.trim()));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Compares the documents.
+	 *
+	 * @param expected - the expected document.
+	 * @param actual - the actual document.
+	 * @return the result of the comparison.
+	 */
+	public Result compare(Object expected, Object actual) {
+		Result result = new Result();
+		Map<Object, Long> expectedHashes = new IdentityHashMap<>();
+		Map<Object, Long> actualHashes = new IdentityHashMap<>();
+		List<PathElement> path = new ArrayList<>();
+		hash(expected, path, expectedHashes);
+		hash(actual, path, actualHashes);
+		diff(expected, actual, path, expectedHashes, actualHashes, result);
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private long hash(Object node, List<PathElement> path, Map<Object, Long> hashes) {
+		if (node instanceof Map) {
+			// properties are combined using sum, so that the hash does not depend on the order of the properties.
+			long sum = 0;
+			int count = 0;
+			for (Map.Entry<String, Object> entry : ((Map<String, Object>) node).entrySet()) {
+				path.add(new PathElement(entry.getKey(), -1, 0));
+				if (!isIgnored(path)) {
+					sum += mix(hashString(entry.getKey()) ^ hash(entry.getValue(), path, hashes));
+					count++;
+				}
+				path.remove(path.size() - 1);
+			}
+			long h = mix(sum + 0x3C6EF372FE94F82BL * count + 5);
+			hashes.put(node, h);
+			return h;
+		} else if (node instanceof List) {
+			List<Object> list = (List<Object>) node;
+			long h = 6;
+			for (int i = 0; i < list.size(); i++) {
+				path.add(new PathElement(null, i, list.size()));
+				if (!isIgnored(path)) {
+					h = mix(h * 31 + hash(list.get(i), path, hashes));
+				}
+				path.remove(path.size() - 1);
+			}
+			hashes.put(node, h);
+			return h;
+		}
+		return hashValue(node);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void diff(Object expected, Object actual, List<PathElement> path, Map<Object, Long> expectedHashes,
+			Map<Object, Long> actualHashes, Result result) {
+		if (result.isTruncated()) {
+			return;
+		}
+
+		if (expected instanceof Map && actual instanceof Map) {
+			if (expectedHashes.get(expected).longValue() == actualHashes.get(actual).longValue()) {
+				result.skippedSubtrees++;
+				return;
+			}
+			Map<String, Object> expectedMap = (Map<String, Object>) expected;
+			Map<String, Object> actualMap = (Map<String, Object>) actual;
+			for (Map.Entry<String, Object> entry : expectedMap.entrySet()) {
+				path.add(new PathElement(entry.getKey(), -1, 0));
+				if (!isIgnored(path)) {
+					if (!actualMap.containsKey(entry.getKey())) {
+						result.add(toPathString(path) + ": missing in actual.");
+					} else {
+						diff(entry.getValue(), actualMap.get(entry.getKey()), path, expectedHashes, actualHashes, result);
+					}
+				}
+				path.remove(path.size() - 1);
+			}
+			for (String key : actualMap.keySet()) {
+				if (!expectedMap.containsKey(key)) {
+					path.add(new PathElement(key, -1, 0));
+					if (!isIgnored(path)) {
+						result.add(toPathString(path) + ": unexpected in actual.");
+					}
+					path.remove(path.size() - 1);
+				}
+			}
+		} else if (expected instanceof List && actual instanceof List) {
+			if (expectedHashes.get(expected).longValue() == actualHashes.get(actual).longValue()) {
+				result.skippedSubtrees++;
+				return;
+			}
+			List<Object> expectedList = (List<Object>) expected;
+			List<Object> actualList = (List<Object>) actual;
+			if (expectedList.size() != actualList.size()) {
+				result.add(toPathString(path) + ": expected " + expectedList.size() + " elements but found "
+						+ actualList.size() + " elements.");
+			}
+			int size = Math.min(expectedList.size(), actualList.size());
+			for (int i = 0; i < size; i++) {
+				path.add(new PathElement(null, i, expectedList.size()));
+				if (!isIgnored(path)) {
+					diff(expectedList.get(i), actualList.get(i), path, expectedHashes, actualHashes, result);
+				}
+				path.remove(path.size() - 1);
+			}
+		} else if (!isValueEqual(expected, actual)) {
+			result.add(toPathString(path) + ": expected " + describe(expected) + " but found " + describe(actual) + ".");
+		}
+	}
+
+	private boolean isIgnored(List<PathElement> path) {
+		for (IgnoredPath ignoredPath : ignoredPaths) {
+			if (ignoredPath.matches(path)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isValueEqual(Object expected, Object actual) {
+		if (expected == null || actual == null) {
+			return expected == actual;
+		}
+		if (expected instanceof Number && actual instanceof Number) {
+			BigDecimal expectedNumber = toBigDecimal((Number) expected);
+			BigDecimal actualNumber = toBigDecimal((Number) actual);
+			if (expectedNumber != null && actualNumber != null) {
+				return expectedNumber.compareTo(actualNumber) == 0;
+			}
+		}
+		if (expected instanceof Map || expected instanceof List || actual instanceof Map || actual instanceof List) {
+			return false;
+		}
+		return expected.equals(actual);
+	}
+
+	private static long hashValue(Object value) {
+		if (value == null) {
+			return NULL_HASH;
+		} else if (value instanceof Boolean) {
+			return mix(((Boolean) value) ? 2 : 3);
+		} else if (value instanceof Number) {
+			BigDecimal number = toBigDecimal((Number) value);
+			return mix(4 + 31 * hashString(number == null ? value.toString() : number.stripTrailingZeros().toString()));
+		}
+		return mix(7 + 31 * hashString(value.toString()));
+	}
+
+	private static BigDecimal toBigDecimal(Number number) {
+		if (number instanceof BigDecimal) {
+			return (BigDecimal) number;
+		}
+		try {
+			return new BigDecimal(number.toString());
+		} catch (NumberFormatException ex) {
+			// NaN or Infinity.
+			return null;
+		}
+	}
+
+	/**
+	 * 64-bit FNV-1a hash of the string.
+	 */
+	private static long hashString(String text) {
+		long h = 0xCBF29CE484222325L;
+		for (int i = 0; i < text.length(); i++) {
+			h ^= text.charAt(i);
+			h *= 0x100000001B3L;
+		}
+		return h;
+	}
+
+	/**
+	 * Finalizer of SplitMix64, spreads the bits of the value.
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	private static String describe(Object value) {
+		if (value instanceof Map) {
+			return "object of " + ((Map<?, ?>) value).size() + " properties";
+		} else if (value instanceof List) {
+			return "array of " + ((List<?>) value).size() + " elements";
+		} else if (value instanceof String) {
+			String text = (String) value;
+			return "\"" + (text.length() > 100 ? text.substring(0, 100) + "..." : text) + "\"";
+		}
+		return String.valueOf(value);
+	}
+
+	private static String toPathString(List<PathElement> path) {
+		StringBuilder sb = new StringBuilder("$");
+		for (PathElement element : path) {
+			if (element.name == null) {
+				sb.append('[').append(element.index).append(']');
+			} else if (element.name.matches("[A-Za-z_$][A-Za-z0-9_$]*")) {
+				sb.append('.').append(element.name);
+			} else {
+				sb.append("['").append(element.name.replace("'", "\\'")).append("']");
+			}
+		}
+		return sb.toString();
+	}
+
+	private static class PathElement {
+		private String name;
+		private int index;
+		private int arraySize;
+
+		private PathElement(String name, int index, int arraySize) {
+			this.name = name;
+			this.index = index;
+			this.arraySize = arraySize;
+		}
+
+		private boolean matches(SmartJsonPathSegment segment) {
+			switch (segment.getType()) {
+			case property:
+				return name != null && name.equals(segment.getName());
+			case index:
+				return name == null && index == (segment.getIndex() < 0 ? arraySize + segment.getIndex() : segment.getIndex());
+			default:
+				return true;
+			}
+		}
+	}
+
+	private static class IgnoredPath {
+		private boolean deepScan;
+		private List<SmartJsonPathSegment> segments;
+
+		private IgnoredPath(String path) {
+			deepScan = path.startsWith("$..");
+			segments = SmartJsonPathSegment.parse(deepScan ? "$." + path.substring(3) : path);
+			if (segments == null || segments.isEmpty()) {
+				throw new IllegalArgumentException("Ignored path '" + path + "' is not supported. Only simple JSON path "
+						+ "($.a.b, $.a[0], $.a[*].b, $['a b']) optionally starting with deep scan ($..a) is supported.");
+			}
+		}
+
+		private boolean matches(List<PathElement> path) {
+			int offset = path.size() - segments.size();
+			if (offset < 0 || (!deepScan && offset != 0)) {
+				return false;
+			}
+			for (int i = 0; i < segments.size(); i++) {
+				if (!path.get(offset + i).matches(segments.get(i))) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Result of the comparison.
+	 */
+	public class Result {
+		private List<String> differences = new ArrayList<>();
+		private boolean truncated;
+		private long skippedSubtrees;
+
+		private void add(String difference) {
+			if (differences.size() >= maxDifferences) {
+				truncated = true;
+			} else {
+				differences.add(difference);
+			}
+		}
+
+		public boolean isEqual() {
+			return differences.isEmpty();
+		}
+
+		/**
+		 * Returns the differences in the format "path: message".
+		 *
+		 * @return the differences, at most max differences are returned.
+		 */
+		public List<String> getDifferences() {
+			return differences;
+		}
+
+		/**
+		 * Returns true if there are more differences than the max differences.
+		 *
+		 * @return true if the differences are truncated.
+		 */
+		public boolean isTruncated() {
+			return truncated;
+		}
+
+		/**
+		 * Returns the number of identical subtrees that are compared using their hashes.
+		 *
+		 * @return the number of skipped subtrees.
+		 */
+		public long getSkippedSubtrees() {
+			return skippedSubtrees;
+		}
+	}
+}
@@ -0,0 +1,458 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.common.data.support;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.uitnet.testing.smartfwk.core.validator.SmartDataValidator;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+
+/**
+ * Verifies many XPaths of the same XML payload using a single StAX pass over the payload, without building the DOM of
+ * the payload. Values selected by each row are collected into a small holder document which is then verified using
+ * {@link SmartDataValidator} with the operator and expected information of the row.
+ *
+ * Only the XPath subset given below is evaluated while streaming:
+ * <blockquote><pre>
+ *   /Envelope/Body/user                     - absolute child path, * matches any element.
+ *   //user/address                          - descendant step (// can be used before any step).
+ *   //user[@name='test-name'][@active]      - attribute predicates (=, != or existence).
+ *   //user[@name='test-name']/@state        - attribute of the selected elements.
+ *   count(//user[@name='test-name'])        - number of the selected nodes.
+ * </pre></blockquote>
+ *
+ * Element and attribute names are matched as they are written in the payload (like soap:Envelope). If any row uses
+ * other syntax, or the payload can not be streamed (like DTD with entities), then all the rows are verified on the DOM
+ * document, so the behavior is same as the DOM based verification.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartXmlMultiPathVerifier {
+	private static final String HOLDER_ATTRIBUTE = "a";
+
+	private List<Row> rows;
+	private boolean streamable = true;
+
+	public SmartXmlMultiPathVerifier() {
+		this.rows = new ArrayList<>();
+	}
+
+	/**
+	 * Adds the row to verify. Variables must be applied already.
+	 *
+	 * @param paramPath - the XPath or the parameter path in JSON format like {path: "count(//user)", valueType: "integer"}.
+	 * @param operator - the operator.
+	 * @param expectedInfo - the expected information.
+	 */
+	public void addRow(String paramPath, String operator, String expectedInfo) {
+		Row row = new Row(paramPath, operator, expectedInfo);
+		rows.add(row);
+		streamable = streamable && row.compile();
+	}
+
+	/**
+	 * Returns true if all the rows can be verified while streaming the payload.
+	 *
+	 * @return true if the rows are streamable.
+	 */
+	public boolean isStreamable() {
+		return streamable;
+	}
+
+	/**
+	 * Verifies the rows in the same order they are added. Verification stops at the first failed row.
+	 *
+	 * @param payload - the reader of the XML payload, it is not read if the rows are not streamable.
+	 * @param domSupplier - supplies the DOM document of the payload, used if the rows can not be verified while streaming.
+	 */
+	public void verify(Reader payload, Supplier<Document> domSupplier) {
+		boolean streamed = false;
+		if (streamable) {
+			try {
+				stream(payload);
+				streamed = true;
+			} catch (XMLStreamException ex) {
+				// verified on DOM document, so that the error is reported the same way as the DOM based verification.
+			}
+		}
+
+		if (!streamed) {
+			verify(domSupplier.get());
+			return;
+		}
+
+		for (Row row : rows) {
+			row.verify();
+		}
+	}
+
+	/**
+	 * Verifies the rows on the already parsed DOM document in the same order they are added.
+	 *
+	 * @param document - the DOM document of the payload.
+	 */
+	public void verify(Document document) {
+		for (Row row : rows) {
+			SmartDataValidator.validateXmlData(document, row.paramPath, row.operator, row.expectedInfo);
+		}
+	}
+
+	private void stream(Reader payload) throws XMLStreamException {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+
+		// states[i] of the element contains the bit j if the first j steps of the path of row i match the element.
+		List<long[]> statesStack = new ArrayList<>();
+		long[] documentStates = new long[rows.size()];
+		for (int i = 0; i < documentStates.length; i++) {
+			documentStates[i] = 1L;
+		}
+		statesStack.add(documentStates);
+		List<StringBuilder> openValues = new ArrayList<>();
+		List<Integer> openValueCounts = new ArrayList<>();
+
+		XMLStreamReader reader = factory.createXMLStreamReader(payload);
+		try {
+			while (reader.hasNext()) {
+				int event = reader.next();
+				if (event == XMLStreamConstants.START_ELEMENT) {
+					long[] parentStates = statesStack.get(statesStack.size() - 1);
+					long[] states = new long[rows.size()];
+					int openedValues = 0;
+					for (int i = 0; i < states.length; i++) {
+						Row row = rows.get(i);
+						states[i] = row.match(parentStates[i], reader);
+						openedValues += row.select(states[i], reader, openValues);
+					}
+					statesStack.add(states);
+					openValueCounts.add(openedValues);
+				} else if (event == XMLStreamConstants.END_ELEMENT) {
+					statesStack.remove(statesStack.size() - 1);
+					int closedValues = openValueCounts.remove(openValueCounts.size() - 1);
+					for (int i = 0; i < closedValues; i++) {
+						openValues.remove(openValues.size() - 1);
+					}
+				} else if ((event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+						|| event == XMLStreamConstants.SPACE) && !openValues.isEmpty()) {
+					String text = reader.getText();
+					for (StringBuilder value : openValues) {
+						value.append(text);
+					}
+				} else if (event == XMLStreamConstants.ENTITY_REFERENCE) {
+					throw new XMLStreamException("Entity reference '" + reader.getLocalName() + "' is not supported.");
+				}
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+	private static class Step {
+		private boolean descendant;
+		private String name;
+		private List<String[]> predicates = new ArrayList<>();
+
+		private boolean matches(XMLStreamReader reader) {
+			if (!"*".equals(name) && !name.equals(getName(reader))) {
+				return false;
+			}
+			for (String[] predicate : predicates) {
+				String value = getAttributeValue(reader, predicate[0]);
+				if (value == null) {
+					return false;
+				} else if ("=".equals(predicate[1]) && !value.equals(predicate[2])) {
+					return false;
+				} else if ("!=".equals(predicate[1]) && value.equals(predicate[2])) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	private static class Row {
+		private String paramPath;
+		private String operator;
+		private String expectedInfo;
+		private DocumentContext paramPathJson;
+		private List<Step> steps;
+		private String attributeName;
+		private boolean count;
+		private boolean existenceOnly;
+		private long matchCount;
+		private List<Object> values = new ArrayList<>();
+
+		private Row(String paramPath, String operator, String expectedInfo) {
+			this.paramPath = paramPath;
+			this.operator = operator;
+			this.expectedInfo = expectedInfo;
+		}
+
+		private boolean compile() {
+			String text = paramPath == null ? "" : paramPath.trim();
+			String path = text;
+			if (text.startsWith("{")) {
+				try {
+					paramPathJson = JsonPath.parse(text);
+					Object p = paramPathJson.read("$.path");
+					path = p == null ? "" : p.toString().trim();
+				} catch (RuntimeException ex) {
+					// invalid parameter path is reported by the DOM based verification.
+					return false;
+				}
+			}
+
+			if (path.startsWith("count(") && path.endsWith(")")) {
+				count = true;
+				path = path.substring("count(".length(), path.length() - 1).trim();
+			}
+			String op = operator == null ? "" : operator.trim();
+			existenceOnly = !count && ("present".equalsIgnoreCase(op) || "not-present".equalsIgnoreCase(op));
+			return parse(path);
+		}
+
+		private boolean parse(String path) {
+			steps = new ArrayList<>();
+			int i = 0, len = path.length();
+			while (i < len) {
+				if (path.charAt(i) != '/') {
+					return false;
+				}
+				boolean descendant = path.startsWith("//", i);
+				i += descendant ? 2 : 1;
+				if (i < len && path.charAt(i) == '@') {
+					int end = scanName(path, i + 1);
+					if (descendant || steps.isEmpty() || end != len || end == i + 1) {
+						return false;
+					}
+					attributeName = path.substring(i + 1, end);
+					return true;
+				}
+
+				Step step = new Step();
+				step.descendant = descendant;
+				int end = (i < len && path.charAt(i) == '*') ? i + 1 : scanName(path, i);
+				if (end == i) {
+					return false;
+				}
+				step.name = path.substring(i, end);
+				i = end;
+				while (i < len && path.charAt(i) == '[') {
+					i = parsePredicate(path, i + 1, step);
+					if (i < 0) {
+						return false;
+					}
+				}
+				steps.add(step);
+			}
+			// state of each row is kept in the bits of long.
+			return !steps.isEmpty() && steps.size() < 63;
+		}
+
+		/**
+		 * Parses [@name], [@name='value'] or [@name!='value'] predicate and returns the index after the predicate, -1 if the
+		 * predicate is not supported.
+		 */
+		private static int parsePredicate(String path, int i, Step step) {
+			int len = path.length();
+			i = skipSpaces(path, i);
+			if (i >= len || path.charAt(i) != '@') {
+				return -1;
+			}
+			int end = scanName(path, i + 1);
+			if (end == i + 1) {
+				return -1;
+			}
+			String name = path.substring(i + 1, end);
+			i = skipSpaces(path, end);
+			String op = null, value = null;
+			if (path.startsWith("!=", i) || path.startsWith("=", i)) {
+				op = path.charAt(i) == '!' ? "!=" : "=";
+				i = skipSpaces(path, i + op.length());
+				if (i >= len || (path.charAt(i) != '\'' && path.charAt(i) != '"')) {
+					return -1;
+				}
+				int close = path.indexOf(path.charAt(i), i + 1);
+				if (close < 0) {
+					return -1;
+				}
+				value = path.substring(i + 1, close);
+				i = skipSpaces(path, close + 1);
+			}
+			if (i >= len || path.charAt(i) != ']') {
+				return -1;
+			}
+			step.predicates.add(new String[] { name, op, value });
+			return i + 1;
+		}
+
+		/**
+		 * Returns the index after the name that starts at the specified index. Name can not start with digit, '-' or '.',
+		 * so the abbreviated steps (like . and ..) are not taken as the names.
+		 */
+		private static int scanName(String path, int i) {
+			if (i >= path.length() || !(Character.isLetter(path.charAt(i)) || path.charAt(i) == '_' || path.charAt(i) == ':')) {
+				return i;
+			}
+			int end = i;
+			while (end < path.length()) {
+				char c = path.charAt(end);
+				if (Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.' || c == ':') {
+					end++;
+				} else {
+					break;
+				}
+			}
+			return end;
+		}
+
+		private static int skipSpaces(String path, int i) {
+			while (i < path.length() && path.charAt(i) == ' ') {
+				i++;
+			}
+			return i;
+		}
+
+		/**
+		 * Returns the states of the element from the states of its parent.
+		 */
+		private long match(long parentStates, XMLStreamReader reader) {
+			long states = 0;
+			for (int j = 0; j < steps.size(); j++) {
+				if ((parentStates & (1L << j)) == 0) {
+					continue;
+				}
+				Step step = steps.get(j);
+				if (step.descendant) {
+					// descendant step can skip any number of levels.
+					states |= 1L << j;
+				}
+				if (step.matches(reader)) {
+					states |= 1L << (j + 1);
+				}
+			}
+			return states;
+		}
+
+		/**
+		 * Collects the value of the element (or its attribute) if it is selected by the path. Returns the number of values
+		 * opened to collect the text of the element.
+		 */
+		private int select(long states, XMLStreamReader reader, List<StringBuilder> openValues) {
+			if ((states & (1L << steps.size())) == 0) {
+				return 0;
+			}
+			if (attributeName != null) {
+				String value = getAttributeValue(reader, attributeName);
+				if (value != null) {
+					addValue(value);
+				}
+				return 0;
+			}
+			if (count || existenceOnly) {
+				addValue("");
+				return 0;
+			}
+			StringBuilder value = new StringBuilder();
+			addValue(value);
+			openValues.add(value);
+			return 1;
+		}
+
+		private void addValue(Object value) {
+			matchCount++;
+			if (!count && !(existenceOnly && !values.isEmpty())) {
+				values.add(value);
+			}
+		}
+
+		private void verify() {
+			Document holder = newDocument();
+			Element root = holder.createElement("r");
+			holder.appendChild(root);
+			String holderPath;
+			if (count) {
+				Element countElement = holder.createElement("c");
+				countElement.setTextContent(String.valueOf(matchCount));
+				root.appendChild(countElement);
+				holderPath = "number(/r/c)";
+			} else {
+				for (Object value : values) {
+					Element valueElement = holder.createElement("v");
+					if (attributeName != null) {
+						valueElement.setAttribute(HOLDER_ATTRIBUTE, value.toString());
+					} else {
+						valueElement.setTextContent(value.toString());
+					}
+					root.appendChild(valueElement);
+				}
+				holderPath = attributeName != null ? "/r/v/@" + HOLDER_ATTRIBUTE : "/r/v";
+			}
+
+			String holderParamPath = holderPath;
+			if (paramPathJson != null) {
+				holderParamPath = paramPathJson.set("$.path", holderPath).jsonString();
+			}
+			SmartDataValidator.validateXmlData(holder, holderParamPath, operator, expectedInfo);
+		}
+	}
+
+	private static String getName(XMLStreamReader reader) {
+		// namespace unaware reader returns the qualified name as local name.
+		String prefix = reader.getPrefix();
+		return prefix == null || prefix.isEmpty() ? reader.getLocalName() : prefix + ":" + reader.getLocalName();
+	}
+
+	private static String getAttributeValue(XMLStreamReader reader, String name) {
+		for (int i = 0; i < reader.getAttributeCount(); i++) {
+			String prefix = reader.getAttributePrefix(i);
+			String attributeName = prefix == null || prefix.isEmpty() ? reader.getAttributeLocalName(i)
+					: prefix + ":" + reader.getAttributeLocalName(i);
+			if (name.equals(attributeName)) {
+				return reader.getAttributeValue(i);
+			}
+		}
+		return null;
+	}
+
+	private static Document newDocument() {
+		try {
+			return DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+		} catch (ParserConfigurationException ex) {
+			throw new IllegalStateException("Failed to create XML document.", ex);
+		}
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.uitnet.testing.smartfwk.api.core.support.HttpResponse;
+
+/**
+ * Tests of {@link SmartHttpRateLimiter}.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartHttpRateLimiterTest {
+
+	@Test
+	public void disabledByDefault() throws InterruptedException {
+		SmartHttpRateLimiter rateLimiter = new SmartHttpRateLimiter(SmartTestTargetServerConfig.of());
+		Assert.assertFalse(rateLimiter.isEnabled());
+		for (int i = 0; i < 100; i++) {
+			Assert.assertEquals(rateLimiter.acquire(), 0);
+		}
+		Assert.assertEquals(rateLimiter.getMetrics().get("requests"), 0L);
+	}
+
+	@Test
+	public void burstIsServedWithoutWaiting() throws InterruptedException {
+		SmartHttpRateLimiter rateLimiter = new SmartHttpRateLimiter(
+				SmartTestTargetServerConfig.of("rateLimit.requestsPerSecond", 10, "rateLimit.burst", 3));
+		Assert.assertTrue(rateLimiter.isEnabled());
+		for (int i = 0; i < 3; i++) {
+			Assert.assertEquals(rateLimiter.acquire(), 0, "Request " + (i + 1) + " of the burst waited.");
+		}
+
+		// the next token is available 100 ms after the first request.
+		long waitTimeInNanos = rateLimiter.acquire();
+		Assert.assertTrue(waitTimeInNanos > 0 && waitTimeInNanos <= TimeUnit.MILLISECONDS.toNanos(100),
+				"Unexpected wait time " + waitTimeInNanos + " ns.");
+
+		Map<String, Object> metrics = rateLimiter.getMetrics();
+		Assert.assertEquals(metrics.get("requests"), 4L);
+		Assert.assertEquals(metrics.get("throttledRequests"), 1L);
+	}
+
+	@Test
+	public void requestsAreSpacedAtConfiguredRate() throws InterruptedException {
+		SmartHttpRateLimiter rateLimiter = new SmartHttpRateLimiter(
+				SmartTestTargetServerConfig.of("rateLimit.requestsPerSecond", 50));
+		long startTime = System.nanoTime();
+		for (int i = 0; i < 6; i++) {
+			rateLimiter.acquire();
+		}
+
+		// first request is not delayed, the other 5 requests are 20 ms apart.
+		long elapsedInMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+		Assert.assertTrue(elapsedInMillis >= 90, "6 requests took only " + elapsedInMillis + " ms.");
+	}
+
+	@Test
+	public void retryAfterPausesRequests() throws InterruptedException {
+		SmartHttpRateLimiter rateLimiter = new SmartHttpRateLimiter(
+				SmartTestTargetServerConfig.of("rateLimit.honorRetryAfter", true, "rateLimit.maxRetryAfterInSeconds", 1));
+		Assert.assertTrue(rateLimiter.isEnabled());
+		Assert.assertEquals(rateLimiter.acquire(), 0);
+
+		HttpResponse httpResponse = new HttpResponse();
+		httpResponse.setCode(429);
+		httpResponse.setHeaders(Map.of("retry-after", "120"));
+		rateLimiter.onResponse(httpResponse);
+
+		// delay is limited by maxRetryAfterInSeconds.
+		long waitTimeInNanos = rateLimiter.acquire();
+		Assert.assertTrue(waitTimeInNanos > TimeUnit.MILLISECONDS.toNanos(500) && waitTimeInNanos <= TimeUnit.SECONDS.toNanos(1),
+				"Unexpected wait time " + waitTimeInNanos + " ns.");
+		Assert.assertEquals(rateLimiter.acquire(), 0);
+		Assert.assertEquals(rateLimiter.getMetrics().get("retryAfterPauses"), 1L);
+	}
+
+	@Test
+	public void retryAfterIsIgnoredForOtherResponses() throws InterruptedException {
+		SmartHttpRateLimiter rateLimiter = new SmartHttpRateLimiter(
+				SmartTestTargetServerConfig.of("rateLimit.honorRetryAfter", true));
+		rateLimiter.onResponse(200, "30");
+		rateLimiter.onResponse(503, null);
+		rateLimiter.onResponse(503, "not a date");
+		rateLimiter.onResponse(429, "Wed, 21 Oct 2015 07:28:00 GMT");
+
+		Assert.assertEquals(rateLimiter.acquire(), 0);
+		Assert.assertEquals(rateLimiter.getMetrics().get("retryAfterPauses"), 0L);
+	}
+
+	@Test
+	public void retryAfterIsIgnoredIfNotHonored() throws InterruptedException {
+		SmartHttpRateLimiter rateLimiter = new SmartHttpRateLimiter(
+				SmartTestTargetServerConfig.of("rateLimit.requestsPerSecond", 1000, "rateLimit.burst", 10));
+		rateLimiter.onResponse(429, "30");
+
+		Assert.assertEquals(rateLimiter.acquire(), 0);
+		Assert.assertEquals(rateLimiter.getMetrics().get("retryAfterPauses"), 0L);
+	}
+}
@@ -0,0 +1,199 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.uitnet.testing.smartfwk.api.core.support.HttpResponse;
+
+/**
+ * Tests of {@link SmartHttpRequestCoalescer}.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartHttpRequestCoalescerTest {
+
+	@Test
+	public void enabledBySettingOrSystemProperty() {
+		String systemPropertyValue = System.getProperty(SmartHttpRequestCoalescer.ENABLED_SYSTEM_PROPERTY);
+		try {
+			System.clearProperty(SmartHttpRequestCoalescer.ENABLED_SYSTEM_PROPERTY);
+			Assert.assertFalse(new SmartHttpRequestCoalescer(SmartTestTargetServerConfig.of()).isEnabled());
+			Assert.assertTrue(new SmartHttpRequestCoalescer(SmartTestTargetServerConfig.of("requestCoalescing.enabled", true)).isEnabled());
+
+			System.setProperty(SmartHttpRequestCoalescer.ENABLED_SYSTEM_PROPERTY, "yes");
+			Assert.assertTrue(new SmartHttpRequestCoalescer(SmartTestTargetServerConfig.of()).isEnabled());
+			System.setProperty(SmartHttpRequestCoalescer.ENABLED_SYSTEM_PROPERTY, "false");
+			Assert.assertFalse(new SmartHttpRequestCoalescer(SmartTestTargetServerConfig.of("requestCoalescing.enabled", true)).isEnabled());
+		} finally {
+			if (systemPropertyValue == null) {
+				System.clearProperty(SmartHttpRequestCoalescer.ENABLED_SYSTEM_PROPERTY);
+			} else {
+				System.setProperty(SmartHttpRequestCoalescer.ENABLED_SYSTEM_PROPERTY, systemPropertyValue);
+			}
+		}
+	}
+
+	@Test
+	public void requestKeyIgnoresHeaderOrderAndCase() {
+		Map<String, String> headers = new LinkedHashMap<>();
+		headers.put("Accept", "application/json");
+		headers.put("X-Tenant", "t1");
+		Map<String, String> otherHeaders = new LinkedHashMap<>();
+		otherHeaders.put("x-tenant", "t1");
+		otherHeaders.put("ACCEPT", "application/json");
+
+		String requestKey = SmartHttpRequestCoalescer.getRequestKey("admin", "https://host/api/config", headers);
+		Assert.assertEquals(SmartHttpRequestCoalescer.getRequestKey("admin", " https://host/api/config ", otherHeaders), requestKey);
+		Assert.assertNotEquals(SmartHttpRequestCoalescer.getRequestKey("guest", "https://host/api/config", headers), requestKey);
+		Assert.assertNotEquals(SmartHttpRequestCoalescer.getRequestKey("admin", "https://host/api/users", headers), requestKey);
+		Assert.assertNotEquals(SmartHttpRequestCoalescer.getRequestKey("admin", "https://host/api/config",
+				Map.of("Accept", "application/xml", "X-Tenant", "t1")), requestKey);
+		Assert.assertNotEquals(SmartHttpRequestCoalescer.getRequestKey("admin", "https://host/api/config", null), requestKey);
+	}
+
+	@Test
+	public void identicalRequestsInProgressShareNetworkCall() throws Exception {
+		SmartHttpRequestCoalescer coalescer = new SmartHttpRequestCoalescer(SmartTestTargetServerConfig.of());
+		CountDownLatch networkCallStarted = new CountDownLatch(1);
+		CountDownLatch completeNetworkCall = new CountDownLatch(1);
+		AtomicInteger networkCalls = new AtomicInteger();
+		Supplier<HttpResponse> networkCall = () -> {
+			networkCalls.incrementAndGet();
+			networkCallStarted.countDown();
+			await(completeNetworkCall);
+			return newResponse(200, "{\"id\":1}");
+		};
+
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			SmartHttpTiming firstTiming = new SmartHttpTiming();
+			Future<HttpResponse> first = executor.submit(() -> coalescer.execute("key", networkCall, firstTiming));
+			Assert.assertTrue(networkCallStarted.await(10, TimeUnit.SECONDS));
+
+			SmartHttpTiming[] timings = { new SmartHttpTiming(), new SmartHttpTiming() };
+			Future<?>[] others = new Future<?>[timings.length];
+			for (int i = 0; i < timings.length; i++) {
+				SmartHttpTiming timing = timings[i];
+				others[i] = executor.submit(() -> coalescer.execute("key", networkCall, timing));
+			}
+			waitForRequests(coalescer, 3);
+			completeNetworkCall.countDown();
+
+			HttpResponse firstResponse = first.get(10, TimeUnit.SECONDS);
+			Assert.assertEquals(firstResponse.getCode(), 200);
+			Assert.assertEquals(firstTiming.getSource(), "network");
+			for (int i = 0; i < others.length; i++) {
+				HttpResponse httpResponse = (HttpResponse) others[i].get(10, TimeUnit.SECONDS);
+				Assert.assertNotSame(httpResponse, firstResponse);
+				Assert.assertEquals(httpResponse.getCode(), 200);
+				Assert.assertEquals(httpResponse.getPayload(), "{\"id\":1}");
+				Assert.assertEquals(httpResponse.getHeaders(), firstResponse.getHeaders());
+				Assert.assertEquals(timings[i].getSource(), "coalesced");
+			}
+		} finally {
+			completeNetworkCall.countDown();
+			executor.shutdownNow();
+		}
+
+		Assert.assertEquals(networkCalls.get(), 1);
+		Map<String, Object> stats = coalescer.getStatistics();
+		Assert.assertEquals(stats.get("requests"), 3L);
+		Assert.assertEquals(stats.get("networkCalls"), 1L);
+		Assert.assertEquals(stats.get("collapsedRequests"), 2L);
+		Assert.assertEquals(stats.get("maxCollapsedRequests"), 2L);
+	}
+
+	@Test
+	public void waitingRequestGetsErrorOfNetworkCall() throws Exception {
+		SmartHttpRequestCoalescer coalescer = new SmartHttpRequestCoalescer(SmartTestTargetServerConfig.of());
+		CountDownLatch networkCallStarted = new CountDownLatch(1);
+		CountDownLatch completeNetworkCall = new CountDownLatch(1);
+		Supplier<HttpResponse> networkCall = () -> {
+			networkCallStarted.countDown();
+			await(completeNetworkCall);
+			throw new IllegalStateException("Connection refused.");
+		};
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<HttpResponse> first = executor.submit(() -> coalescer.execute("key", networkCall, new SmartHttpTiming()));
+			Assert.assertTrue(networkCallStarted.await(10, TimeUnit.SECONDS));
+			Future<HttpResponse> second = executor.submit(() -> coalescer.execute("key", networkCall, new SmartHttpTiming()));
+			waitForRequests(coalescer, 2);
+			completeNetworkCall.countDown();
+
+			for (Future<HttpResponse> request : List.of(first, second)) {
+				ExecutionException ex = Assert.expectThrows(ExecutionException.class, () -> request.get(10, TimeUnit.SECONDS));
+				Assert.assertTrue(ex.getCause() instanceof IllegalStateException, "Unexpected error " + ex.getCause());
+			}
+		} finally {
+			completeNetworkCall.countDown();
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void completedRequestIsNotReused() {
+		SmartHttpRequestCoalescer coalescer = new SmartHttpRequestCoalescer(SmartTestTargetServerConfig.of());
+		AtomicInteger networkCalls = new AtomicInteger();
+		Supplier<HttpResponse> networkCall = () -> newResponse(200 + networkCalls.getAndIncrement(), "");
+
+		Assert.assertEquals(coalescer.execute("key", networkCall, new SmartHttpTiming()).getCode(), 200);
+		Assert.assertEquals(coalescer.execute("key", networkCall, new SmartHttpTiming()).getCode(), 201);
+		Assert.assertEquals(coalescer.execute("otherKey", networkCall, new SmartHttpTiming()).getCode(), 202);
+		Assert.assertEquals(coalescer.getStatistics().get("networkCalls"), 3L);
+	}
+
+	private static HttpResponse newResponse(int code, String payload) {
+		HttpResponse httpResponse = new HttpResponse();
+		httpResponse.setCode(code);
+		httpResponse.setHeaders(new LinkedHashMap<>(Map.of("Content-Type", "application/json")));
+		httpResponse.setPayload(payload);
+		return httpResponse;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void waitForRequests(SmartHttpRequestCoalescer coalescer, long requests) throws InterruptedException {
+		long endTime = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!Long.valueOf(requests).equals(coalescer.getStatistics().get("requests"))) {
+			Assert.assertTrue(System.nanoTime() - endTime < 0, "Requests are not started in time.");
+			Thread.sleep(5);
+		}
+	}
+}
@@ -0,0 +1,241 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.uitnet.testing.smartfwk.api.core.support.HttpResponse;
+
+/**
+ * Tests of {@link SmartHttpRetryPolicy}.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartHttpRetryPolicyTest {
+
+	@Test
+	public void disabledByDefault() {
+		SmartHttpRetryPolicy policy = new SmartHttpRetryPolicy(SmartTestTargetServerConfig.of());
+		Assert.assertFalse(policy.isRetryable("GET"));
+
+		ResponseSequence responses = new ResponseSequence(503, 200);
+		SmartHttpTiming timing = new SmartHttpTiming();
+		Assert.assertEquals(policy.execute("GET", responses, timing).getCode(), 503);
+		Assert.assertEquals(responses.getCalls(), 1);
+		Assert.assertEquals(timing.getRetries(), 0);
+	}
+
+	@Test
+	public void onlyIdempotentRequestsAreRetryable() {
+		SmartHttpRetryPolicy policy = newPolicy(3);
+		Assert.assertTrue(policy.isRetryable("GET"));
+		Assert.assertTrue(policy.isRetryable(" delete "));
+		Assert.assertFalse(policy.isRetryable("POST"));
+		Assert.assertFalse(policy.isRetryable("PATCH"));
+		Assert.assertFalse(policy.isRetryable(null));
+
+		policy = new SmartHttpRetryPolicy(SmartTestTargetServerConfig.of("retry.maxAttempts", 3, "retry.idempotentOnly", false));
+		Assert.assertTrue(policy.isRetryable("POST"));
+	}
+
+	@Test
+	public void retriesTillSuccess() {
+		SmartHttpRetryPolicy policy = newPolicy(3);
+		ResponseSequence responses = new ResponseSequence(503, 502, 200);
+		SmartHttpTiming timing = new SmartHttpTiming();
+
+		Assert.assertEquals(policy.execute("GET", responses, timing).getCode(), 200);
+		Assert.assertEquals(responses.getCalls(), 3);
+		Assert.assertEquals(timing.getRetries(), 2);
+		Assert.assertEquals(getOutcomes(timing), Arrays.asList("503", "502", "200"));
+		Assert.assertEquals(policy.getMetrics().get("retries"), 2L);
+	}
+
+	@Test
+	public void returnsLastResponseAfterMaxAttempts() {
+		SmartHttpRetryPolicy policy = newPolicy(2);
+		ResponseSequence responses = new ResponseSequence(503, 504, 200);
+		SmartHttpTiming timing = new SmartHttpTiming();
+
+		Assert.assertEquals(policy.execute("GET", responses, timing).getCode(), 504);
+		Assert.assertEquals(responses.getCalls(), 2);
+		Assert.assertEquals(timing.getRetries(), 1);
+	}
+
+	@Test
+	public void otherStatusCodesAreNotRetried() {
+		SmartHttpRetryPolicy policy = newPolicy(3);
+		ResponseSequence responses = new ResponseSequence(500, 200);
+
+		Assert.assertEquals(policy.execute("GET", responses, new SmartHttpTiming()).getCode(), 500);
+		Assert.assertEquals(responses.getCalls(), 1);
+	}
+
+	@Test
+	public void ioErrorIsRetried() {
+		SmartHttpRetryPolicy policy = newPolicy(3);
+		int[] calls = new int[1];
+		Supplier<HttpResponse> attemptCall = () -> {
+			if (calls[0]++ == 0) {
+				throw new IllegalStateException("Request failed.", new IOException("Connection reset"));
+			}
+			return newResponse(200);
+		};
+		SmartHttpTiming timing = new SmartHttpTiming();
+
+		Assert.assertEquals(policy.execute("GET", attemptCall, timing).getCode(), 200);
+		Assert.assertEquals(calls[0], 2);
+		Assert.assertEquals(getOutcomes(timing), Arrays.asList("IllegalStateException", "200"));
+	}
+
+	@Test
+	public void lastIoErrorIsThrownAfterMaxAttempts() {
+		SmartHttpRetryPolicy policy = newPolicy(2);
+		int[] calls = new int[1];
+		Supplier<HttpResponse> attemptCall = () -> {
+			calls[0]++;
+			throw new UncheckedIOException(new IOException("Read timed out"));
+		};
+
+		Assert.assertThrows(UncheckedIOException.class, () -> policy.execute("GET", attemptCall, new SmartHttpTiming()));
+		Assert.assertEquals(calls[0], 2);
+	}
+
+	@Test
+	public void otherErrorIsNotRetried() {
+		SmartHttpRetryPolicy policy = newPolicy(3);
+		int[] calls = new int[1];
+		Supplier<HttpResponse> attemptCall = () -> {
+			calls[0]++;
+			throw new IllegalArgumentException("Invalid request.");
+		};
+
+		Assert.assertThrows(IllegalArgumentException.class, () -> policy.execute("GET", attemptCall, new SmartHttpTiming()));
+		Assert.assertEquals(calls[0], 1);
+	}
+
+	@Test
+	public void retryBudgetLimitsRetries() {
+		SmartHttpRetryPolicy policy = new SmartHttpRetryPolicy(SmartTestTargetServerConfig.of("retry.maxAttempts", 3,
+				"retry.initialIntervalInMillis", 1, "retry.maxIntervalInMillis", 1, "retry.retryBudget.ratio", 0,
+				"retry.retryBudget.maxTokens", 1));
+
+		// first request takes the only token of the budget.
+		ResponseSequence responses = new ResponseSequence(503, 200);
+		Assert.assertEquals(policy.execute("GET", responses, new SmartHttpTiming()).getCode(), 200);
+		Assert.assertEquals(responses.getCalls(), 2);
+
+		responses = new ResponseSequence(503, 200);
+		SmartHttpTiming timing = new SmartHttpTiming();
+		Assert.assertEquals(policy.execute("GET", responses, timing).getCode(), 503);
+		Assert.assertEquals(responses.getCalls(), 1);
+		Assert.assertEquals(timing.getRetries(), 0);
+
+		Map<String, Object> metrics = policy.getMetrics();
+		Assert.assertEquals(metrics.get("requests"), 2L);
+		Assert.assertEquals(metrics.get("retries"), 1L);
+		Assert.assertEquals(metrics.get("budgetExhausted"), 1L);
+	}
+
+	@Test
+	public void retryHeadersOverrideSettings() {
+		SmartHttpRetryPolicy policy = newPolicy(1);
+		Map<String, String> headers = new LinkedHashMap<>();
+		headers.put("Accept", "application/json");
+		headers.put("X-Smartfwk-Retry-MaxAttempts", "3");
+		headers.put("x-smartfwk-retry-idempotentonly", "no");
+
+		SmartHttpRetryPolicy requestPolicy = policy.forRequest(headers);
+		Assert.assertNotSame(requestPolicy, policy);
+		Assert.assertEquals(headers.keySet(), Set.of("Accept"));
+		Assert.assertFalse(policy.isRetryable("POST"));
+		Assert.assertTrue(requestPolicy.isRetryable("POST"));
+
+		Map<String, String> otherHeaders = new LinkedHashMap<>(Map.of("Accept", "application/json"));
+		Assert.assertSame(policy.forRequest(otherHeaders), policy);
+		Assert.assertSame(policy.forRequest(null), policy);
+	}
+
+	@Test
+	public void invalidRetryHeaderIsRejected() {
+		SmartHttpRetryPolicy policy = newPolicy(3);
+		Assert.assertThrows(IllegalArgumentException.class,
+				() -> policy.forRequest(new LinkedHashMap<>(Map.of("X-Smartfwk-Retry-MaxAttempts", "many"))));
+		Assert.assertThrows(IllegalArgumentException.class,
+				() -> policy.forRequest(new LinkedHashMap<>(Map.of("X-Smartfwk-Retry-Unknown", "1"))));
+	}
+
+	private static SmartHttpRetryPolicy newPolicy(int maxAttempts) {
+		return new SmartHttpRetryPolicy(SmartTestTargetServerConfig.of("retry.maxAttempts", maxAttempts,
+				"retry.initialIntervalInMillis", 1, "retry.maxIntervalInMillis", 1));
+	}
+
+	private static HttpResponse newResponse(int code) {
+		HttpResponse httpResponse = new HttpResponse();
+		httpResponse.setCode(code);
+		return httpResponse;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Object> getOutcomes(SmartHttpTiming timing) {
+		List<Object> outcomes = new ArrayList<>();
+		Object attempts = timing.toMap().get("attempts");
+		if (attempts == null) {
+			return outcomes;
+		}
+		for (Map<String, Object> attempt : (List<Map<String, Object>>) attempts) {
+			outcomes.add(attempt.get("outcome"));
+		}
+		return outcomes;
+	}
+
+	/**
+	 * Returns the responses of the specified codes one by one.
+	 */
+	private static class ResponseSequence implements Supplier<HttpResponse> {
+		private Deque<Integer> codes = new ArrayDeque<>();
+		private int calls;
+
+		private ResponseSequence(Integer... codes) {
+			this.codes.addAll(Arrays.asList(codes));
+		}
+
+		@Override
+		public HttpResponse get() {
+			calls++;
+			return newResponse(codes.size() > 1 ? codes.poll() : codes.peek());
+		}
+
+		private int getCalls() {
+			return calls;
+		}
+	}
+}
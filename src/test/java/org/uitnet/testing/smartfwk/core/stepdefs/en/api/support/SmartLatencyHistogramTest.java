@@ -0,0 +1,124 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of {@link SmartLatencyHistogram}.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartLatencyHistogramTest {
+
+	@Test
+	public void emptyHistogramReturnsZero() {
+		SmartLatencyHistogram histogram = new SmartLatencyHistogram();
+		Assert.assertEquals(histogram.getTotalCount(), 0);
+		Assert.assertEquals(histogram.getMinValue(), 0);
+		Assert.assertEquals(histogram.getMaxValue(), 0);
+		Assert.assertEquals(histogram.getMean(), 0.0, 0.0);
+		Assert.assertEquals(histogram.getValueAtPercentile(99), 0);
+	}
+
+	@Test
+	public void smallValuesAreRecordedExactly() {
+		SmartLatencyHistogram histogram = new SmartLatencyHistogram();
+		for (int value = 1; value <= 100; value++) {
+			histogram.recordValue(value);
+		}
+
+		Assert.assertEquals(histogram.getTotalCount(), 100);
+		Assert.assertEquals(histogram.getMinValue(), 1);
+		Assert.assertEquals(histogram.getMaxValue(), 100);
+		Assert.assertEquals(histogram.getMean(), 50.5, 0.0);
+		Assert.assertEquals(histogram.getValueAtPercentile(0), 1);
+		Assert.assertEquals(histogram.getValueAtPercentile(50), 50);
+		Assert.assertEquals(histogram.getValueAtPercentile(90), 90);
+		Assert.assertEquals(histogram.getValueAtPercentile(100), 100);
+	}
+
+	@Test
+	public void largeValuesAreRecordedWithinPrecision() {
+		SmartLatencyHistogram histogram = new SmartLatencyHistogram();
+		for (long value = 1000; value <= 10_000_000; value += 1000) {
+			histogram.recordValue(value);
+		}
+
+		double[][] expectedValues = { { 50, 5_000_000 }, { 90, 9_000_000 }, { 99, 9_900_000 }, { 99.9, 9_990_000 } };
+		for (double[] expected : expectedValues) {
+			long value = histogram.getValueAtPercentile(expected[0]);
+			Assert.assertTrue(value >= expected[1] && value <= expected[1] * 1.016,
+					"p" + expected[0] + " = " + value + " is not within 1.6% of " + (long) expected[1] + ".");
+		}
+		Assert.assertEquals(histogram.getValueAtPercentile(100), 10_000_000);
+	}
+
+	@Test
+	public void percentileNeverExceedsMaxValue() {
+		SmartLatencyHistogram histogram = new SmartLatencyHistogram();
+		histogram.recordValue(1_000_001);
+		Assert.assertEquals(histogram.getValueAtPercentile(50), 1_000_001);
+		Assert.assertEquals(histogram.getValueAtPercentile(150), 1_000_001);
+	}
+
+	@Test
+	public void negativeValueIsRecordedAsZero() {
+		SmartLatencyHistogram histogram = new SmartLatencyHistogram();
+		histogram.recordValue(-5);
+		Assert.assertEquals(histogram.getTotalCount(), 1);
+		Assert.assertEquals(histogram.getMinValue(), 0);
+		Assert.assertEquals(histogram.getMaxValue(), 0);
+	}
+
+	@Test
+	public void mergedHistogramEqualsSingleHistogram() {
+		SmartLatencyHistogram single = new SmartLatencyHistogram();
+		SmartLatencyHistogram first = new SmartLatencyHistogram();
+		SmartLatencyHistogram second = new SmartLatencyHistogram();
+		for (long value = 1; value <= 20_000; value += 7) {
+			single.recordValue(value * 13);
+			(value % 2 == 0 ? first : second).recordValue(value * 13);
+		}
+
+		first.add(second);
+		Assert.assertEquals(first.getTotalCount(), single.getTotalCount());
+		Assert.assertEquals(first.getMinValue(), single.getMinValue());
+		Assert.assertEquals(first.getMaxValue(), single.getMaxValue());
+		Assert.assertEquals(first.getMean(), single.getMean(), 0.001);
+		for (double percentile : new double[] { 10, 50, 90, 99, 99.9 }) {
+			Assert.assertEquals(first.getValueAtPercentile(percentile), single.getValueAtPercentile(percentile));
+		}
+	}
+
+	@Test
+	public void resetRemovesRecordedValues() {
+		SmartLatencyHistogram histogram = new SmartLatencyHistogram();
+		histogram.recordValue(10);
+		histogram.recordValue(Long.MAX_VALUE);
+		histogram.reset();
+
+		Assert.assertEquals(histogram.getTotalCount(), 0);
+		Assert.assertEquals(histogram.getMaxValue(), 0);
+		histogram.recordValue(7);
+		Assert.assertEquals(histogram.getMinValue(), 7);
+		Assert.assertEquals(histogram.getValueAtPercentile(99), 7);
+	}
+}
@@ -0,0 +1,141 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.jayway.jsonpath.Configuration;
+
+/**
+ * Tests of {@link SmartStreamingJsonPathExtractor}.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartStreamingJsonPathExtractorTest {
+	private static final String USERS_JSON = "{ \"meta\": { \"count\": 3 }, \"first name\": \"John\", "
+			+ "\"users\": [ { \"id\": 1, \"tags\": [\"a\", \"b\"] }, { \"id\": 12345678901, \"score\": 2.5 }, { \"name\": \"x\" } ], "
+			+ "\"text\": \"say \\\"hi\\\" \\u0041\", \"empty\": null, \"active\": true }";
+
+	@Test
+	public void unsupportedPathsAreNotCompiled() {
+		Assert.assertNull(SmartStreamingJsonPathExtractor.compile(null));
+		Assert.assertNull(SmartStreamingJsonPathExtractor.compile(""));
+		Assert.assertNull(SmartStreamingJsonPathExtractor.compile("$"));
+		Assert.assertNull(SmartStreamingJsonPathExtractor.compile("$.users[-1]"));
+		Assert.assertNull(SmartStreamingJsonPathExtractor.compile("$..id"));
+		Assert.assertNull(SmartStreamingJsonPathExtractor.compile("$.users[?(@.id > 1)]"));
+		Assert.assertNull(SmartStreamingJsonPathExtractor.compile("$.users[0:2]"));
+	}
+
+	@Test
+	public void definitePathIsExtracted() throws IOException {
+		Assert.assertEquals(extract("$.meta.count", USERS_JSON).getValue(), 3);
+		Assert.assertEquals(extract("$['first name']", USERS_JSON).getValue(), "John");
+		Assert.assertEquals(extract("$.users[1].id", USERS_JSON).getValue(), 12345678901L);
+		Assert.assertEquals(extract("$.users[1].score", USERS_JSON).getValue(), 2.5);
+		Assert.assertEquals(extract("$.users[0].tags[1]", USERS_JSON).getValue(), "b");
+		Assert.assertEquals(extract("$.text", USERS_JSON).getValue(), "say \"hi\" A");
+		Assert.assertEquals(extract("$.active", USERS_JSON).getValue(), Boolean.TRUE);
+
+		SmartStreamingJsonPathExtractor.Result result = extract("$.empty", USERS_JSON);
+		Assert.assertTrue(result.isFound());
+		Assert.assertNull(result.getValue());
+	}
+
+	@Test
+	public void containerValueIsMaterialized() throws IOException {
+		Object user = extract("$.users[0]", USERS_JSON).getValue();
+		Assert.assertTrue(user instanceof Map, "Unexpected value " + user);
+		Assert.assertEquals(((Map<?, ?>) user).get("id"), 1);
+		Assert.assertEquals(((Map<?, ?>) user).get("tags"), List.of("a", "b"));
+	}
+
+	@Test
+	public void wildcardPathIsExtractedAsList() throws IOException {
+		SmartStreamingJsonPathExtractor extractor = SmartStreamingJsonPathExtractor.compile("$.users[*].id");
+		Assert.assertTrue(extractor.isIndefinite());
+
+		SmartStreamingJsonPathExtractor.Result result = extractor.extract(new StringReader(USERS_JSON),
+				Configuration.defaultConfiguration());
+		Assert.assertTrue(result.isFound());
+		Assert.assertEquals(result.getValue(), List.of(1, 12345678901L));
+		Assert.assertEquals(extract("$.meta.*", USERS_JSON).getValue(), List.of(3));
+	}
+
+	@Test
+	public void missingPathIsNotFound() throws IOException {
+		SmartStreamingJsonPathExtractor.Result result = extract("$.users[5].id", USERS_JSON);
+		Assert.assertFalse(result.isFound());
+		Assert.assertNull(result.getValue());
+
+		Assert.assertFalse(extract("$.meta.count.value", USERS_JSON).isFound());
+		Assert.assertFalse(extract("$.users.id", USERS_JSON).isFound());
+
+		// indefinite path always results into the list.
+		result = extract("$.missing[*].id", USERS_JSON);
+		Assert.assertTrue(result.isFound());
+		Assert.assertEquals(result.getValue(), List.of());
+	}
+
+	@Test
+	public void readingStopsAfterMatch() throws IOException {
+		Assert.assertEquals(extract("$.a", "{\"a\": 1, \"b\": [").getValue(), 1);
+		Assert.assertEquals(extract("$.items[*].id", "{\"items\": [{\"id\": 1}], broken").getValue(), List.of(1));
+		// first duplicate member is matched when reading stops early.
+		Assert.assertEquals(extract("$.a", "{\"a\": 1, \"a\": 2}").getValue(), 1);
+	}
+
+	@Test
+	public void remainderIsValidatedIfRequested() {
+		Assert.assertThrows(IOException.class, () -> extract("$.a", "{\"a\": 1, \"b\": [", true));
+		Assert.assertThrows(IOException.class, () -> extract("$.a", "{\"a\": 1} garbage", true));
+		Assert.assertThrows(IOException.class, () -> extract("$.items[*].id", "{\"items\": [{\"id\": 1}], broken", true));
+		Assert.assertThrows(IOException.class, () -> extract("$.a", "{\"a\": 1, \"a\": 2}", true));
+	}
+
+	@Test
+	public void validRemainderIsAccepted() throws IOException {
+		Assert.assertEquals(extract("$.users[0].id", USERS_JSON, true).getValue(), 1);
+		Assert.assertEquals(extract("$.users[*].id", USERS_JSON, true).getValue(), List.of(1, 12345678901L));
+	}
+
+	@Test
+	public void invalidJsonBeforeMatchIsRejected() {
+		Assert.assertThrows(IOException.class, () -> extract("$.a", ""));
+		Assert.assertThrows(IOException.class, () -> extract("$.a", "{\"a\" 1}"));
+		Assert.assertThrows(IOException.class, () -> extract("$.b", "{\"a\": 01, \"b\": 2}"));
+		Assert.assertThrows(IOException.class, () -> extract("$.b", "{\"a\": 1,, \"b\": 2}"));
+	}
+
+	private static SmartStreamingJsonPathExtractor.Result extract(String jsonPath, String json) throws IOException {
+		return extract(jsonPath, json, false);
+	}
+
+	private static SmartStreamingJsonPathExtractor.Result extract(String jsonPath, String json, boolean validateRemainder)
+			throws IOException {
+		return SmartStreamingJsonPathExtractor.compile(jsonPath).extract(new StringReader(json),
+				Configuration.defaultConfiguration(), validateRemainder);
+	}
+}
@@ -0,0 +1,56 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.api.support;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.jayway.jsonpath.JsonPath;
+
+/**
+ * Creates the target server settings for the tests without reading the ApiConfig.yaml file.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartTestTargetServerConfig {
+	public static final String APP_NAME = "TestApp";
+	public static final String TARGET_SERVER = "TestServer";
+
+	/**
+	 * Creates the settings of the target server.
+	 *
+	 * @param settings - the setting path (like retry.maxAttempts) followed by its value, repeated for each setting.
+	 * @return the settings of the target server.
+	 */
+	@SuppressWarnings("unchecked")
+	public static SmartApiTargetServerConfig of(Object... settings) {
+		Map<String, Object> serverSettings = new LinkedHashMap<>();
+		for (int i = 0; i < settings.length; i += 2) {
+			String[] names = settings[i].toString().split("\\.");
+			Map<String, Object> parent = serverSettings;
+			for (int j = 0; j < names.length - 1; j++) {
+				parent = (Map<String, Object>) parent.computeIfAbsent(names[j], k -> new LinkedHashMap<>());
+			}
+			parent.put(names[names.length - 1], settings[i + 1]);
+		}
+
+		Map<String, Object> config = Map.of("apiStepDefs", Map.of("targetServers", Map.of(TARGET_SERVER, serverSettings)));
+		return new SmartApiTargetServerConfig(APP_NAME, TARGET_SERVER, JsonPath.parse(config));
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.common.data.support;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of {@link SmartJsonStructuralDiff}.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartJsonStructuralDiffTest {
+
+	@Test
+	public void propertyOrderIsIgnored() {
+		Object expected = map("id", 1, "name", "John", "tags", Arrays.asList("a", "b"));
+		Object actual = map("tags", Arrays.asList("a", "b"), "name", "John", "id", 1);
+
+		SmartJsonStructuralDiff.Result result = new SmartJsonStructuralDiff(null, 10).compare(expected, actual);
+		Assert.assertTrue(result.isEqual(), "Unexpected differences " + result.getDifferences());
+		Assert.assertEquals(result.getSkippedSubtrees(), 1);
+	}
+
+	@Test
+	public void numbersAreComparedByValue() {
+		SmartJsonStructuralDiff diff = new SmartJsonStructuralDiff(null, 10);
+		Assert.assertTrue(diff.compare(map("a", 1, "b", 2.50), map("a", 1.0, "b", new BigDecimal("2.5"))).isEqual());
+		Assert.assertTrue(diff.compare(map("a", 12345678901L), map("a", 12345678901.0)).isEqual());
+		Assert.assertEquals(diff.compare(map("a", 1), map("a", "1")).getDifferences(),
+				List.of("$.a: expected 1 but found \"1\"."));
+	}
+
+	@Test
+	public void differencesAreReportedWithPath() {
+		Object expected = map("user", map("name", "John", "age", 30, "first name", "J", "address", map("city", "Pune")));
+		Object actual = map("user", map("name", "Jane", "first name", "K", "address", Arrays.asList("Pune"), "email", "j@x"));
+
+		SmartJsonStructuralDiff.Result result = new SmartJsonStructuralDiff(null, 10).compare(expected, actual);
+		Assert.assertFalse(result.isEqual());
+		Assert.assertEquals(result.getDifferences(), List.of(
+				"$.user.name: expected \"John\" but found \"Jane\".",
+				"$.user.age: missing in actual.",
+				"$.user['first name']: expected \"J\" but found \"K\".",
+				"$.user.address: expected object of 1 properties but found array of 1 elements.",
+				"$.user.email: unexpected in actual."));
+		Assert.assertFalse(result.isTruncated());
+	}
+
+	@Test
+	public void arrayOrderAndSizeAreCompared() {
+		SmartJsonStructuralDiff diff = new SmartJsonStructuralDiff(null, 10);
+		Assert.assertEquals(diff.compare(Arrays.asList(1, 2), Arrays.asList(2, 1)).getDifferences(),
+				List.of("$[0]: expected 1 but found 2.", "$[1]: expected 2 but found 1."));
+		Assert.assertEquals(diff.compare(map("items", Arrays.asList(1, 2)), map("items", Arrays.asList(1, 2, 3))).getDifferences(),
+				List.of("$.items: expected 2 elements but found 3 elements."));
+	}
+
+	@Test
+	public void nullIsComparedAsValue() {
+		SmartJsonStructuralDiff diff = new SmartJsonStructuralDiff(null, 10);
+		Assert.assertTrue(diff.compare(map("a", null), map("a", null)).isEqual());
+		Assert.assertEquals(diff.compare(map("a", null), map()).getDifferences(), List.of("$.a: missing in actual."));
+		Assert.assertEquals(diff.compare(map("a", null), map("a", 0)).getDifferences(), List.of("$.a: expected null but found 0."));
+		Assert.assertEquals(diff.compare(map("a", Arrays.asList((Object) null)), map("a", Arrays.asList("null"))).getDifferences(),
+				List.of("$.a[0]: expected null but found \"null\"."));
+	}
+
+	@Test
+	public void identicalSubtreesAreSkipped() {
+		Object expected = map("meta", map("version", 1), "items", Arrays.asList(map("id", 1), map("id", 2), map("id", 3)));
+		Object actual = map("meta", map("version", 2), "items", Arrays.asList(map("id", 1), map("id", 2), map("id", 3)));
+
+		SmartJsonStructuralDiff.Result result = new SmartJsonStructuralDiff(null, 10).compare(expected, actual);
+		Assert.assertEquals(result.getDifferences(), List.of("$.meta.version: expected 1 but found 2."));
+		// items array is compared using its hash, its elements are not visited.
+		Assert.assertEquals(result.getSkippedSubtrees(), 1);
+	}
+
+	@Test
+	public void ignoredPathsAreExcluded() {
+		Object expected = map("meta", map("timestamp", "2024-01-01", "version", 1),
+				"items", Arrays.asList(map("id", 1, "name", "a", "detail", map("updatedAt", 1)), map("id", 2, "name", "b")),
+				"updatedAt", 5);
+		Object actual = map("meta", map("timestamp", "2025-06-30", "version", 1),
+				"items", Arrays.asList(map("id", 7, "name", "a", "detail", map("updatedAt", 2)), map("id", 8, "name", "b")),
+				"updatedAt", 6);
+
+		List<String> ignoredPaths = List.of("$.meta.timestamp", "$.items[*].id", "$..updatedAt");
+		SmartJsonStructuralDiff.Result result = new SmartJsonStructuralDiff(ignoredPaths, 10).compare(expected, actual);
+		Assert.assertTrue(result.isEqual(), "Unexpected differences " + result.getDifferences());
+
+		Assert.assertEquals(new SmartJsonStructuralDiff(List.of("$.items[*].id"), 10).compare(expected, actual).getDifferences(),
+				List.of("$.meta.timestamp: expected \"2024-01-01\" but found \"2025-06-30\".",
+						"$.items[0].detail.updatedAt: expected 1 but found 2.",
+						"$.updatedAt: expected 5 but found 6."));
+	}
+
+	@Test
+	public void ignoredPropertyMayBeMissing() {
+		SmartJsonStructuralDiff diff = new SmartJsonStructuralDiff(List.of("$.requestId", "$.items[-1]"), 10);
+		Assert.assertTrue(diff.compare(map("requestId", "r1", "items", Arrays.asList(1, 2)), map("items", Arrays.asList(1, 3))).isEqual());
+		Assert.assertTrue(diff.compare(map(), map("requestId", "r2")).isEqual());
+	}
+
+	@Test
+	public void unsupportedIgnoredPathIsRejected() {
+		Assert.assertThrows(IllegalArgumentException.class, () -> new SmartJsonStructuralDiff(List.of("$.items[?(@.id)]"), 10));
+		Assert.assertThrows(IllegalArgumentException.class, () -> new SmartJsonStructuralDiff(List.of("items.id"), 10));
+	}
+
+	@Test
+	public void differencesAreTruncated() {
+		SmartJsonStructuralDiff.Result result = new SmartJsonStructuralDiff(null, 2).compare(Arrays.asList(1, 2, 3, 4),
+				Arrays.asList(5, 6, 7, 8));
+		Assert.assertFalse(result.isEqual());
+		Assert.assertTrue(result.isTruncated());
+		Assert.assertEquals(result.getDifferences(), List.of("$[0]: expected 1 but found 5.", "$[1]: expected 2 but found 6."));
+	}
+
+	private static Map<String, Object> map(Object... keyValues) {
+		Map<String, Object> map = new LinkedHashMap<>();
+		for (int i = 0; i < keyValues.length; i += 2) {
+			map.put((String) keyValues[i], keyValues[i + 1]);
+		}
+		return map;
+	}
+}
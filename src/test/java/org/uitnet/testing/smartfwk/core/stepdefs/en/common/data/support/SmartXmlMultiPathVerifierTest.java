@@ -0,0 +1,175 @@
+/*
+ * SmartTestAutoFramework
+ * Copyright 2021 and beyond [Madhav Krishna]
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.uitnet.testing.smartfwk.core.stepdefs.en.common.data.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.w3c.dom.Document;
+
+/**
+ * Tests of {@link SmartXmlMultiPathVerifier}.
+ *
+ * @author Madhav Krishna
+ *
+ */
+public class SmartXmlMultiPathVerifierTest {
+	private static final String USERS_XML = "<?xml version=\"1.0\"?>\n"
+			+ "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\"><soap:Body>"
+			+ "<users>"
+			+ "<user name=\"test-name\" state=\"Virginia\" active=\"true\"><city>Richmond</city></user>"
+			+ "<user name=\"other\" state=\"Ohio\" active=\"false\"><city><![CDATA[Columbus]]></city></user>"
+			+ "<group><user name=\"nested\" state=\"Texas\"><city>Austin</city></user></group>"
+			+ "</users>"
+			+ "</soap:Body></soap:Envelope>";
+
+	@Test
+	public void supportedPathsAreStreamable() {
+		for (String path : List.of("/soap:Envelope/soap:Body/users/user", "//user/city", "/*/*/users//city",
+				"//user[@name='test-name'][@active]", "//user[@name != \"other\"]/@state", "count(//user[@active='true'])",
+				"{path: \"count(//user)\", valueType: \"integer\"}")) {
+			SmartXmlMultiPathVerifier verifier = new SmartXmlMultiPathVerifier();
+			verifier.addRow(path, "present", "");
+			Assert.assertTrue(verifier.isStreamable(), path + " is not streamable.");
+		}
+	}
+
+	@Test
+	public void otherPathsAreNotStreamable() {
+		for (String path : List.of("//user[1]", "//user[city='Austin']", "//user/text()", "string(//user/@name)", "user",
+				"//@name", "//user[@name=test-name]", "//user | //group", "//user/..", "//user/.", "//user/@1a", "{path: \"//user\"")) {
+			SmartXmlMultiPathVerifier verifier = new SmartXmlMultiPathVerifier();
+			verifier.addRow("//user", "present", "");
+			verifier.addRow(path, "present", "");
+			Assert.assertFalse(verifier.isStreamable(), path + " is streamable.");
+		}
+	}
+
+	@Test
+	public void rowsAreVerifiedWhileStreaming() {
+		SmartXmlMultiPathVerifier verifier = new SmartXmlMultiPathVerifier();
+		verifier.addRow("//user[@name='test-name']", "present", "");
+		verifier.addRow("//user[@name='unknown']", "not-present", "");
+		verifier.addRow("{path: \"count(//user)\", valueType: \"integer\"}", "=", "{ ev: 3, valueType: 'integer'}");
+		verifier.addRow("{path: \"count(/soap:Envelope/soap:Body/users/user[@active])\", valueType: \"integer\"}", "=",
+				"{ ev: 2, valueType: 'integer'}");
+		verifier.addRow("{path: \"//user[@name='test-name']/@state\", valueType: \"string\"}", "=",
+				"{ ev: \"Virginia\", valueType: 'string'}");
+		verifier.addRow("{path: \"//user[@name='other']/city\", valueType: \"string\"}", "=",
+				"{ ev: \"Columbus\", valueType: 'string'}");
+		verifier.addRow("{path: \"//group/user/@name\", valueType: \"string\"}", "=", "{ ev: \"nested\", valueType: 'string'}");
+		Assert.assertTrue(verifier.isStreamable());
+
+		verifier.verify(new StringReader(USERS_XML), () -> {
+			throw new AssertionError("DOM document is used for streamable rows.");
+		});
+	}
+
+	@Test
+	public void failedRowIsReported() {
+		SmartXmlMultiPathVerifier verifier = new SmartXmlMultiPathVerifier();
+		verifier.addRow("//user[@name='test-name']", "present", "");
+		verifier.addRow("{path: \"//user[@name='other']/@state\", valueType: \"string\"}", "=",
+				"{ ev: \"Virginia\", valueType: 'string'}");
+
+		Assert.assertThrows(AssertionError.class, () -> verifier.verify(new StringReader(USERS_XML), () -> {
+			throw new IllegalStateException("DOM document is used for streamable rows.");
+		}));
+	}
+
+	@Test
+	public void missingElementIsReported() {
+		SmartXmlMultiPathVerifier verifier = new SmartXmlMultiPathVerifier();
+		verifier.addRow("//user[@name='unknown']", "present", "");
+
+		Assert.assertThrows(AssertionError.class, () -> verifier.verify(new StringReader(USERS_XML), () -> {
+			throw new IllegalStateException("DOM document is used for streamable rows.");
+		}));
+	}
+
+	@Test
+	public void otherPathsAreVerifiedOnDomDocument() {
+		SmartXmlMultiPathVerifier verifier = new SmartXmlMultiPathVerifier();
+		verifier.addRow("//user[@name='test-name']", "present", "");
+		verifier.addRow("{path: \"//user[city='Austin']/@state\", valueType: \"string\"}", "=",
+				"{ ev: \"Texas\", valueType: 'string'}");
+		Assert.assertFalse(verifier.isStreamable());
+
+		DomSupplier domSupplier = new DomSupplier(USERS_XML);
+		verifier.verify(new StringReader(""), domSupplier);
+		Assert.assertEquals(domSupplier.getCalls(), 1);
+	}
+
+	@Test
+	public void payloadWithEntitiesIsVerifiedOnDomDocument() {
+		String xml = "<?xml version=\"1.0\"?><!DOCTYPE users [<!ENTITY state \"Virginia\">]>"
+				+ "<users><user name=\"test-name\" state=\"&state;\"/></users>";
+		SmartXmlMultiPathVerifier verifier = new SmartXmlMultiPathVerifier();
+		verifier.addRow("{path: \"//user/@state\", valueType: \"string\"}", "=", "{ ev: \"Virginia\", valueType: 'string'}");
+		Assert.assertTrue(verifier.isStreamable());
+
+		DomSupplier domSupplier = new DomSupplier(xml);
+		verifier.verify(new StringReader(xml), domSupplier);
+		Assert.assertEquals(domSupplier.getCalls(), 1);
+	}
+
+	@Test
+	public void invalidPayloadIsParsedAsDomDocument() {
+		SmartXmlMultiPathVerifier verifier = new SmartXmlMultiPathVerifier();
+		verifier.addRow("//user", "present", "");
+
+		DomSupplier domSupplier = new DomSupplier("<users><user/></users>");
+		verifier.verify(new StringReader("<users><user></users>"), domSupplier);
+		Assert.assertEquals(domSupplier.getCalls(), 1);
+	}
+
+	/**
+	 * Parses the DOM document of the payload and counts the calls.
+	 */
+	private static class DomSupplier implements Supplier<Document> {
+		private String xml;
+		private AtomicInteger calls = new AtomicInteger();
+
+		private DomSupplier(String xml) {
+			this.xml = xml;
+		}
+
+		@Override
+		public Document get() {
+			calls.incrementAndGet();
+			try {
+				return DocumentBuilderFactory.newInstance().newDocumentBuilder()
+						.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+			} catch (Exception ex) {
+				throw new IllegalStateException("Failed to parse XML.", ex);
+			}
+		}
+
+		private int getCalls() {
+			return calls.get();
+		}
+	}
+}